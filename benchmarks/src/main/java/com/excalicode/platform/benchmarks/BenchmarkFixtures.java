@@ -0,0 +1,106 @@
+package com.excalicode.platform.benchmarks;
+
+import com.excalicode.platform.core.model.chatbi.ChatBiQueryPlan;
+import com.excalicode.platform.core.model.cosmic.CosmicProcess;
+import com.excalicode.platform.core.model.cosmic.CosmicProcessStep;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** 基准测试数据：固定随机种子，保证不同提交之间输入一致。 */
+final class BenchmarkFixtures {
+
+  private static final String[] MOVEMENT_TYPES = {"E", "R", "W", "X"};
+  private static final int STEPS_PER_PROCESS = 4;
+
+  private BenchmarkFixtures() {}
+
+  /**
+   * 生成 COSMIC 过程列表，字段带首尾空白与小写移动类型，覆盖清洗逻辑。
+   *
+   * @param rows 子过程总行数
+   * @return 过程列表
+   */
+  static List<CosmicProcess> cosmicProcesses(int rows) {
+    Random random = new Random(42);
+    int processCount = Math.max(1, rows / STEPS_PER_PROCESS);
+    List<CosmicProcess> processes = new ArrayList<>(processCount);
+    for (int i = 0; i < processCount; i++) {
+      List<CosmicProcessStep> steps = new ArrayList<>(STEPS_PER_PROCESS);
+      for (int j = 0; j < STEPS_PER_PROCESS; j++) {
+        String movement = MOVEMENT_TYPES[random.nextInt(MOVEMENT_TYPES.length)];
+        steps.add(
+            CosmicProcessStep.builder()
+                .subProcessDesc("  用户提交第 " + (j + 1) + " 项业务数据并校验格式  ")
+                .dataMovementType(j % 2 == 0 ? movement.toLowerCase() : movement)
+                .dataGroup(" 业务数据组" + random.nextInt(50) + " ")
+                .dataAttributes("编号、名称、状态、创建时间、更新时间、负责人" + random.nextInt(100))
+                .build());
+      }
+      processes.add(
+          CosmicProcess.builder()
+              .triggerEvent(" 操作员发起业务操作" + i + " ")
+              .functionalProcess(" 业务功能过程" + i + " ")
+              .processSteps(steps)
+              .build());
+    }
+    return processes;
+  }
+
+  /**
+   * 生成需求文档正文，段落之间带换行。
+   *
+   * @param length 字符数
+   * @return 文本
+   */
+  static String requirementDocument(int length) {
+    String paragraph = "系统应支持用户按项目维度查询需求清单，并可按状态、负责人与发布时间筛选，结果按更新时间倒序展示。\n";
+    StringBuilder builder = new StringBuilder(length + paragraph.length());
+    while (builder.length() < length) {
+      builder.append(paragraph);
+    }
+    builder.setLength(length);
+    return builder.toString();
+  }
+
+  /** 构建覆盖维度、指标、过滤与排序的典型 ChatBI 查询计划，校验会修改计划，每次调用返回新实例 */
+  static ChatBiQueryPlan chatBiPlan() {
+    ChatBiQueryPlan plan = new ChatBiQueryPlan();
+    plan.setDataset("TASK");
+    plan.setNeedClarification(false);
+
+    ChatBiQueryPlan.Dimension assignee = new ChatBiQueryPlan.Dimension();
+    assignee.setField("ASSIGNEE_NAME");
+    ChatBiQueryPlan.Dimension status = new ChatBiQueryPlan.Dimension();
+    status.setField("STATUS");
+    status.setAlias("状态");
+    plan.setDimensions(List.of(assignee, status));
+
+    ChatBiQueryPlan.Measure count = new ChatBiQueryPlan.Measure();
+    count.setAgg("COUNT");
+    count.setField("TASK_ID");
+    count.setAlias("任务数");
+    ChatBiQueryPlan.Measure workload = new ChatBiQueryPlan.Measure();
+    workload.setAgg("sum");
+    workload.setField("WORKLOAD_MAN_DAY");
+    plan.setMeasures(List.of(count, workload));
+
+    ChatBiQueryPlan.Filter statusFilter = new ChatBiQueryPlan.Filter();
+    statusFilter.setField("STATUS");
+    statusFilter.setOp("in");
+    statusFilter.setValues(List.of(" IN_PROGRESS ", "DONE", ""));
+    ChatBiQueryPlan.Filter timeFilter = new ChatBiQueryPlan.Filter();
+    timeFilter.setField("PUBLISHED_TIME");
+    timeFilter.setOp("BETWEEN");
+    timeFilter.setFrom("2025-01-01");
+    timeFilter.setTo("2025-06-30 23:59:59");
+    plan.setFilters(List.of(statusFilter, timeFilter));
+
+    ChatBiQueryPlan.OrderBy orderBy = new ChatBiQueryPlan.OrderBy();
+    orderBy.setField("STATUS");
+    orderBy.setDirection("desc");
+    plan.setOrderBy(List.of(orderBy));
+    plan.setLimit(100);
+    return plan;
+  }
+}
@@ -0,0 +1,42 @@
+package com.excalicode.platform.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口：参数与 JMH 命令行一致，结果固定输出为 JSON，便于不同提交之间对比。
+ *
+ * <p>结果文件默认为 {@code benchmarks/results/<label>.json}，label 通过 {@code -Dbenchmark.label}
+ * 指定（建议使用提交号），未指定时使用当前时间。
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    String label =
+        System.getProperty(
+            "benchmark.label",
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+    Path outputDir = Path.of(System.getProperty("benchmark.output", "benchmarks/results"));
+    Files.createDirectories(outputDir);
+    Path resultFile = outputDir.resolve(label + ".json");
+
+    Options options =
+        new OptionsBuilder()
+            .parent(commandLine)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile.toString())
+            .build();
+    new Runner(options).run();
+    System.out.println("基准测试结果已写入 " + resultFile.toAbsolutePath());
+  }
+}
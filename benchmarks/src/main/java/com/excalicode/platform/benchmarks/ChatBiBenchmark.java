@@ -0,0 +1,47 @@
+package com.excalicode.platform.benchmarks;
+
+import com.excalicode.platform.core.model.chatbi.ChatBiBuiltQuery;
+import com.excalicode.platform.core.service.chatbi.ChatBiPlanValidator;
+import com.excalicode.platform.core.service.chatbi.ChatBiSqlSafetyGuard;
+import com.excalicode.platform.core.service.chatbi.TaskBiSqlBuilder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** ChatBI 计划校验、SQL 构建与安全栅栏 */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ChatBiBenchmark {
+
+  private ChatBiPlanValidator.ValidatedPlan validatedPlan;
+
+  @Setup
+  public void setUp() {
+    validatedPlan = ChatBiPlanValidator.validateAndNormalize(BenchmarkFixtures.chatBiPlan());
+  }
+
+  /** 校验会修改计划，计划构建成本一并计入 */
+  @Benchmark
+  public ChatBiPlanValidator.ValidatedPlan validateAndNormalize() {
+    return ChatBiPlanValidator.validateAndNormalize(BenchmarkFixtures.chatBiPlan());
+  }
+
+  @Benchmark
+  public ChatBiBuiltQuery buildAndAssertSafe() {
+    ChatBiBuiltQuery query = TaskBiSqlBuilder.build(validatedPlan);
+    ChatBiSqlSafetyGuard.assertSafeSelect(query.sql());
+    return query;
+  }
+}
@@ -0,0 +1,52 @@
+package com.excalicode.platform.benchmarks;
+
+import com.excalicode.platform.core.model.cosmic.CosmicProcess;
+import com.excalicode.platform.core.service.CosmicExcelService;
+import com.excalicode.platform.core.service.cosmic.CosmicProcessSanitizer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** COSMIC 过程清洗与 Excel 报告生成，rows 为子过程总行数 */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CosmicProcessBenchmark {
+
+  @Param({"1000", "10000"})
+  public int rows;
+
+  private List<CosmicProcess> rawProcesses;
+  private List<CosmicProcess> sanitizedProcesses;
+  private CosmicExcelService excelService;
+
+  @Setup
+  public void setUp() {
+    rawProcesses = BenchmarkFixtures.cosmicProcesses(rows);
+    sanitizedProcesses = CosmicProcessSanitizer.sanitize(rawProcesses);
+    excelService = new CosmicExcelService();
+  }
+
+  @Benchmark
+  public List<CosmicProcess> sanitize() {
+    return CosmicProcessSanitizer.sanitize(rawProcesses);
+  }
+
+  @Benchmark
+  public byte[] generateExcelReport() {
+    return excelService.generateExcelReport(sanitizedProcesses);
+  }
+}
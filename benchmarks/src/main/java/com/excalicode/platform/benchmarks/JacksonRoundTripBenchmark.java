@@ -0,0 +1,71 @@
+package com.excalicode.platform.benchmarks;
+
+import com.excalicode.platform.core.api.cosmic.AnalysisResponse;
+import com.excalicode.platform.core.entity.CosmicAnalysisTask;
+import com.excalicode.platform.core.model.cosmic.CosmicAnalysisTaskStatus;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/** AnalysisResponse 与 CosmicAnalysisTask 的 JSON 序列化/反序列化往返 */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonRoundTripBenchmark {
+
+  @Param({"100", "1000"})
+  public int rows;
+
+  private ObjectMapper objectMapper;
+  private AnalysisResponse analysisResponse;
+  private CosmicAnalysisTask task;
+
+  @Setup
+  public void setUp() {
+    objectMapper = JsonMapper.builder().build();
+    analysisResponse =
+        AnalysisResponse.builder().processes(BenchmarkFixtures.cosmicProcesses(rows)).build();
+
+    // 与异步任务一致：请求与结果以 JSON 字符串形式存放在实体中
+    LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+    task = new CosmicAnalysisTask();
+    task.setId(1L);
+    task.setUserId(1L);
+    task.setUsername("admin");
+    task.setStatus(CosmicAnalysisTaskStatus.SUCCEEDED.name());
+    task.setRequestPayload(objectMapper.writeValueAsString(analysisResponse.getProcesses()));
+    task.setResponsePayload(objectMapper.writeValueAsString(analysisResponse));
+    task.setStartedTime(now);
+    task.setFinishedTime(now.plusMinutes(3));
+    task.setCreatedTime(now);
+    task.setUpdatedTime(now.plusMinutes(3));
+    task.setDeleted(0);
+  }
+
+  @Benchmark
+  public AnalysisResponse analysisResponseRoundTrip() {
+    String json = objectMapper.writeValueAsString(analysisResponse);
+    return objectMapper.readValue(json, AnalysisResponse.class);
+  }
+
+  @Benchmark
+  public CosmicAnalysisTask cosmicAnalysisTaskRoundTrip() {
+    String json = objectMapper.writeValueAsString(task);
+    return objectMapper.readValue(json, CosmicAnalysisTask.class);
+  }
+}
@@ -0,0 +1,47 @@
+package com.excalicode.platform.benchmarks;
+
+import com.excalicode.platform.core.service.rag.RequirementChunkSplitter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** 需求知识文档分段，尺寸与默认配置一致 */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequirementChunkSplitterBenchmark {
+
+  @Param({"10000", "200000"})
+  public int length;
+
+  @Param({"2000"})
+  public int chunkSize;
+
+  @Param({"200"})
+  public int chunkOverlap;
+
+  private String content;
+
+  @Setup
+  public void setUp() {
+    content = BenchmarkFixtures.requirementDocument(length);
+  }
+
+  @Benchmark
+  public List<String> split() {
+    return RequirementChunkSplitter.split(content, chunkSize, chunkOverlap);
+  }
+}
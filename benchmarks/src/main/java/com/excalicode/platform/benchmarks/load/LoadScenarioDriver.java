@@ -0,0 +1,316 @@
+package com.excalicode.platform.benchmarks.load;
+
+import com.excalicode.platform.benchmarks.stub.StubOpenAiServer;
+import com.excalicode.platform.benchmarks.stub.StubSettings;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * 端到端压测驱动：以固定并发循环请求各接口，统计吞吐与 p50/p95/p99 延迟，结果写入 JSON。
+ *
+ * <p>配合 {@link StubOpenAiServer} 使用时应用不访问外网，测得的是本项目自身的开销（JSON 转换、清洗、数据库写入等）。
+ * 配置均通过 {@code -Dload.xxx} 系统属性指定，见 {@link #main(String[])}。
+ */
+public final class LoadScenarioDriver {
+
+  private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().build();
+
+  private final HttpClient httpClient =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+  private final String baseUrl;
+  private final Duration requestTimeout;
+  private String token;
+
+  private LoadScenarioDriver(String baseUrl, Duration requestTimeout) {
+    this.baseUrl = baseUrl;
+    this.requestTimeout = requestTimeout;
+  }
+
+  /**
+   * 入口。
+   *
+   * <ul>
+   *   <li>{@code load.base-url}：应用地址，默认 {@code http://localhost:8080}
+   *   <li>{@code load.username} / {@code load.password}：登录账号，默认初始化脚本中的管理员
+   *   <li>{@code load.scenarios}：场景列表，默认 {@code enhance,analyze,chatbi,vacation}
+   *   <li>{@code load.concurrency}、{@code load.warmup-seconds}、{@code load.duration-seconds}
+   *   <li>{@code load.vacation-file}：勤时考勤 Excel，未指定时跳过 vacation 场景
+   *   <li>{@code load.start-stub}：为 true 时在本进程内启动 OpenAI 桩服务（配置见 {@link StubSettings}）
+   *   <li>{@code load.label} / {@code load.output}：结果文件名与目录
+   * </ul>
+   */
+  public static void main(String[] args) throws Exception {
+    StubOpenAiServer stub = null;
+    if (Boolean.getBoolean("load.start-stub")) {
+      stub = new StubOpenAiServer(StubSettings.fromSystemProperties());
+      stub.start();
+      System.out.println("OpenAI 桩服务已启动: " + stub.baseUrl());
+    }
+    try {
+      LoadScenarioDriver driver =
+          new LoadScenarioDriver(
+              System.getProperty("load.base-url", "http://localhost:8080"),
+              Duration.ofSeconds(Long.getLong("load.request-timeout-seconds", 300)));
+      driver.login(
+          System.getProperty("load.username", "admin"),
+          System.getProperty("load.password", "admin123"));
+
+      int concurrency = Integer.getInteger("load.concurrency", 16);
+      Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10));
+      Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 60));
+      String vacationFile = System.getProperty("load.vacation-file");
+
+      Map<String, ScenarioResult> results = new LinkedHashMap<>();
+      for (String name :
+          System.getProperty("load.scenarios", "enhance,analyze,chatbi,vacation").split(",")) {
+        Scenario scenario = Scenario.valueOf(name.trim().toUpperCase());
+        if (scenario == Scenario.VACATION && vacationFile == null) {
+          System.out.println("未指定 load.vacation-file，跳过 vacation 场景");
+          continue;
+        }
+        RequestFactory factory = driver.requestFactory(scenario, vacationFile);
+        driver.run(factory, concurrency, warmup);
+        ScenarioResult result = driver.run(factory, concurrency, duration);
+        results.put(scenario.path, result);
+        System.out.printf(
+            "%-26s rps=%8.2f p50=%6dms p95=%6dms p99=%6dms errors=%d/%d%n",
+            scenario.path,
+            result.requestsPerSecond(),
+            result.p50Millis(),
+            result.p95Millis(),
+            result.p99Millis(),
+            result.errors(),
+            result.requests());
+      }
+      writeResults(results, concurrency, duration);
+    } finally {
+      if (stub != null) {
+        stub.close();
+      }
+    }
+  }
+
+  private void login(String username, String password) throws IOException, InterruptedException {
+    String body =
+        OBJECT_MAPPER.writeValueAsString(Map.of("username", username, "password", password));
+    HttpResponse<String> response =
+        httpClient.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("登录失败: " + response.statusCode() + " " + response.body());
+    }
+    token = OBJECT_MAPPER.readTree(response.body()).path("token").asString();
+  }
+
+  /** 固定并发闭环压测：每个虚拟线程完成一个请求后立即发起下一个 */
+  private ScenarioResult run(RequestFactory factory, int concurrency, Duration duration) {
+    long deadline = System.nanoTime() + duration.toNanos();
+    long start = System.nanoTime();
+    List<Future<Samples>> futures = new ArrayList<>(concurrency);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < concurrency; i++) {
+        futures.add(executor.submit(() -> loop(factory, deadline)));
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+
+    List<Long> latencies = new ArrayList<>();
+    int errors = 0;
+    for (Future<Samples> future : futures) {
+      try {
+        Samples samples = future.get();
+        latencies.addAll(samples.latencies());
+        errors += samples.errors();
+      } catch (Exception ex) {
+        throw new IllegalStateException("压测线程异常", ex);
+      }
+    }
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    int requests = sorted.length;
+    return new ScenarioResult(
+        requests,
+        errors,
+        requests / (elapsed / 1_000_000_000.0),
+        percentile(sorted, 0.50),
+        percentile(sorted, 0.95),
+        percentile(sorted, 0.99));
+  }
+
+  private Samples loop(RequestFactory factory, long deadline) {
+    List<Long> latencies = new ArrayList<>();
+    int errors = 0;
+    while (System.nanoTime() < deadline) {
+      long start = System.nanoTime();
+      boolean success;
+      try {
+        // 流式接口以完整读完响应为准
+        HttpResponse<InputStream> response =
+            httpClient.send(factory.create(), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+          body.transferTo(OutputStream.nullOutputStream());
+        }
+        success = response.statusCode() / 100 == 2;
+      } catch (IOException ex) {
+        success = false;
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      if (!success) {
+        errors++;
+      }
+    }
+    return new Samples(latencies, errors);
+  }
+
+  private RequestFactory requestFactory(Scenario scenario, String vacationFile)
+      throws IOException {
+    URI uri = URI.create(baseUrl + scenario.path);
+    if (scenario == Scenario.VACATION) {
+      String boundary = UUID.randomUUID().toString();
+      byte[] body = multipart(Path.of(vacationFile), boundary);
+      return () ->
+          authorized(uri)
+              .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+              .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+              .build();
+    }
+    String json = OBJECT_MAPPER.writeValueAsString(scenario.payload);
+    return () ->
+        authorized(uri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+  }
+
+  private HttpRequest.Builder authorized(URI uri) {
+    return HttpRequest.newBuilder(uri)
+        .timeout(requestTimeout)
+        .header("Authorization", "Bearer " + token);
+  }
+
+  /** 构建单文件 multipart 请求体 */
+  private static byte[] multipart(Path file, String boundary) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    body.writeBytes(
+        ("--"
+                + boundary
+                + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\""
+                + file.getFileName()
+                + "\"\r\nContent-Type: application/octet-stream\r\n\r\n")
+            .getBytes(StandardCharsets.UTF_8));
+    body.writeBytes(Files.readAllBytes(file));
+    body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+    return body.toByteArray();
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return -1;
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.clamp(index, 0, sorted.length - 1)];
+  }
+
+  private static void writeResults(
+      Map<String, ScenarioResult> results, int concurrency, Duration duration) throws IOException {
+    String label =
+        System.getProperty(
+            "load.label",
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+    Path outputDir = Path.of(System.getProperty("load.output", "benchmarks/results"));
+    Files.createDirectories(outputDir);
+    Path file = outputDir.resolve("load-" + label + ".json");
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("label", label);
+    report.put("concurrency", concurrency);
+    report.put("durationSeconds", duration.toSeconds());
+    report.put("scenarios", results);
+    Files.writeString(
+        file, OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    System.out.println("压测结果已写入 " + file.toAbsolutePath());
+  }
+
+  /** 压测场景及其请求体 */
+  private enum Scenario {
+    ENHANCE(
+        "/api/requirement/enhance",
+        Map.of(
+            "originalRequirement", "员工可以在线提交请假申请，部门经理审批后同步到考勤系统，并通知申请人审批结果。",
+            "expectedProcessCount", 5)),
+    ANALYZE(
+        "/api/cosmic/analyze",
+        Map.of(
+            "functionalProcesses",
+            List.of(
+                Map.of("description", "员工提交请假申请"),
+                Map.of("description", "经理审批请假申请"),
+                Map.of("description", "系统同步考勤记录"),
+                Map.of("description", "系统通知审批结果")))),
+    CHATBI("/api/chatbi/ask", Map.of("question", "统计各状态的任务数量")),
+    VACATION("/api/vacation/process", Map.of());
+
+    private final String path;
+    private final Map<String, Object> payload;
+
+    Scenario(String path, Map<String, Object> payload) {
+      this.path = path;
+      this.payload = payload;
+    }
+  }
+
+  @FunctionalInterface
+  private interface RequestFactory {
+    HttpRequest create();
+  }
+
+  private record Samples(List<Long> latencies, int errors) {}
+
+  /**
+   * 单个场景的压测结果。
+   *
+   * @param requests 完成的请求数
+   * @param errors 失败请求数（非 2xx 或连接异常）
+   * @param requestsPerSecond 吞吐
+   * @param p50Millis p50 延迟
+   * @param p95Millis p95 延迟
+   * @param p99Millis p99 延迟
+   */
+  record ScenarioResult(
+      int requests,
+      int errors,
+      double requestsPerSecond,
+      long p50Millis,
+      long p95Millis,
+      long p99Millis) {}
+}
@@ -0,0 +1,117 @@
+package com.excalicode.platform.benchmarks.stub;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.JsonNodeFactory;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * 按 JSON Schema 生成示例响应，让结构化输出在没有真实模型时也能通过业务校验。
+ *
+ * <p>字段名命中 {@link #HINTS} 时按顺序轮换取值（如 COSMIC 数据移动类型、ChatBI 计划字段），否则按类型生成占位值。
+ */
+final class JsonSchemaSampler {
+
+  private static final int ARRAY_ITEMS = 3;
+  private static final int MAX_DEPTH = 12;
+
+  /** 本项目结构化输出中有取值约束、但 schema 未声明 enum 的字段 */
+  private static final Map<String, List<String>> HINTS =
+      Map.ofEntries(
+          Map.entry("dataMovementType", List.of("E", "R", "W", "X")),
+          Map.entry("dataset", List.of("TASK")),
+          Map.entry("agg", List.of("COUNT")),
+          Map.entry("field", List.of("STATUS")),
+          Map.entry("op", List.of("EQ")),
+          Map.entry("value", List.of("DONE")),
+          Map.entry("values", List.of("DONE")),
+          Map.entry("from", List.of("2025-01-01")),
+          Map.entry("to", List.of("2025-12-31")),
+          Map.entry("direction", List.of("ASC")));
+
+  private final JsonNode root;
+  private final AtomicInteger sequence = new AtomicInteger();
+
+  JsonSchemaSampler(JsonNode root) {
+    this.root = root;
+  }
+
+  JsonNode sample() {
+    return sample(root, null, 0);
+  }
+
+  private JsonNode sample(JsonNode schema, String name, int depth) {
+    JsonNodeFactory nodes = JsonNodeFactory.instance;
+    schema = resolve(schema);
+    if (depth > MAX_DEPTH) {
+      return nodes.nullNode();
+    }
+    if (schema.has("enum") && !schema.get("enum").isEmpty()) {
+      return schema.get("enum").get(0);
+    }
+    String type = type(schema);
+    switch (type) {
+      case "object" -> {
+        ObjectNode object = nodes.objectNode();
+        for (Map.Entry<String, JsonNode> property : schema.path("properties").properties()) {
+          object.set(property.getKey(), sample(property.getValue(), property.getKey(), depth + 1));
+        }
+        return object;
+      }
+      case "array" -> {
+        ArrayNode array = nodes.arrayNode();
+        for (int i = 0; i < ARRAY_ITEMS; i++) {
+          array.add(sample(schema.path("items"), name, depth + 1));
+        }
+        return array;
+      }
+      case "integer" -> {
+        return nodes.numberNode(10);
+      }
+      case "number" -> {
+        return nodes.numberNode(1.5d);
+      }
+      case "boolean" -> {
+        return nodes.booleanNode(false);
+      }
+      default -> {
+        List<String> hint = name != null ? HINTS.get(name) : null;
+        if (hint != null) {
+          return nodes.stringNode(hint.get(Math.floorMod(sequence.getAndIncrement(), hint.size())));
+        }
+        return nodes.stringNode("示例" + (name != null ? name : "文本") + sequence.incrementAndGet());
+      }
+    }
+  }
+
+  /** 解析 {@code #/$defs/X} 与 {@code #/definitions/X} 形式的本地引用 */
+  private JsonNode resolve(JsonNode schema) {
+    JsonNode current = schema;
+    for (int i = 0; i < MAX_DEPTH && current.has("$ref"); i++) {
+      String ref = current.get("$ref").asString();
+      if (!ref.startsWith("#/")) {
+        break;
+      }
+      current = root.at(ref.substring(1));
+    }
+    return current;
+  }
+
+  private static String type(JsonNode schema) {
+    JsonNode type = schema.path("type");
+    if (type.isArray()) {
+      for (JsonNode candidate : type) {
+        if (!"null".equals(candidate.asString())) {
+          return candidate.asString();
+        }
+      }
+    }
+    if (type.isString()) {
+      return type.asString();
+    }
+    return schema.has("properties") ? "object" : schema.has("items") ? "array" : "string";
+  }
+}
@@ -0,0 +1,370 @@
+package com.excalicode.platform.benchmarks.stub;
+
+import com.excalicode.platform.core.api.cosmic.CosmicProcessesResponse;
+import com.excalicode.platform.core.api.cosmic.FunctionalProcessesResponse;
+import com.excalicode.platform.core.model.chatbi.ChatBiQueryPlan;
+import com.google.common.hash.Hashing;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.ai.converter.BeanOutputConverter;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * 本地 OpenAI 兼容桩服务，覆盖本项目用到的接口子集：
+ *
+ * <ul>
+ *   <li>{@code POST /v1/chat/completions}：支持流式 SSE 与 {@code response_format}，
+ *       结构化输出按 JSON Schema 生成示例；JSON 模式不带 Schema，按提示词中的字段名匹配本项目的响应类型
+ *   <li>{@code POST /v1/embeddings}：按输入内容生成确定性的归一化向量
+ *   <li>{@code POST /v1/rerank}：按文档顺序返回递减分数
+ * </ul>
+ *
+ * <p>首 token 延迟、输出速度与 429/500/超时注入比例见 {@link StubSettings}。应用将 {@code
+ * spring.ai.openai.base-url} 与厂商地址指向本服务即可在无网络环境下压测。
+ */
+public final class StubOpenAiServer implements AutoCloseable {
+
+  private static final String LOREM =
+      "系统根据用户提交的需求描述识别功能过程，并对每个功能过程拆解输入、读取、写入与输出的数据移动，形成可度量的功能点。";
+
+  /** JSON 模式下可能请求的结构化输出类型 */
+  private static final List<Class<?>> JSON_OBJECT_TYPES =
+      List.of(
+          FunctionalProcessesResponse.class, CosmicProcessesResponse.class, ChatBiQueryPlan.class);
+
+  private final StubSettings settings;
+  private final ObjectMapper objectMapper = JsonMapper.builder().build();
+  private final List<Fixture> fixtures;
+  private final List<JsonNode> jsonObjectSchemas;
+  private final AtomicLong requestIds = new AtomicLong();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private HttpServer server;
+
+  public StubOpenAiServer(StubSettings settings) {
+    this.settings = settings;
+    this.fixtures = loadFixtures(settings.fixturesFile());
+    this.jsonObjectSchemas =
+        JSON_OBJECT_TYPES.stream()
+            .map(type -> objectMapper.readTree(new BeanOutputConverter<>(type).getJsonSchema()))
+            .toList();
+  }
+
+  /** 独立启动：{@code java -cp benchmarks.jar ...stub.StubOpenAiServer} */
+  public static void main(String[] args) throws IOException {
+    StubOpenAiServer stub = new StubOpenAiServer(StubSettings.fromSystemProperties());
+    stub.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+    System.out.println("OpenAI 桩服务已启动: " + stub.baseUrl());
+  }
+
+  public void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", settings.port()), 1024);
+    server.setExecutor(executor);
+    server.createContext("/v1/chat/completions", guarded(this::chatCompletions));
+    server.createContext("/v1/embeddings", guarded(this::embeddings));
+    server.createContext("/v1/rerank", guarded(this::rerank));
+    server.start();
+  }
+
+  public String baseUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    if (server != null) {
+      server.stop(0);
+    }
+    executor.shutdownNow();
+  }
+
+  /** 统一处理错误注入与异常 */
+  private HttpHandler guarded(StubHandler handler) {
+    return exchange -> {
+      try (exchange) {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < settings.rateLimitRate()) {
+          exchange.getResponseHeaders().add("Retry-After", "1");
+          sendJson(exchange, 429, error("rate_limit_exceeded", "Rate limit reached"));
+          return;
+        }
+        roll -= settings.rateLimitRate();
+        if (roll < settings.serverErrorRate()) {
+          sendJson(exchange, 500, error("server_error", "Injected server error"));
+          return;
+        }
+        roll -= settings.serverErrorRate();
+        if (roll < settings.timeoutRate()) {
+          sleep(settings.timeoutDelay());
+          return;
+        }
+        try {
+          handler.handle(exchange);
+        } catch (RuntimeException ex) {
+          sendJson(exchange, 500, error("server_error", String.valueOf(ex.getMessage())));
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  private void chatCompletions(HttpExchange exchange) throws IOException, InterruptedException {
+    JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+    String model = request.path("model").asString("stub-model");
+    String content = content(request);
+    String id = "chatcmpl-stub-" + requestIds.incrementAndGet();
+    long created = System.currentTimeMillis() / 1000;
+    int completionTokens = Math.max(1, content.length() / Math.max(1, settings.charsPerToken()));
+
+    sleep(settings.firstTokenLatency());
+    if (!request.path("stream").asBoolean(false)) {
+      sleep(tokenDuration(completionTokens));
+      ObjectNode response = objectMapper.createObjectNode();
+      response.put("id", id).put("object", "chat.completion").put("created", created);
+      response.put("model", model);
+      ObjectNode choice = response.putArray("choices").addObject();
+      choice.put("index", 0).put("finish_reason", "stop");
+      choice.putObject("message").put("role", "assistant").put("content", content);
+      usage(response, request, completionTokens);
+      sendJson(exchange, 200, response);
+      return;
+    }
+
+    exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+    exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+    exchange.sendResponseHeaders(200, 0);
+    OutputStream body = exchange.getResponseBody();
+    int chunkChars = Math.max(1, settings.charsPerToken());
+    Duration perToken = tokenDuration(1);
+    for (int start = 0; start < content.length(); start += chunkChars) {
+      String piece = content.substring(start, Math.min(content.length(), start + chunkChars));
+      ObjectNode chunk = chunk(id, created, model);
+      ObjectNode choice = chunk.putArray("choices").addObject();
+      choice.put("index", 0).putNull("finish_reason");
+      ObjectNode delta = choice.putObject("delta");
+      if (start == 0) {
+        delta.put("role", "assistant");
+      }
+      delta.put("content", piece);
+      writeEvent(body, objectMapper.writeValueAsString(chunk));
+      sleep(perToken);
+    }
+    ObjectNode last = chunk(id, created, model);
+    ObjectNode choice = last.putArray("choices").addObject();
+    choice.put("index", 0).put("finish_reason", "stop");
+    choice.putObject("delta");
+    usage(last, request, completionTokens);
+    writeEvent(body, objectMapper.writeValueAsString(last));
+    writeEvent(body, "[DONE]");
+  }
+
+  private void embeddings(HttpExchange exchange) throws IOException, InterruptedException {
+    JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+    List<String> inputs = new ArrayList<>();
+    JsonNode input = request.path("input");
+    if (input.isArray()) {
+      input.forEach(node -> inputs.add(node.asString()));
+    } else {
+      inputs.add(input.asString());
+    }
+    int dimensions = request.path("dimensions").asInt(settings.embeddingDimensions());
+    sleep(settings.embeddingLatency());
+
+    ObjectNode response = objectMapper.createObjectNode();
+    response.put("object", "list").put("model", request.path("model").asString("stub-embedding"));
+    ArrayNode data = response.putArray("data");
+    int tokens = 0;
+    for (int i = 0; i < inputs.size(); i++) {
+      ObjectNode item = data.addObject();
+      item.put("object", "embedding").put("index", i);
+      ArrayNode vector = item.putArray("embedding");
+      for (float value : vector(inputs.get(i), dimensions)) {
+        vector.add(value);
+      }
+      tokens += Math.max(1, inputs.get(i).length() / Math.max(1, settings.charsPerToken()));
+    }
+    response.putObject("usage").put("prompt_tokens", tokens).put("total_tokens", tokens);
+    sendJson(exchange, 200, response);
+  }
+
+  private void rerank(HttpExchange exchange) throws IOException, InterruptedException {
+    JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+    int documents = request.path("documents").size();
+    int topN = request.path("top_n").asInt(documents);
+    sleep(settings.rerankLatency());
+
+    ObjectNode response = objectMapper.createObjectNode();
+    response.put("id", "rerank-stub-" + requestIds.incrementAndGet());
+    ArrayNode results = response.putArray("results");
+    for (int i = 0; i < Math.min(topN, documents); i++) {
+      results.addObject().put("index", i).put("relevance_score", 1.0d - (double) i / documents);
+    }
+    sendJson(exchange, 200, response);
+  }
+
+  /** 响应内容：优先命中固定响应，其次按 JSON Schema（JSON 模式按匹配的响应类型）生成，最后返回固定长度的文本 */
+  private String content(JsonNode request) {
+    String messages = request.path("messages").toString();
+    for (Fixture fixture : fixtures) {
+      if (messages.contains(fixture.match())) {
+        return fixture.content();
+      }
+    }
+    JsonNode format = request.path("response_format");
+    String formatType = format.path("type").asString("");
+    if ("json_schema".equals(formatType)) {
+      JsonNode schema = format.path("json_schema").path("schema");
+      if (schema.isString()) {
+        schema = objectMapper.readTree(schema.asString());
+      }
+      return objectMapper.writeValueAsString(new JsonSchemaSampler(schema).sample());
+    }
+    if ("json_object".equals(formatType)) {
+      JsonNode schema = jsonObjectSchema(messages);
+      return schema != null
+          ? objectMapper.writeValueAsString(new JsonSchemaSampler(schema).sample())
+          : "{}";
+    }
+    int length = settings.responseTokens() * Math.max(1, settings.charsPerToken());
+    StringBuilder text = new StringBuilder(length + LOREM.length());
+    while (text.length() < length) {
+      text.append(LOREM);
+    }
+    return text.substring(0, length);
+  }
+
+  /** 取顶层字段名在消息中出现最多（按名称长度计，避免短名被长名包含时误判）的 Schema，都不出现时为 null */
+  private JsonNode jsonObjectSchema(String messages) {
+    JsonNode best = null;
+    int bestScore = 0;
+    for (JsonNode schema : jsonObjectSchemas) {
+      int score =
+          schema.path("properties").properties().stream()
+              .map(Map.Entry::getKey)
+              .filter(messages::contains)
+              .mapToInt(String::length)
+              .sum();
+      if (score > bestScore) {
+        best = schema;
+        bestScore = score;
+      }
+    }
+    return best;
+  }
+
+  private ObjectNode chunk(String id, long created, String model) {
+    ObjectNode chunk = objectMapper.createObjectNode();
+    chunk.put("id", id).put("object", "chat.completion.chunk").put("created", created);
+    chunk.put("model", model);
+    return chunk;
+  }
+
+  private void usage(ObjectNode response, JsonNode request, int completionTokens) {
+    int promptChars = request.path("messages").toString().length();
+    int promptTokens = Math.max(1, promptChars / Math.max(1, settings.charsPerToken()));
+    response
+        .putObject("usage")
+        .put("prompt_tokens", promptTokens)
+        .put("completion_tokens", completionTokens)
+        .put("total_tokens", promptTokens + completionTokens);
+  }
+
+  private Duration tokenDuration(int tokens) {
+    if (settings.tokensPerSecond() <= 0) {
+      return Duration.ZERO;
+    }
+    return Duration.ofNanos((long) (tokens * 1_000_000_000L / settings.tokensPerSecond()));
+  }
+
+  /** 相同输入得到相同向量，便于缓存与去重类优化的效果可复现 */
+  private static float[] vector(String input, int dimensions) {
+    long seed = Hashing.murmur3_128().hashString(input, StandardCharsets.UTF_8).asLong();
+    Random random = new Random(seed);
+    float[] vector = new float[dimensions];
+    double norm = 0;
+    for (int i = 0; i < dimensions; i++) {
+      vector[i] = (float) random.nextGaussian();
+      norm += vector[i] * vector[i];
+    }
+    float scale = (float) (1 / Math.sqrt(norm));
+    for (int i = 0; i < dimensions; i++) {
+      vector[i] *= scale;
+    }
+    return vector;
+  }
+
+  private ObjectNode error(String code, String message) {
+    ObjectNode response = objectMapper.createObjectNode();
+    response.putObject("error").put("message", message).put("type", code).put("code", code);
+    return response;
+  }
+
+  private void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+    byte[] bytes = objectMapper.writeValueAsBytes(body);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  private static void writeEvent(OutputStream body, String data) throws IOException {
+    body.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+    body.flush();
+  }
+
+  private static void sleep(Duration duration) throws InterruptedException {
+    if (!duration.isZero() && !duration.isNegative()) {
+      Thread.sleep(duration);
+    }
+  }
+
+  private List<Fixture> loadFixtures(String file) {
+    if (file == null || file.isBlank()) {
+      return List.of();
+    }
+    try {
+      List<Fixture> loaded = new ArrayList<>();
+      for (String line : Files.readAllLines(Path.of(file), StandardCharsets.UTF_8)) {
+        if (!line.isBlank()) {
+          loaded.add(objectMapper.readValue(line, Fixture.class));
+        }
+      }
+      return List.copyOf(loaded);
+    } catch (IOException ex) {
+      throw new IllegalStateException("固定响应文件读取失败: " + file, ex);
+    }
+  }
+
+  /**
+   * 固定响应：请求消息包含 match 时返回 content。
+   *
+   * @param match 匹配的子串
+   * @param content 响应内容
+   */
+  record Fixture(String match, String content) {}
+
+  @FunctionalInterface
+  private interface StubHandler {
+    void handle(HttpExchange exchange) throws IOException, InterruptedException;
+  }
+}
@@ -0,0 +1,54 @@
+package com.excalicode.platform.benchmarks.stub;
+
+import java.time.Duration;
+
+/**
+ * 桩服务行为配置，均可通过 {@code -Dstub.xxx} 系统属性覆盖。
+ *
+ * @param port 监听端口，0 表示随机端口
+ * @param firstTokenLatency 首个 token 前的等待时间
+ * @param tokensPerSecond 输出速度，非流式响应按总 token 数折算等待时间
+ * @param charsPerToken 每个 token 对应的字符数
+ * @param responseTokens 纯文本响应的 token 数
+ * @param embeddingDimensions 向量维度（请求带 dimensions 时以请求为准）
+ * @param embeddingLatency 向量接口耗时
+ * @param rerankLatency 重排接口耗时
+ * @param rateLimitRate 返回 429 的比例
+ * @param serverErrorRate 返回 500 的比例
+ * @param timeoutRate 挂起不响应的比例
+ * @param timeoutDelay 挂起时长
+ * @param fixturesFile 固定响应文件（JSONL，每行 {"match": "...", "content": "..."}），可为空
+ */
+public record StubSettings(
+    int port,
+    Duration firstTokenLatency,
+    double tokensPerSecond,
+    int charsPerToken,
+    int responseTokens,
+    int embeddingDimensions,
+    Duration embeddingLatency,
+    Duration rerankLatency,
+    double rateLimitRate,
+    double serverErrorRate,
+    double timeoutRate,
+    Duration timeoutDelay,
+    String fixturesFile) {
+
+  /** 从系统属性读取配置，未指定时使用接近真实厂商的默认值 */
+  public static StubSettings fromSystemProperties() {
+    return new StubSettings(
+        Integer.getInteger("stub.port", 18080),
+        Duration.ofMillis(Long.getLong("stub.first-token-ms", 500)),
+        Double.parseDouble(System.getProperty("stub.tokens-per-second", "50")),
+        Integer.getInteger("stub.chars-per-token", 2),
+        Integer.getInteger("stub.response-tokens", 300),
+        Integer.getInteger("stub.embedding-dimensions", 4096),
+        Duration.ofMillis(Long.getLong("stub.embedding-ms", 80)),
+        Duration.ofMillis(Long.getLong("stub.rerank-ms", 120)),
+        Double.parseDouble(System.getProperty("stub.rate-limit-rate", "0")),
+        Double.parseDouble(System.getProperty("stub.server-error-rate", "0")),
+        Double.parseDouble(System.getProperty("stub.timeout-rate", "0")),
+        Duration.ofMillis(Long.getLong("stub.timeout-ms", 600_000)),
+        System.getProperty("stub.fixtures"));
+  }
+}
@@ -0,0 +1,73 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.enums.AiCallPriority;
+import com.excalicode.platform.core.enums.AiFunctionType;
+import java.util.function.Supplier;
+
+/**
+ * AI 调用上下文：在调用点覆盖 {@link AiFunctionType#getDefaultPriority()}。
+ *
+ * <p>基于 ThreadLocal，只对当前线程内发起的调用生效；切换到其他线程执行时需用 {@link #wrap(Supplier)} 传递。
+ */
+public final class AiCallContext {
+
+  private static final ThreadLocal<AiCallPriority> PRIORITY = new ThreadLocal<>();
+
+  private AiCallContext() {}
+
+  /**
+   * 以指定优先级执行。
+   *
+   * @param priority 调用优先级
+   * @param action 执行逻辑
+   * @return 执行结果
+   */
+  public static <T> T callWithPriority(AiCallPriority priority, Supplier<T> action) {
+    AiCallPriority previous = PRIORITY.get();
+    PRIORITY.set(priority);
+    try {
+      return action.get();
+    } finally {
+      if (previous == null) {
+        PRIORITY.remove();
+      } else {
+        PRIORITY.set(previous);
+      }
+    }
+  }
+
+  /**
+   * 以指定优先级执行。
+   *
+   * @param priority 调用优先级
+   * @param action 执行逻辑
+   */
+  public static void runWithPriority(AiCallPriority priority, Runnable action) {
+    callWithPriority(
+        priority,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  /**
+   * 捕获当前线程的优先级，返回在其他线程执行时沿用该优先级的 Supplier。
+   *
+   * @param action 执行逻辑
+   * @return 携带当前优先级的 Supplier
+   */
+  public static <T> Supplier<T> wrap(Supplier<T> action) {
+    AiCallPriority captured = PRIORITY.get();
+    if (captured == null) {
+      return action;
+    }
+    return () -> callWithPriority(captured, action);
+  }
+
+  /** 当前调用的实际优先级：调用点未覆盖时使用功能默认优先级 */
+  static AiCallPriority resolve(AiFunctionType functionType) {
+    AiCallPriority priority = PRIORITY.get();
+    return priority != null ? priority : functionType.getDefaultPriority();
+  }
+}
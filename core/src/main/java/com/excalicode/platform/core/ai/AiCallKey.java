@@ -0,0 +1,62 @@
+package com.excalicode.platform.core.ai;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.springframework.ai.chat.messages.Message;
+
+/**
+ * AI 调用的唯一标识：功能类型 + 提示词编码 + 模型 + 完整消息摘要。
+ *
+ * <p>消息摘要包含合并后的系统提示词，因此提示词模板内容变更后旧 key 自然失效；模型键为配置中当前候选模型的 ID 与模型名称，
+ * 缓存响应时取实际返回响应的候选，模型配置变更同理。
+ *
+ * @param functionCode 功能类型代码
+ * @param promptCode 提示词模板编码
+ * @param modelKey 候选模型标识，未映射时为 {@code default}
+ * @param messageHash 合并后消息（含结构化输出类型）的 SHA-256 摘要
+ */
+record AiCallKey(String functionCode, String promptCode, String modelKey, String messageHash) {
+
+  /**
+   * 根据执行配置与最终消息构建调用标识。
+   *
+   * @param config 功能执行配置
+   * @param messages 已合并系统提示词的完整消息
+   * @param variant 区分同一消息不同调用方式的附加信息（如结构化输出类型），可为空
+   * @return 调用标识
+   */
+  static AiCallKey of(AiFunctionConfiguration config, List<Message> messages, String variant) {
+    return new AiCallKey(
+        config.functionType().getCode(),
+        config.promptCode(),
+        config.candidate().key(),
+        messageHash(messages, variant));
+  }
+
+  /**
+   * 计算消息摘要。
+   *
+   * @param messages 已合并系统提示词的完整消息
+   * @param variant 附加信息，可为空
+   * @return SHA-256 摘要
+   */
+  static String messageHash(List<Message> messages, String variant) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    if (variant != null) {
+      hasher.putString(variant, StandardCharsets.UTF_8);
+    }
+    for (Message message : messages) {
+      hasher.putString(message.getMessageType().name(), StandardCharsets.UTF_8).putByte((byte) 0);
+      String text = message.getText();
+      hasher.putString(text == null ? "" : text, StandardCharsets.UTF_8).putByte((byte) 0);
+    }
+    return hasher.hash().toString();
+  }
+
+  /** 字符串形式，用作缓存 key */
+  String value() {
+    return String.join(":", functionCode, promptCode, modelKey, messageHash);
+  }
+}
@@ -0,0 +1,158 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * AI 调用录制：录制模式下把每次真实调用（功能、完整消息、模型、响应、流式片段时序）追加写入 JSONL 文件，供
+ * {@link AiCallReplayer} 回放。
+ *
+ * <p>录制失败只记日志，不影响业务调用。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class AiCallRecorder {
+
+  private static final String MODE_CALL = "call";
+  private static final String MODE_STREAM = "stream";
+
+  private final AiExecutionProperties properties;
+  private final ObjectMapper objectMapper;
+
+  private final Object writeLock = new Object();
+
+  boolean isEnabled() {
+    return properties.getRecording().getMode() == AiExecutionProperties.Recording.Mode.RECORD;
+  }
+
+  /**
+   * 录制一次阻塞调用。
+   *
+   * @param config 已选定候选模型的功能配置
+   * @param prompt 实际发送的 Prompt
+   * @param response 响应文本
+   * @param elapsedNanos 调用耗时
+   */
+  void recordCall(
+      AiFunctionConfiguration config, Prompt prompt, String response, long elapsedNanos) {
+    if (!isEnabled()) {
+      return;
+    }
+    append(
+        recording(
+            config,
+            prompt,
+            MODE_CALL,
+            response,
+            TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            List.of()));
+  }
+
+  /**
+   * 为流式调用挂载录制，正常完成时写入完整片段序列，取消或失败的调用不录制。
+   *
+   * @param config 已选定候选模型的功能配置
+   * @param prompt 实际发送的 Prompt
+   * @param responses 原始响应流
+   * @return 挂载录制后的响应流
+   */
+  Flux<ChatResponse> recordStream(
+      AiFunctionConfiguration config, Prompt prompt, Flux<ChatResponse> responses) {
+    if (!isEnabled()) {
+      return responses;
+    }
+    return Flux.defer(
+        () -> {
+          long start = System.nanoTime();
+          List<AiCallRecording.Chunk> chunks = new ArrayList<>();
+          StringBuilder text = new StringBuilder();
+          return responses
+              .doOnNext(
+                  response -> {
+                    String chunk =
+                        response.getResult() != null
+                            ? response.getResult().getOutput().getText()
+                            : null;
+                    if (chunk != null && !chunk.isEmpty()) {
+                      chunks.add(
+                          new AiCallRecording.Chunk(
+                              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), chunk));
+                      text.append(chunk);
+                    }
+                  })
+              .doOnComplete(
+                  () ->
+                      append(
+                          recording(
+                              config,
+                              prompt,
+                              MODE_STREAM,
+                              text.toString(),
+                              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                              chunks)));
+        });
+  }
+
+  private AiCallRecording recording(
+      AiFunctionConfiguration config,
+      Prompt prompt,
+      String mode,
+      String response,
+      long latencyMillis,
+      List<AiCallRecording.Chunk> chunks) {
+    List<AiCallRecording.RecordedMessage> messages =
+        prompt.getInstructions().stream()
+            .map(
+                message ->
+                    new AiCallRecording.RecordedMessage(
+                        message.getMessageType().getValue(), message.getText()))
+            .toList();
+    return new AiCallRecording(
+        config.functionType().getCode(),
+        config.candidate().key(),
+        mode,
+        AiCallKey.messageHash(prompt.getInstructions(), null),
+        messages,
+        response,
+        latencyMillis,
+        chunks,
+        System.currentTimeMillis());
+  }
+
+  private void append(AiCallRecording recording) {
+    Path file = Path.of(properties.getRecording().getFile());
+    try {
+      String line = objectMapper.writeValueAsString(recording) + System.lineSeparator();
+      synchronized (writeLock) {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+          Files.createDirectories(parent);
+        }
+        Files.writeString(
+            file,
+            line,
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+      }
+    } catch (IOException | JacksonException ex) {
+      log.warn("AI 调用录制写入失败: {}", file, ex);
+    }
+  }
+}
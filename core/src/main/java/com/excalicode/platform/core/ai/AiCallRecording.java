@@ -0,0 +1,44 @@
+package com.excalicode.platform.core.ai;
+
+import java.util.List;
+
+/**
+ * 一次 AI 调用的录制结果，录制文件中每行一条。
+ *
+ * @param functionType 功能类型代码
+ * @param model 实际调用的模型标识
+ * @param mode 调用方式：call 或 stream
+ * @param messageHash 完整消息摘要，回放时用于匹配
+ * @param messages 已合并系统提示词的完整消息
+ * @param response 完整响应文本
+ * @param latencyMillis 调用总耗时
+ * @param chunks 流式片段及其相对开始时间的偏移，阻塞调用为空
+ * @param recordedAt 录制时间（epoch 毫秒）
+ */
+record AiCallRecording(
+    String functionType,
+    String model,
+    String mode,
+    String messageHash,
+    List<RecordedMessage> messages,
+    String response,
+    long latencyMillis,
+    List<Chunk> chunks,
+    long recordedAt) {
+
+  /**
+   * 录制的消息。
+   *
+   * @param role 消息类型
+   * @param text 消息文本
+   */
+  record RecordedMessage(String role, String text) {}
+
+  /**
+   * 流式片段。
+   *
+   * @param offsetMillis 相对调用开始的偏移
+   * @param text 片段文本
+   */
+  record Chunk(long offsetMillis, String text) {}
+}
@@ -0,0 +1,109 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import com.excalicode.platform.core.enums.AiFunctionType;
+import com.excalicode.platform.core.exception.BusinessException;
+import com.google.common.base.Suppliers;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * AI 调用回放：回放模式下用 {@link AiCallRecorder} 的录制结果代替真实模型，按原始或缩放后的时序返回响应。
+ *
+ * <p>优先按完整消息摘要精确匹配；未命中时在同一功能的录制中轮询，便于用不同输入压测整条链路。录制文件在首次回放时加载。
+ */
+@Slf4j
+@Component
+class AiCallReplayer {
+
+  private final AiExecutionProperties properties;
+  private final ObjectMapper objectMapper;
+  private final Supplier<Recordings> recordings;
+  private final Map<AiFunctionType, ChatModel> chatModels = new ConcurrentHashMap<>();
+
+  AiCallReplayer(AiExecutionProperties properties, ObjectMapper objectMapper) {
+    this.properties = properties;
+    this.objectMapper = objectMapper;
+    this.recordings = Suppliers.memoize(this::load);
+  }
+
+  boolean isEnabled() {
+    return properties.getRecording().getMode() == AiExecutionProperties.Recording.Mode.REPLAY;
+  }
+
+  /** 获取功能对应的回放模型 */
+  ChatModel chatModel(AiFunctionType functionType) {
+    return chatModels.computeIfAbsent(
+        functionType,
+        type ->
+            new ReplayChatModel(
+                prompt -> find(type, prompt), properties.getRecording().getReplayTimeScale()));
+  }
+
+  private AiCallRecording find(AiFunctionType functionType, Prompt prompt) {
+    Recordings loaded = recordings.get();
+    String hash = AiCallKey.messageHash(prompt.getInstructions(), null);
+    AiCallRecording exact = loaded.byHash().get(functionType.getCode() + ":" + hash);
+    if (exact != null) {
+      return exact;
+    }
+    List<AiCallRecording> candidates = loaded.byFunction().get(functionType.getCode());
+    if (candidates == null || candidates.isEmpty()) {
+      throw new BusinessException(
+          String.format("AI 功能 [%s] 没有可回放的录制", functionType.getDescription()));
+    }
+    int index = Math.floorMod(loaded.cursor().getAndIncrement(), candidates.size());
+    return candidates.get(index);
+  }
+
+  private Recordings load() {
+    String file = properties.getRecording().getFile();
+    if (!StringUtils.hasText(file) || !Files.exists(Path.of(file))) {
+      throw new BusinessException(String.format("AI 调用录制文件不存在: %s", file));
+    }
+    Map<String, AiCallRecording> byHash = new HashMap<>();
+    Map<String, List<AiCallRecording>> byFunction = new HashMap<>();
+    int skipped = 0;
+    try {
+      for (String line : Files.readAllLines(Path.of(file), StandardCharsets.UTF_8)) {
+        if (!StringUtils.hasText(line)) {
+          continue;
+        }
+        try {
+          AiCallRecording recording = objectMapper.readValue(line, AiCallRecording.class);
+          byHash.put(recording.functionType() + ":" + recording.messageHash(), recording);
+          byFunction
+              .computeIfAbsent(recording.functionType(), key -> new ArrayList<>())
+              .add(recording);
+        } catch (JacksonException ex) {
+          skipped++;
+        }
+      }
+    } catch (IOException ex) {
+      throw new BusinessException(String.format("AI 调用录制文件读取失败: %s", file), ex);
+    }
+    log.info("已加载 AI 调用录制 {} 条（跳过无法解析的 {} 行）: {}", byHash.size(), skipped, file);
+    return new Recordings(byHash, byFunction, new AtomicInteger());
+  }
+
+  private record Recordings(
+      Map<String, AiCallRecording> byHash,
+      Map<String, List<AiCallRecording>> byFunction,
+      AtomicInteger cursor) {}
+}
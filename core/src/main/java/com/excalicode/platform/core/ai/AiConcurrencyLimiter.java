@@ -0,0 +1,433 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import com.excalicode.platform.core.enums.AiCallPriority;
+import com.excalicode.platform.core.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 按厂商隔离的自适应并发限制（舱壁）。
+ *
+ * <p>每个厂商一个舱壁：并发许可数按 AIMD 调整，调用成功时缓慢增加，遇到 429 或超时立即按比例收缩；超出许可的调用进入有界 FIFO
+ * 队列等待，队列已满或等待超时直接拒绝。交互调用与批量调用分开排队，交互优先、批量保底。
+ *
+ * <p>指标 {@code ai.limiter.*} 按厂商与优先级暴露许可数、在途数与排队数。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class AiConcurrencyLimiter {
+
+  private static final String DEFAULT_PROVIDER = "default";
+
+  /** 两次收缩之间的最小间隔，避免同一波失败把许可数连续压到底 */
+  private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /** Spring AI 重试异常消息开头的状态码 */
+  private static final Pattern STATUS_TOO_MANY_REQUESTS = Pattern.compile("(HTTP )?429\\b");
+
+  private final AiExecutionProperties properties;
+  private final MeterRegistry meterRegistry;
+
+  private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+  /**
+   * 在许可内执行阻塞调用。
+   *
+   * @param config 功能执行配置
+   * @param priority 调用优先级
+   * @param call 实际调用
+   * @return 调用结果
+   */
+  <T> T execute(AiFunctionConfiguration config, AiCallPriority priority, Supplier<T> call) {
+    if (!isEnabled()) {
+      return call.get();
+    }
+    Bulkhead bulkhead = bulkhead(config);
+    Permit permit = bulkhead.await(config, priority);
+    try {
+      T result = call.get();
+      permit.release(null);
+      return result;
+    } catch (RuntimeException | Error ex) {
+      permit.release(ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * 在许可内执行流式调用；订阅时排队获取许可，流结束或取消时释放。
+   *
+   * @param config 功能执行配置
+   * @param priority 调用优先级
+   * @param upstream 创建上游流的逻辑
+   * @return 受限的文本流
+   */
+  <T> Flux<T> stream(
+      AiFunctionConfiguration config, AiCallPriority priority, Supplier<Flux<T>> upstream) {
+    if (!isEnabled()) {
+      return Flux.defer(upstream);
+    }
+    Bulkhead bulkhead = bulkhead(config);
+    return Mono.defer(() -> bulkhead.acquireAsync(config, priority))
+        .flatMapMany(
+            permit ->
+                upstream
+                    .get()
+                    .doOnComplete(() -> permit.release(null))
+                    .doOnError(permit::release)
+                    .doOnCancel(permit::cancel));
+  }
+
+  private boolean isEnabled() {
+    return properties.getConcurrency().isEnabled();
+  }
+
+  private Bulkhead bulkhead(AiFunctionConfiguration config) {
+    String provider =
+        config.model() != null && config.model().getProviderId() != null
+            ? String.valueOf(config.model().getProviderId())
+            : DEFAULT_PROVIDER;
+    return bulkheads.computeIfAbsent(provider, this::createBulkhead);
+  }
+
+  private Bulkhead createBulkhead(String provider) {
+    Counter rejected =
+        Counter.builder("ai.limiter.rejected")
+            .description("AI 厂商因排队已满或等待超时被拒绝的调用数")
+            .tag("provider", provider)
+            .register(meterRegistry);
+    Counter backoffs =
+        Counter.builder("ai.limiter.backoffs")
+            .description("AI 厂商因限流或超时收缩许可的次数")
+            .tag("provider", provider)
+            .register(meterRegistry);
+    Bulkhead bulkhead = new Bulkhead(provider, properties.getConcurrency(), rejected, backoffs);
+    Gauge.builder("ai.limiter.permits", bulkhead, Bulkhead::currentLimit)
+        .description("AI 厂商当前并发许可数")
+        .tag("provider", provider)
+        .register(meterRegistry);
+    for (AiCallPriority priority : AiCallPriority.values()) {
+      String tag = priority.name().toLowerCase(Locale.ROOT);
+      Gauge.builder("ai.limiter.in_flight", bulkhead, b -> b.inFlight(priority))
+          .description("AI 厂商在途调用数")
+          .tags("provider", provider, "priority", tag)
+          .register(meterRegistry);
+      Gauge.builder("ai.limiter.queue_depth", bulkhead, b -> b.queueDepth(priority))
+          .description("AI 厂商排队调用数")
+          .tags("provider", provider, "priority", tag)
+          .register(meterRegistry);
+    }
+    return bulkhead;
+  }
+
+  /** 是否为需要收缩并发的过载信号：HTTP 429 或超时 */
+  static boolean isOverloadSignal(Throwable error) {
+    Throwable current = error;
+    while (current != null) {
+      if (current instanceof RestClientResponseException ex
+          && ex.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+        return true;
+      }
+      if (current instanceof WebClientResponseException ex
+          && ex.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+        return true;
+      }
+      if (current instanceof TimeoutException
+          || current instanceof HttpTimeoutException
+          || current instanceof SocketTimeoutException) {
+        return true;
+      }
+      // Spring AI 的重试异常不带响应对象，只在消息开头保留了状态码（"429 - 响应体"）
+      if ((current instanceof TransientAiException || current instanceof NonTransientAiException)
+          && current.getMessage() != null
+          && STATUS_TOO_MANY_REQUESTS.matcher(current.getMessage()).lookingAt()) {
+        return true;
+      }
+      current = current.getCause();
+    }
+    return false;
+  }
+
+  /**
+   * 单个厂商的舱壁，所有状态变更在 this 上同步。
+   *
+   * <p>交互调用与批量调用分别排队：有许可空出时优先发放给交互调用，但批量在途数低于保底份额时先发放给批量调用，避免批量任务被饿死。
+   */
+  private static final class Bulkhead {
+
+    private final String provider;
+    private final AiExecutionProperties.Concurrency settings;
+    private final Map<AiCallPriority, Deque<CompletableFuture<Permit>>> waiters =
+        new EnumMap<>(AiCallPriority.class);
+    private final Map<AiCallPriority, Integer> inFlight = new EnumMap<>(AiCallPriority.class);
+
+    private double limit;
+    private long lastDecreaseNanos;
+
+    private final Counter rejected;
+    private final Counter backoffs;
+
+    Bulkhead(
+        String provider,
+        AiExecutionProperties.Concurrency settings,
+        Counter rejected,
+        Counter backoffs) {
+      this.provider = provider;
+      this.settings = settings;
+      this.rejected = rejected;
+      this.backoffs = backoffs;
+      this.limit = Math.clamp(settings.getInitialLimit(), settings.getMinLimit(), maxLimit());
+      for (AiCallPriority priority : AiCallPriority.values()) {
+        waiters.put(priority, new ArrayDeque<>());
+        inFlight.put(priority, 0);
+      }
+    }
+
+    /** 阻塞等待许可 */
+    Permit await(AiFunctionConfiguration config, AiCallPriority priority) {
+      CompletableFuture<Permit> future = acquire(config, priority);
+      try {
+        return future.get(settings.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException ex) {
+        abandon(future);
+        throw rejectTimeout(config);
+      } catch (InterruptedException ex) {
+        abandon(future);
+        Thread.currentThread().interrupt();
+        throw new BusinessException("等待 AI 调用许可时被中断");
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException runtimeException) {
+          throw runtimeException;
+        }
+        throw new BusinessException("获取 AI 调用许可失败", ex.getCause());
+      }
+    }
+
+    /** 非阻塞等待许可，供流式调用使用 */
+    Mono<Permit> acquireAsync(AiFunctionConfiguration config, AiCallPriority priority) {
+      CompletableFuture<Permit> future = acquire(config, priority);
+      return Mono.fromFuture(future, true)
+          .timeout(settings.getMaxWait())
+          .doOnCancel(() -> abandon(future))
+          .onErrorMap(
+              TimeoutException.class,
+              ex -> {
+                abandon(future);
+                return rejectTimeout(config);
+              });
+    }
+
+    /** 立即获取或排队；返回的 future 在拿到许可时完成，等待期间被发放许可时在锁外完成 */
+    synchronized CompletableFuture<Permit> acquire(
+        AiFunctionConfiguration config, AiCallPriority priority) {
+      waiters.values().forEach(queue -> queue.removeIf(CompletableFuture::isDone));
+      if (canStartImmediately(priority)) {
+        return CompletableFuture.completedFuture(grant(priority));
+      }
+      Deque<CompletableFuture<Permit>> queue = waiters.get(priority);
+      if (queue.size() >= settings.getMaxQueueSize()) {
+        rejected.increment();
+        throw new BusinessException(
+            String.format(
+                "AI 功能 [%s] 当前请求过多，请稍后重试", config.functionType().getDescription()));
+      }
+      CompletableFuture<Permit> future = new CompletableFuture<>();
+      queue.addLast(future);
+      return future;
+    }
+
+    private boolean canStartImmediately(AiCallPriority priority) {
+      if (totalInFlight() >= permits() || !waiters.get(priority).isEmpty()) {
+        return false;
+      }
+      return priority == AiCallPriority.INTERACTIVE
+          || waiters.get(AiCallPriority.INTERACTIVE).isEmpty()
+          || batchBelowShare();
+    }
+
+    private void abandon(CompletableFuture<Permit> future) {
+      synchronized (this) {
+        waiters.values().forEach(queue -> queue.remove(future));
+      }
+      if (!future.cancel(false) && !future.isCompletedExceptionally()) {
+        // 超时与发放许可竞争时许可已发出，直接归还
+        future.join().cancel();
+      }
+    }
+
+    private BusinessException rejectTimeout(AiFunctionConfiguration config) {
+      rejected.increment();
+      return new BusinessException(
+          String.format("AI 功能 [%s] 等待调用许可超时，请稍后重试", config.functionType().getDescription()));
+    }
+
+    void release(AiCallPriority priority, Throwable error) {
+      List<Grant> granted;
+      synchronized (this) {
+        inFlight.merge(priority, -1, Integer::sum);
+        adjustLimit(error);
+        granted = drain();
+      }
+      complete(granted);
+    }
+
+    void releaseWithoutFeedback(AiCallPriority priority) {
+      List<Grant> granted;
+      synchronized (this) {
+        inFlight.merge(priority, -1, Integer::sum);
+        granted = drain();
+      }
+      complete(granted);
+    }
+
+    private void adjustLimit(Throwable error) {
+      if (error == null) {
+        // 加性增：每完成约 limit 次成功调用，许可 +1
+        limit = Math.min(maxLimit(), limit + 1.0 / limit);
+      } else if (isOverloadSignal(error)) {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos >= DECREASE_INTERVAL_NANOS) {
+          lastDecreaseNanos = now;
+          double previous = limit;
+          limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+          backoffs.increment();
+          log.warn("AI 厂商 {} 触发限流或超时，并发许可 {} -> {}", provider, (int) previous, permits());
+        }
+      }
+    }
+
+    /** 在锁内按空出的许可出队并记账，等待方由调用方在锁外唤醒 */
+    private List<Grant> drain() {
+      List<Grant> granted = new ArrayList<>();
+      while (totalInFlight() < permits()) {
+        AiCallPriority next = nextPriority();
+        if (next == null) {
+          break;
+        }
+        granted.add(new Grant(waiters.get(next).pollFirst(), grant(next)));
+      }
+      return granted;
+    }
+
+    /** 唤醒等待方会同步执行其后续订阅逻辑，必须在锁外进行 */
+    private static void complete(List<Grant> granted) {
+      for (Grant item : granted) {
+        if (!item.waiter().complete(item.permit())) {
+          // 等待方已超时或取消，归还许可
+          item.permit().cancel();
+        }
+      }
+    }
+
+    /** 批量调用低于保底份额时先放行批量，否则交互优先 */
+    private AiCallPriority nextPriority() {
+      boolean interactiveWaiting = !waiters.get(AiCallPriority.INTERACTIVE).isEmpty();
+      boolean batchWaiting = !waiters.get(AiCallPriority.BATCH).isEmpty();
+      if (batchWaiting && (!interactiveWaiting || batchBelowShare())) {
+        return AiCallPriority.BATCH;
+      }
+      return interactiveWaiting ? AiCallPriority.INTERACTIVE : null;
+    }
+
+    private boolean batchBelowShare() {
+      int reserved = (int) Math.ceil(permits() * settings.getBatchMinShare());
+      return inFlight.get(AiCallPriority.BATCH) < reserved;
+    }
+
+    private Permit grant(AiCallPriority priority) {
+      inFlight.merge(priority, 1, Integer::sum);
+      return new Permit(this, priority);
+    }
+
+    private int totalInFlight() {
+      return inFlight.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int permits() {
+      return Math.max(settings.getMinLimit(), (int) limit);
+    }
+
+    private int maxLimit() {
+      return Math.max(settings.getMinLimit(), settings.getMaxLimit());
+    }
+
+    synchronized double currentLimit() {
+      return permits();
+    }
+
+    synchronized double inFlight(AiCallPriority priority) {
+      return inFlight.get(priority);
+    }
+
+    synchronized double queueDepth(AiCallPriority priority) {
+      return waiters.get(priority).size();
+    }
+  }
+
+  /** 出队的等待方与发给它的许可 */
+  private record Grant(CompletableFuture<Permit> waiter, Permit permit) {}
+
+  /** 已获取的许可，只能释放一次 */
+  private static final class Permit {
+
+    private final Bulkhead bulkhead;
+    private final AiCallPriority priority;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Permit(Bulkhead bulkhead, AiCallPriority priority) {
+      this.bulkhead = bulkhead;
+      this.priority = priority;
+    }
+
+    /** 调用结束时释放，并根据结果调整许可数 */
+    void release(Throwable error) {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      if (error instanceof CancellationException) {
+        bulkhead.releaseWithoutFeedback(priority);
+      } else {
+        bulkhead.release(priority, error);
+      }
+    }
+
+    /** 调用方取消时释放，不影响许可数 */
+    void cancel() {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      bulkhead.releaseWithoutFeedback(priority);
+    }
+  }
+}
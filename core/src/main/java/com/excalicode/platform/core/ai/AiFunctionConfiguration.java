@@ -2,13 +2,37 @@ package com.excalicode.platform.core.ai;
 
 import com.excalicode.platform.core.entity.AiModel;
 import com.excalicode.platform.core.enums.AiFunctionType;
+import java.util.List;
 import org.springframework.ai.chat.model.ChatModel;
 
-/** AI 功能执行所需的聚合配置。 */
+/**
+ * AI 功能执行所需的聚合配置。
+ *
+ * @param candidate 本次调用使用的候选模型，默认为首选模型
+ * @param candidates 按优先级排列的全部候选模型
+ */
 record AiFunctionConfiguration(
     AiFunctionType functionType,
     String promptCode,
     String systemPrompt,
-    ChatModel chatModel,
-    boolean supportsJsonSchema,
-    AiModel model) {}
+    AiModelCandidate candidate,
+    List<AiModelCandidate> candidates) {
+
+  ChatModel chatModel() {
+    return candidate.chatModel();
+  }
+
+  boolean supportsJsonSchema() {
+    return candidate.supportsJsonSchema();
+  }
+
+  AiModel model() {
+    return candidate.model();
+  }
+
+  /** 切换到指定候选模型 */
+  AiFunctionConfiguration withCandidate(AiModelCandidate selected) {
+    return new AiFunctionConfiguration(
+        functionType, promptCode, systemPrompt, selected, candidates);
+  }
+}
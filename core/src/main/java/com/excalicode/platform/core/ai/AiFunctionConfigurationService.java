@@ -11,13 +11,12 @@ import com.excalicode.platform.core.service.entity.AiFunctionPromptMappingServic
 import com.excalicode.platform.core.service.entity.AiModelService;
 import com.excalicode.platform.core.service.entity.AiPromptTemplateService;
 import com.excalicode.platform.core.service.entity.AiProviderService;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.openai.OpenAiChatModel;
-import org.springframework.ai.openai.OpenAiChatOptions;
-import org.springframework.ai.openai.api.OpenAiApi;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -33,6 +32,7 @@ class AiFunctionConfigurationService {
   private final AiFunctionModelMappingService functionModelMappingService;
   private final AiModelService aiModelService;
   private final AiProviderService aiProviderService;
+  private final AiProviderClientRegistry providerClientRegistry;
   private final ChatModel defaultChatModel;
 
   /** 根据功能类型组合出完整执行配置。 */
@@ -55,29 +55,39 @@ class AiFunctionConfigurationService {
       throw new BusinessException(String.format("提示词模板 [%s] 内容为空", promptCode));
     }
 
-    Long modelId = functionModelMappingService.getModelIdByFunctionType(functionType);
-    ChatModel chatModel = defaultChatModel;
-    AiModel model = null;
-    boolean supportsJsonSchema = true;
-
-    if (modelId != null) {
-      model = aiModelService.getById(modelId);
-      if (model == null) {
-        log.warn("功能 {} 映射的模型 {} 不存在，回退到默认 ChatModel", functionCode, modelId);
-      } else {
-        AiProvider provider = aiProviderService.getById(model.getProviderId());
-        if (provider == null) {
-          log.warn("模型 {} 映射的厂商 {} 不存在，回退到默认 ChatModel", modelId, model.getProviderId());
-        } else {
-          chatModel = createChatModel(provider, model);
-          supportsJsonSchema =
-              model.getSupportsJsonSchema() == null || model.getSupportsJsonSchema();
-        }
+    List<AiModelCandidate> candidates = new ArrayList<>();
+    for (Long modelId : functionModelMappingService.listModelIdsByFunctionType(functionType)) {
+      AiModelCandidate candidate = createCandidate(functionCode, modelId);
+      if (candidate != null) {
+        candidates.add(candidate);
       }
     }
+    if (candidates.isEmpty()) {
+      candidates.add(new AiModelCandidate(null, defaultChatModel, true));
+    }
 
     return new AiFunctionConfiguration(
-        functionType, promptCode, promptContent, chatModel, supportsJsonSchema, model);
+        functionType, promptCode, promptContent, candidates.getFirst(), List.copyOf(candidates));
+  }
+
+  private AiModelCandidate createCandidate(String functionCode, Long modelId) {
+    AiModel model = aiModelService.getById(modelId);
+    if (model == null) {
+      log.warn("功能 {} 映射的模型 {} 不存在，跳过该候选", functionCode, modelId);
+      return null;
+    }
+    AiProvider provider = aiProviderService.getById(model.getProviderId());
+    if (provider == null) {
+      log.warn("模型 {} 映射的厂商 {} 不存在，跳过该候选", modelId, model.getProviderId());
+      return null;
+    }
+    ChatModel chatModel = createChatModel(provider, model);
+    if (chatModel == defaultChatModel) {
+      return new AiModelCandidate(null, defaultChatModel, true);
+    }
+    boolean supportsJsonSchema =
+        model.getSupportsJsonSchema() == null || model.getSupportsJsonSchema();
+    return new AiModelCandidate(model, chatModel, supportsJsonSchema);
   }
 
   private ChatModel createChatModel(AiProvider provider, AiModel model) {
@@ -88,12 +98,6 @@ class AiFunctionConfigurationService {
       return defaultChatModel;
     }
 
-    OpenAiApi openAiApi =
-        OpenAiApi.builder().baseUrl(provider.getBaseUrl()).apiKey(provider.getApiKey()).build();
-
-    return OpenAiChatModel.builder()
-        .openAiApi(openAiApi)
-        .defaultOptions(OpenAiChatOptions.builder().model(model.getModelName()).build())
-        .build();
+    return providerClientRegistry.getChatModel(provider, model.getModelName());
   }
 }
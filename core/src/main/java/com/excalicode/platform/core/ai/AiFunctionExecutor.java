@@ -1,23 +1,27 @@
 package com.excalicode.platform.core.ai;
 
+import com.excalicode.platform.core.enums.AiCallPriority;
 import com.excalicode.platform.core.enums.AiFunctionType;
 import com.excalicode.platform.core.exception.BusinessException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.converter.BeanOutputConverter;
 import org.springframework.ai.openai.OpenAiChatOptions;
-import org.springframework.ai.openai.api.ResponseFormat;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /** 统一的 AI 功能执行入口。 */
 @Slf4j
@@ -25,7 +29,17 @@ import reactor.core.publisher.Flux;
 @RequiredArgsConstructor
 public class AiFunctionExecutor {
 
+  private static final String CONTINUATION_PROMPT =
+      "上面的 JSON 输出被截断了。请从断点处直接继续输出剩余内容，不要重复已输出的部分，不要输出代码块标记或任何解释。";
+
   private final AiFunctionConfigurationService configurationService;
+  private final AiResponseCache responseCache;
+  private final AiSingleFlight singleFlight;
+  private final AiModelRouter modelRouter;
+  private final AiStreamTelemetry telemetry;
+  private final AiStructuredOutputRegistry structuredOutputs;
+  private final AiStructuredOutputRecovery structuredRecovery;
+  private final AiPromptBudget promptBudget;
 
   /**
    * 流式执行 AI 功能，返回文本流。
@@ -36,18 +50,71 @@ public class AiFunctionExecutor {
    */
   public Flux<String> streamText(AiFunctionType functionType, String userPrompt) {
     AiFunctionConfiguration config = configurationService.getConfiguration(functionType);
-    Prompt prompt = new Prompt(mergeMessages(config, List.of(new UserMessage(userPrompt))));
-    return config.chatModel().stream(prompt)
+    List<Message> messages = List.of(new UserMessage(userPrompt));
+    promptBudget.check(config, messages);
+    return streamPrompt(config, c -> new Prompt(mergeMessages(c, messages)), null);
+  }
+
+  /**
+   * 以结构化输出（JSON）模式流式执行 AI 功能，返回原始 JSON 文本流。
+   *
+   * <p>适用于需要边生成边解析的场景，调用方可配合 {@link StreamingJsonArrayParser} 增量切出完整元素。
+   *
+   * @param functionType 功能类型
+   * @param userPrompt 用户输入的提示
+   * @param responseType 完整响应对应的类型，用于生成 JSON Schema
+   * @return JSON 文本片段流
+   */
+  public Flux<String> streamStructuredText(
+      AiFunctionType functionType, String userPrompt, Class<?> responseType) {
+    AiFunctionConfiguration config = configurationService.getConfiguration(functionType);
+    AiStructuredOutputRegistry.StructuredOutput<?> output = structuredOutputs.get(responseType);
+    List<Message> messages = List.of(new UserMessage(userPrompt));
+    promptBudget.check(config, messages);
+    return streamPrompt(
+        config, c -> buildJsonPrompt(c, messages, output), responseType.getName());
+  }
+
+  /**
+   * 流式执行；开启调用合并时，相同输入的并发流共享同一条上游流。
+   *
+   * @param promptFactory 按候选模型构建 Prompt
+   * @param variant 区分同一消息不同调用方式的附加信息（如结构化输出类型）
+   */
+  private Flux<String> streamPrompt(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      String variant) {
+    AiFunctionType functionType = config.functionType();
+    // 订阅可能发生在其他线程，优先级在组装时确定
+    AiCallPriority priority = AiCallContext.resolve(functionType);
+    Flux<String> chunks =
+        singleFlight.isEnabled()
+            ? singleFlight.stream(
+                AiCallKey.of(
+                    config, promptFactory.apply(config).getInstructions(), "stream:" + variant),
+                () -> streamUpstream(config, promptFactory, priority))
+            : streamUpstream(config, promptFactory, priority);
+    // 逐片段指标由 AiStreamTelemetry 在路由层记录，这里只保留生命周期日志
+    return chunks
+        .doOnSubscribe(
+            subscription -> log.debug("开始流式推送 AI 功能 [{}]", functionType.getDescription()))
+        .doOnComplete(() -> log.debug("AI 功能 [{}] 流式完成", functionType.getDescription()))
+        .doOnCancel(() -> log.info("AI 功能 [{}] 流式已被调用方取消", functionType.getDescription()))
+        .doOnError(error -> log.error("AI 功能 [{}] 流式失败", functionType.getDescription(), error));
+  }
+
+  private Flux<String> streamUpstream(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority) {
+    return Flux.defer(() -> modelRouter.stream(config, promptFactory, priority))
         .map(
             response -> {
               String chunk = response.getResult().getOutput().getText();
               return chunk != null ? chunk : "";
             })
-        .filter(chunk -> !chunk.isEmpty())
-        .doOnSubscribe(subscription -> log.info("开始流式推送 AI 功能 [{}]", functionType.getDescription()))
-        .doOnNext(chunk -> log.info("AI 功能 [{}] 流式片段: {}", functionType.getDescription(), chunk))
-        .doOnComplete(() -> log.info("AI 功能 [{}] 流式完成", functionType.getDescription()))
-        .doOnError(error -> log.error("AI 功能 [{}] 流式失败", functionType.getDescription(), error));
+        .filter(chunk -> !chunk.isEmpty());
   }
 
   /**
@@ -59,14 +126,16 @@ public class AiFunctionExecutor {
    */
   public String executeText(AiFunctionType functionType, String userPrompt) {
     AiFunctionConfiguration config = configurationService.getConfiguration(functionType);
-    Prompt prompt = new Prompt(mergeMessages(config, List.of(new UserMessage(userPrompt))));
-    ChatResponse chatResponse = config.chatModel().call(prompt);
-    String text = chatResponse.getResult().getOutput().getText();
-    if (text == null) {
-      throw new BusinessException(String.format("AI 功能 [%s] 返回空响应", functionType.getDescription()));
-    }
+    List<Message> messages = List.of(new UserMessage(userPrompt));
+    promptBudget.check(config, messages);
+    String text =
+        callWithCache(
+            config,
+            c -> new Prompt(mergeMessages(c, messages)),
+            null,
+            reply -> requireText(functionType, reply));
     String trimmed = text.trim();
-    log.info("AI 功能 [{}] 文本响应: {}", functionType.getDescription(), trimmed);
+    telemetry.capturePayload(config, "文本响应", trimmed);
     return trimmed;
   }
 
@@ -94,24 +163,276 @@ public class AiFunctionExecutor {
   public <T> T executeStructured(
       AiFunctionType functionType, List<Message> messages, Class<T> responseType) {
     AiFunctionConfiguration config = configurationService.getConfiguration(functionType);
-    BeanOutputConverter<T> converter = new BeanOutputConverter<>(responseType);
-    String jsonSchema = converter.getJsonSchema();
-    Prompt prompt = buildJsonPrompt(config, messages, jsonSchema);
-    ChatResponse chatResponse = config.chatModel().call(prompt);
-    String raw = chatResponse.getResult().getOutput().getText();
-    if (raw == null) {
-      throw new BusinessException(String.format("AI 功能 [%s] 返回空响应", functionType.getDescription()));
+    AiStructuredOutputRegistry.StructuredOutput<T> output = structuredOutputs.get(responseType);
+    promptBudget.check(config, messages);
+    String json =
+        callWithCache(
+            config,
+            c -> buildJsonPrompt(c, messages, output),
+            responseType.getName(),
+            raw -> {
+              telemetry.capturePayload(config, "原始响应", requireText(functionType, raw));
+              AiStructuredOutputRecovery.Recovered<T> recovered =
+                  structuredRecovery.parse(
+                      config,
+                      output,
+                      raw,
+                      partial ->
+                          call(config, c -> new Prompt(continuationMessages(c, messages, partial)))
+                              .text());
+              return completeStructured(functionType, recovered);
+            });
+    return parseCompleted(functionType, output, json);
+  }
+
+  /**
+   * 非阻塞执行 AI 功能，返回文本响应；等待上游期间不占用线程。
+   *
+   * @param functionType 功能类型
+   * @param userPrompt 用户输入的提示
+   * @return 文本响应
+   */
+  public Mono<String> executeTextAsync(AiFunctionType functionType, String userPrompt) {
+    AiCallPriority priority = AiCallContext.resolve(functionType);
+    return Mono.defer(
+        () -> {
+          AiFunctionConfiguration config = configurationService.getConfiguration(functionType);
+          List<Message> messages = List.of(new UserMessage(userPrompt));
+          promptBudget.check(config, messages);
+          return callWithCacheAsync(
+                  config,
+                  c -> new Prompt(mergeMessages(c, messages)),
+                  null,
+                  priority,
+                  reply -> Mono.fromSupplier(() -> requireText(functionType, reply)))
+              .switchIfEmpty(Mono.error(() -> emptyResponse(functionType)))
+              .map(
+                  text -> {
+                    String trimmed = text.trim();
+                    telemetry.capturePayload(config, "文本响应", trimmed);
+                    return trimmed;
+                  });
+        });
+  }
+
+  /**
+   * 非阻塞执行 AI 功能，返回结构化响应；等待上游期间不占用线程。
+   *
+   * @param functionType 功能类型
+   * @param userPrompt 用户输入的提示
+   * @param responseType 响应类型
+   * @return 结构化响应
+   */
+  public <T> Mono<T> executeStructuredAsync(
+      AiFunctionType functionType, String userPrompt, Class<T> responseType) {
+    return executeStructuredAsync(
+        functionType, List.of(new UserMessage(userPrompt)), responseType);
+  }
+
+  /**
+   * 非阻塞执行 AI 功能，返回结构化响应；等待上游期间不占用线程。
+   *
+   * @param functionType 功能类型
+   * @param messages 消息列表
+   * @param responseType 响应类型
+   * @return 结构化响应
+   */
+  public <T> Mono<T> executeStructuredAsync(
+      AiFunctionType functionType, List<Message> messages, Class<T> responseType) {
+    AiCallPriority priority = AiCallContext.resolve(functionType);
+    return Mono.defer(
+        () -> {
+          AiFunctionConfiguration config = configurationService.getConfiguration(functionType);
+          AiStructuredOutputRegistry.StructuredOutput<T> output =
+              structuredOutputs.get(responseType);
+          promptBudget.check(config, messages);
+          return callWithCacheAsync(
+                  config,
+                  c -> buildJsonPrompt(c, messages, output),
+                  responseType.getName(),
+                  priority,
+                  raw -> {
+                    telemetry.capturePayload(config, "原始响应", requireText(functionType, raw));
+                    return structuredRecovery
+                        .parseAsync(
+                            config,
+                            output,
+                            raw,
+                            partial ->
+                                modelRouter
+                                    .callAsync(
+                                        config,
+                                        c -> new Prompt(continuationMessages(c, messages, partial)),
+                                        priority)
+                                    .map(AiModelReply::text))
+                        .map(recovered -> completeStructured(functionType, recovered))
+                        .switchIfEmpty(Mono.error(() -> parseFailed(functionType)));
+                  })
+              .switchIfEmpty(Mono.error(() -> emptyResponse(functionType)))
+              .map(json -> parseCompleted(functionType, output, json));
+        });
+  }
+
+  /**
+   * 执行一次阻塞调用。
+   *
+   * <p>功能开启响应缓存时，输入完全相同则直接返回缓存的结果；开启调用合并时，相同输入的并发调用只向上游发起一次。
+   * 上游响应先经 {@code complete} 解析与校验，通过后才写入缓存，失败的响应不会被缓存反复重放。
+   *
+   * @param promptFactory 按候选模型构建 Prompt
+   * @param variant 区分同一消息不同调用方式的附加信息（如结构化输出类型）
+   * @param complete 将上游响应整理为可缓存的最终文本，响应不可用时抛出异常
+   */
+  private String callWithCache(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      String variant,
+      UnaryOperator<String> complete) {
+    boolean cacheEnabled = responseCache.isEnabled(config.functionType());
+    boolean coalesceEnabled = singleFlight.isEnabled();
+    if (!cacheEnabled && !coalesceEnabled) {
+      return complete.apply(call(config, promptFactory).text());
+    }
+    if (cacheEnabled) {
+      Optional<String> cached = cachedReply(config, promptFactory, variant);
+      if (cached.isPresent()) {
+        return cached.get();
+      }
     }
-    log.info("AI 功能 [{}] 原始响应: {}", functionType.getDescription(), raw);
-    T value = converter.convert(raw);
-    if (value == null) {
+    Supplier<String> upstream =
+        () -> {
+          AiModelReply reply = call(config, promptFactory);
+          String text = complete.apply(reply.text());
+          if (cacheEnabled) {
+            cacheReply(config.withCandidate(reply.candidate()), promptFactory, variant, text);
+          }
+          return text;
+        };
+    return coalesceEnabled
+        ? singleFlight.call(callKey(config, promptFactory, variant), upstream)
+        : upstream.get();
+  }
+
+  /** {@link #callWithCache} 的非阻塞版本，与阻塞调用共享缓存与在途调用 */
+  private Mono<String> callWithCacheAsync(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      String variant,
+      AiCallPriority priority,
+      Function<String, Mono<String>> complete) {
+    boolean cacheEnabled = responseCache.isEnabled(config.functionType());
+    boolean coalesceEnabled = singleFlight.isEnabled();
+    if (cacheEnabled) {
+      Optional<String> cached = cachedReply(config, promptFactory, variant);
+      if (cached.isPresent()) {
+        return Mono.just(cached.get());
+      }
+    }
+    Mono<String> upstream =
+        modelRouter
+            .callAsync(config, promptFactory, priority)
+            .flatMap(
+                reply ->
+                    complete
+                        .apply(reply.text())
+                        .doOnNext(
+                            text -> {
+                              if (cacheEnabled) {
+                                cacheReply(
+                                    config.withCandidate(reply.candidate()),
+                                    promptFactory,
+                                    variant,
+                                    text);
+                              }
+                            }));
+    return coalesceEnabled
+        ? singleFlight.callAsync(callKey(config, promptFactory, variant), upstream)
+        : upstream;
+  }
+
+  /** 依次查找各候选模型缓存的结果：缓存按实际响应的模型写入，失败切换或对冲后由备选模型写入的结果同样可用 */
+  private Optional<String> cachedReply(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      String variant) {
+    for (AiModelCandidate candidate : config.candidates()) {
+      Optional<String> cached =
+          responseCache.get(callKey(config.withCandidate(candidate), promptFactory, variant));
+      if (cached.isPresent()) {
+        log.debug(
+            "AI 功能 [{}] 命中响应缓存: model={}",
+            config.functionType().getDescription(),
+            candidate.key());
+        return cached;
+      }
+    }
+    return Optional.empty();
+  }
+
+  private void cacheReply(
+      AiFunctionConfiguration resolved,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      String variant,
+      String text) {
+    if (StringUtils.hasText(text)) {
+      responseCache.put(callKey(resolved, promptFactory, variant), text);
+    }
+  }
+
+  private AiCallKey callKey(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      String variant) {
+    return AiCallKey.of(config, promptFactory.apply(config).getInstructions(), variant);
+  }
+
+  private AiModelReply call(
+      AiFunctionConfiguration config, Function<AiFunctionConfiguration, Prompt> promptFactory) {
+    return modelRouter.call(config, promptFactory, AiCallContext.resolve(config.functionType()));
+  }
+
+  /**
+   * 结构化响应恢复成功且校验通过后，返回可直接解析的 JSON 作为最终结果。
+   *
+   * <p>丢弃了截断尾部的结果不完整，直接报错而不是悄悄返回更少的数据，也不会被缓存。
+   */
+  private <T> String completeStructured(
+      AiFunctionType functionType, AiStructuredOutputRecovery.Recovered<T> recovered) {
+    if (recovered == null || recovered.value() == null) {
+      throw parseFailed(functionType);
+    }
+    if (recovered.truncated()) {
+      throw new BusinessException(
+          String.format(
+              "AI 功能 [%s] 输出被截断，结果不完整，请精简输入后重试", functionType.getDescription()));
+    }
+    validateStructuredResult(recovered.value());
+    return recovered.json();
+  }
+
+  /** 解析最终 JSON（上游响应或缓存），已经过恢复与校验 */
+  private <T> T parseCompleted(
+      AiFunctionType functionType,
+      AiStructuredOutputRegistry.StructuredOutput<T> output,
+      String json) {
+    T value;
+    try {
+      value = output.parse(json);
+    } catch (RuntimeException ex) {
       throw new BusinessException(
-          String.format("AI 功能 [%s] 响应解析失败", functionType.getDescription()));
+          String.format("AI 功能 [%s] 响应解析失败", functionType.getDescription()), ex);
     }
     validateStructuredResult(value);
     return value;
   }
 
+  private String requireText(AiFunctionType functionType, String text) {
+    if (text == null) {
+      throw emptyResponse(functionType);
+    }
+    return text;
+  }
+
   /**
    * 这里是为了适配 deepseek 等不支持直接 JSON Schema 的模型。
    *
@@ -120,14 +441,14 @@ public class AiFunctionExecutor {
    * <p>详情：https://api-docs.deepseek.com/zh-cn/guides/json_mode
    */
   private Prompt buildJsonPrompt(
-      AiFunctionConfiguration config, List<Message> messages, String jsonSchema) {
-    OpenAiChatOptions.Builder optionsBuilder = OpenAiChatOptions.builder();
-    ResponseFormat responseFormat =
-        config.supportsJsonSchema()
-            ? new ResponseFormat(ResponseFormat.Type.JSON_SCHEMA, jsonSchema)
-            : new ResponseFormat(ResponseFormat.Type.JSON_OBJECT, null);
-    optionsBuilder.responseFormat(responseFormat);
-    return new Prompt(mergeMessages(config, messages), optionsBuilder.build());
+      AiFunctionConfiguration config,
+      List<Message> messages,
+      AiStructuredOutputRegistry.StructuredOutput<?> output) {
+    OpenAiChatOptions options =
+        OpenAiChatOptions.builder()
+            .responseFormat(output.responseFormat(config.supportsJsonSchema()))
+            .build();
+    return new Prompt(mergeMessages(config, messages), options);
   }
 
   private List<Message> mergeMessages(AiFunctionConfiguration config, List<Message> messages) {
@@ -139,6 +460,25 @@ public class AiFunctionExecutor {
     return finalMessages;
   }
 
+  /** 续写请求：把已生成的部分作为助手消息，要求模型从断点处接着输出 */
+  private List<Message> continuationMessages(
+      AiFunctionConfiguration config, List<Message> messages, String partial) {
+    List<Message> finalMessages = mergeMessages(config, messages);
+    finalMessages.add(AssistantMessage.builder().content(partial).build());
+    finalMessages.add(new UserMessage(CONTINUATION_PROMPT));
+    return finalMessages;
+  }
+
+  private BusinessException parseFailed(AiFunctionType functionType) {
+    return new BusinessException(
+        String.format("AI 功能 [%s] 响应解析失败", functionType.getDescription()));
+  }
+
+  private BusinessException emptyResponse(AiFunctionType functionType) {
+    return new BusinessException(
+        String.format("AI 功能 [%s] 返回空响应", functionType.getDescription()));
+  }
+
   private void validateStructuredResult(Object value) {
     if (value instanceof Iterable<?> iterable && !iterable.iterator().hasNext()) {
       throw new BusinessException("AI 返回结构为空");
@@ -0,0 +1,142 @@
+package com.excalicode.platform.core.ai;
+
+import java.util.Optional;
+
+/**
+ * 模型 JSON 输出的本地修复：去掉 Markdown 代码块与前后说明文字，输出被截断时丢弃最后一个不完整的元素并补齐括号。
+ *
+ * <p>只做结构层面的修复，不猜测缺失的内容；修复结果仍需由调用方按响应类型解析校验。
+ */
+final class AiJsonRepair {
+
+  private AiJsonRepair() {}
+
+  /**
+   * 修复结果。
+   *
+   * @param json 修复后的 JSON
+   * @param truncated 原始输出是否被截断（修复时丢弃了不完整的尾部）
+   */
+  record Result(String json, boolean truncated) {}
+
+  /**
+   * 尝试修复。
+   *
+   * @param raw 模型原始输出
+   * @return 修复结果，找不到 JSON 起点或截断处之前没有任何完整元素时为空
+   */
+  static Optional<Result> repair(String raw) {
+    if (raw == null) {
+      return Optional.empty();
+    }
+    int start = firstJsonStart(raw);
+    if (start < 0) {
+      return Optional.empty();
+    }
+
+    StringBuilder open = new StringBuilder();
+    boolean inString = false;
+    boolean escaped = false;
+    // 最近一个可安全截断的位置（不含）及当时尚未闭合的括号
+    int safeEnd = -1;
+    String safeOpen = null;
+
+    for (int i = start; i < raw.length(); i++) {
+      char c = raw.charAt(i);
+      if (inString) {
+        if (escaped) {
+          escaped = false;
+        } else if (c == '\\') {
+          escaped = true;
+        } else if (c == '"') {
+          inString = false;
+        }
+        continue;
+      }
+      switch (c) {
+        case '"' -> inString = true;
+        case '{', '[' -> open.append(c);
+        case '}', ']' -> {
+          if (open.isEmpty() || !matches(open.charAt(open.length() - 1), c)) {
+            return Optional.empty();
+          }
+          open.setLength(open.length() - 1);
+          if (open.isEmpty()) {
+            // 根节点已闭合，忽略其后的说明文字
+            return Optional.of(new Result(stripTrailingCommas(raw.substring(start, i + 1)), false));
+          }
+          safeEnd = i + 1;
+          safeOpen = open.toString();
+        }
+        case ',' -> {
+          safeEnd = i;
+          safeOpen = open.toString();
+        }
+        default -> {
+          // 其他字符不影响结构
+        }
+      }
+    }
+
+    if (safeEnd < 0) {
+      return Optional.empty();
+    }
+    StringBuilder repaired = new StringBuilder(raw.substring(start, safeEnd).stripTrailing());
+    while (!repaired.isEmpty() && repaired.charAt(repaired.length() - 1) == ',') {
+      repaired.setLength(repaired.length() - 1);
+    }
+    for (int i = safeOpen.length() - 1; i >= 0; i--) {
+      repaired.append(safeOpen.charAt(i) == '{' ? '}' : ']');
+    }
+    return Optional.of(new Result(stripTrailingCommas(repaired.toString()), true));
+  }
+
+  /** 跳过 Markdown 代码块标记与前置说明，定位第一个 { 或 [ */
+  private static int firstJsonStart(String raw) {
+    for (int i = 0; i < raw.length(); i++) {
+      char c = raw.charAt(i);
+      if (c == '{' || c == '[') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean matches(char open, char close) {
+    return (open == '{' && close == '}') || (open == '[' && close == ']');
+  }
+
+  /** 去掉 } 或 ] 之前多余的逗号（字符串内的内容保持不变） */
+  private static String stripTrailingCommas(String json) {
+    StringBuilder result = new StringBuilder(json.length());
+    boolean inString = false;
+    boolean escaped = false;
+    for (int i = 0; i < json.length(); i++) {
+      char c = json.charAt(i);
+      if (inString) {
+        result.append(c);
+        if (escaped) {
+          escaped = false;
+        } else if (c == '\\') {
+          escaped = true;
+        } else if (c == '"') {
+          inString = false;
+        }
+        continue;
+      }
+      if (c == '"') {
+        inString = true;
+      } else if (c == '}' || c == ']') {
+        int last = result.length() - 1;
+        while (last >= 0 && Character.isWhitespace(result.charAt(last))) {
+          last--;
+        }
+        if (last >= 0 && result.charAt(last) == ',') {
+          result.deleteCharAt(last);
+        }
+      }
+      result.append(c);
+    }
+    return result.toString();
+  }
+}
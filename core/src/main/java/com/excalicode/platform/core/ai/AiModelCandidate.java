@@ -0,0 +1,24 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.entity.AiModel;
+import org.springframework.ai.chat.model.ChatModel;
+
+/**
+ * 功能的一个候选模型。
+ *
+ * @param model 模型配置，使用默认 ChatModel 时为 {@code null}
+ * @param chatModel 实际调用的 ChatModel
+ * @param supportsJsonSchema 是否支持 JSON Schema 结构化输出
+ */
+record AiModelCandidate(AiModel model, ChatModel chatModel, boolean supportsJsonSchema) {
+
+  private static final String DEFAULT_KEY = "default";
+
+  /** 候选标识：模型 ID + 模型名称，默认模型为 {@code default} */
+  String key() {
+    if (model == null) {
+      return DEFAULT_KEY;
+    }
+    return model.getId() + "@" + model.getModelName();
+  }
+}
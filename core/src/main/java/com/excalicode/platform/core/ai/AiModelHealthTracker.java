@@ -0,0 +1,123 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 候选模型的滚动健康统计：最近一段时间内的 p50/p95 延迟与错误率。
+ *
+ * <p>每个模型保留固定容量的环形窗口，超出时间窗口的样本不参与统计；统计只在路由时按需计算，样本量很小，直接排序即可。
+ */
+@Component
+@RequiredArgsConstructor
+class AiModelHealthTracker {
+
+  private final AiExecutionProperties properties;
+
+  private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+  /**
+   * 记录一次调用结果。
+   *
+   * @param candidate 候选模型
+   * @param latencyNanos 调用耗时，小于 0 表示不计入延迟统计（如流式调用）
+   * @param success 是否成功
+   */
+  void record(AiModelCandidate candidate, long latencyNanos, boolean success) {
+    windows
+        .computeIfAbsent(
+            candidate.key(), key -> new Window(properties.getRouting().getHealthWindowSize()))
+        .add(System.nanoTime(), latencyNanos, success);
+  }
+
+  /** 当前统计快照 */
+  HealthStats stats(AiModelCandidate candidate) {
+    Window window = windows.get(candidate.key());
+    if (window == null) {
+      return HealthStats.EMPTY;
+    }
+    long horizon = System.nanoTime() - properties.getRouting().getHealthWindow().toNanos();
+    return window.snapshot(horizon);
+  }
+
+  /**
+   * 健康统计快照。
+   *
+   * @param samples 时间窗口内的样本数
+   * @param p50Millis 成功调用的 p50 延迟，无样本时为 -1
+   * @param p95Millis 成功调用的 p95 延迟，无样本时为 -1
+   * @param errorRate 错误率
+   */
+  record HealthStats(int samples, long p50Millis, long p95Millis, double errorRate) {
+
+    static final HealthStats EMPTY = new HealthStats(0, -1, -1, 0);
+
+    boolean hasLatency() {
+      return p95Millis >= 0;
+    }
+  }
+
+  /** 固定容量环形窗口，所有访问在 this 上同步 */
+  private static final class Window {
+
+    private final long[] timestamps;
+    private final long[] latencies;
+    private final boolean[] successes;
+    private int next;
+    private int size;
+
+    Window(int capacity) {
+      int safeCapacity = Math.max(1, capacity);
+      this.timestamps = new long[safeCapacity];
+      this.latencies = new long[safeCapacity];
+      this.successes = new boolean[safeCapacity];
+    }
+
+    synchronized void add(long timestamp, long latencyNanos, boolean success) {
+      timestamps[next] = timestamp;
+      latencies[next] = latencyNanos;
+      successes[next] = success;
+      next = (next + 1) % timestamps.length;
+      size = Math.min(size + 1, timestamps.length);
+    }
+
+    synchronized HealthStats snapshot(long horizonNanos) {
+      int samples = 0;
+      int failures = 0;
+      long[] successLatencies = new long[size];
+      int latencyCount = 0;
+      for (int i = 0; i < size; i++) {
+        if (timestamps[i] - horizonNanos < 0) {
+          continue;
+        }
+        samples++;
+        if (!successes[i]) {
+          failures++;
+        } else if (latencies[i] >= 0) {
+          successLatencies[latencyCount++] = latencies[i];
+        }
+      }
+      if (samples == 0) {
+        return HealthStats.EMPTY;
+      }
+      double errorRate = (double) failures / samples;
+      if (latencyCount == 0) {
+        return new HealthStats(samples, -1, -1, errorRate);
+      }
+      long[] sorted = Arrays.copyOf(successLatencies, latencyCount);
+      Arrays.sort(sorted);
+      return new HealthStats(
+          samples, percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.95), errorRate);
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+      int index = (int) Math.ceil(percentile * sorted.length) - 1;
+      return TimeUnit.NANOSECONDS.toMillis(sorted[Math.clamp(index, 0, sorted.length - 1)]);
+    }
+  }
+}
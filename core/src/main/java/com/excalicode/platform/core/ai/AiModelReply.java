@@ -0,0 +1,9 @@
+package com.excalicode.platform.core.ai;
+
+/**
+ * 一次路由调用的结果。
+ *
+ * @param text 响应文本
+ * @param candidate 实际返回该响应的候选模型（失败切换或对冲时不一定是首选）
+ */
+record AiModelReply(String text, AiModelCandidate candidate) {}
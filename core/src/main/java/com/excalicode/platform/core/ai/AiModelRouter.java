@@ -0,0 +1,642 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.ai.AiModelHealthTracker.HealthStats;
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import com.excalicode.platform.core.config.ApplicationExecutorConfig;
+import com.excalicode.platform.core.enums.AiCallPriority;
+import com.excalicode.platform.core.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 多候选模型路由：按滚动健康统计选择模型，失败时切换到下一个候选，延迟敏感的功能可发起对冲请求。
+ *
+ * <p>路由规则：按配置顺序取第一个健康的候选（错误率未超过阈值）；若另一个健康候选的 p95 明显更低则改用它。对冲请求在首选调用
+ * 超过其 p95 延迟仍未返回时发往下一个候选，先成功的结果生效，另一个请求随即取消。
+ *
+ * <p>每个功能有独立的截止时间，超时或调用方取消都会中断上游请求；指标 {@code ai.generations} 按结果统计完成、取消、失败与超时次数。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class AiModelRouter {
+
+  private static final String MODE_CALL = "call";
+  private static final String MODE_STREAM = "stream";
+  private static final String OUTCOME_COMPLETED = "completed";
+  private static final String OUTCOME_CANCELLED = "cancelled";
+  private static final String OUTCOME_FAILED = "failed";
+  private static final String OUTCOME_TIMEOUT = "timeout";
+
+  private final AiExecutionProperties properties;
+  private final AiModelHealthTracker healthTracker;
+  private final AiConcurrencyLimiter concurrencyLimiter;
+  private final AiStreamTelemetry telemetry;
+  private final AiCallRecorder recorder;
+  private final AiCallReplayer replayer;
+  private final MeterRegistry meterRegistry;
+
+  @Qualifier(ApplicationExecutorConfig.AI_CALL_EXECUTOR)
+  private final ExecutorService aiCallExecutorService;
+
+  /**
+   * 执行阻塞调用。
+   *
+   * <p>调用在 AI 调用线程池中执行，调用方线程只负责等待：超过功能截止时间或调用方线程被中断时，通过中断取消上游请求。
+   *
+   * @param config 功能执行配置
+   * @param promptFactory 按候选模型构建 Prompt（不同模型的结构化输出方式可能不同）
+   * @param priority 调用优先级
+   * @return 响应文本及实际响应的候选模型
+   */
+  AiModelReply call(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority) {
+    long deadlineNanos = System.nanoTime() + deadline(config).toNanos();
+    try {
+      AiModelReply result = route(config, promptFactory, priority, deadlineNanos);
+      countGeneration(config, MODE_CALL, OUTCOME_COMPLETED);
+      return result;
+    } catch (DeadlineExceededException ex) {
+      countGeneration(config, MODE_CALL, OUTCOME_TIMEOUT);
+      throw ex;
+    } catch (CallCancelledException ex) {
+      countGeneration(config, MODE_CALL, OUTCOME_CANCELLED);
+      throw ex;
+    } catch (RuntimeException ex) {
+      countGeneration(config, MODE_CALL, OUTCOME_FAILED);
+      throw ex;
+    }
+  }
+
+  private AiModelReply route(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority,
+      long deadlineNanos) {
+    List<AiModelCandidate> ranked = rank(config);
+    if (isHedgeEnabled(config) && ranked.size() > 1) {
+      return callHedged(config, ranked, promptFactory, priority, deadlineNanos);
+    }
+    int attempts = properties.getRouting().isFailoverEnabled() ? ranked.size() : 1;
+    RuntimeException lastError = null;
+    for (int i = 0; i < attempts; i++) {
+      AiModelCandidate candidate = ranked.get(i);
+      try {
+        return callBeforeDeadline(config, candidate, promptFactory, priority, deadlineNanos);
+      } catch (DeadlineExceededException | CallCancelledException ex) {
+        throw ex;
+      } catch (RuntimeException ex) {
+        lastError = ex;
+        if (i + 1 < attempts) {
+          log.warn(
+              "AI 功能 [{}] 模型 {} 调用失败，切换到 {}: {}",
+              config.functionType().getDescription(),
+              candidate.key(),
+              ranked.get(i + 1).key(),
+              ex.getMessage());
+        }
+      }
+    }
+    throw lastError;
+  }
+
+  /** 在 AI 调用线程池中执行单次调用并等待到截止时间（含排队时间）；排队也满时立即失败，不在当前线程无截止时间地执行 */
+  private AiModelReply callBeforeDeadline(
+      AiFunctionConfiguration config,
+      AiModelCandidate candidate,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority,
+      long deadlineNanos) {
+    AtomicBoolean cancelled = new AtomicBoolean();
+    Future<AiModelReply> future;
+    try {
+      future =
+          aiCallExecutorService.submit(
+              () -> callCandidate(config, candidate, promptFactory, priority, cancelled::get));
+    } catch (RejectedExecutionException ex) {
+      throw executorSaturated(config);
+    }
+    try {
+      return future.get(remainingNanos(config, deadlineNanos), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException ex) {
+      // 被取消的调用不再计入健康统计，这里补记一次失败
+      healthTracker.record(candidate, -1, false);
+      throw deadlineExceeded(config);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CallCancelledException(config);
+    } catch (ExecutionException ex) {
+      throw unwrap(ex);
+    } finally {
+      if (!future.isDone()) {
+        cancelled.set(true);
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * 执行流式调用，路由到当前最健康的候选模型。
+   *
+   * <p>下游取消订阅（如浏览器关闭 SSE 连接）时取消会一直传递到上游 HTTP 流；超过空闲超时或功能截止时间同样取消上游。
+   *
+   * @param config 功能执行配置
+   * @param promptFactory 按候选模型构建 Prompt
+   * @param priority 调用优先级
+   * @return 响应流
+   */
+  Flux<ChatResponse> stream(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority) {
+    AiModelCandidate candidate = rank(config).getFirst();
+    AiFunctionConfiguration resolved = config.withCandidate(candidate);
+    Prompt prompt = promptFactory.apply(resolved);
+    Duration idleTimeout = properties.getDeadline().getStreamIdleTimeout();
+    Duration deadline = deadline(config);
+    Flux<ChatResponse> limited =
+        concurrencyLimiter.stream(
+            resolved,
+            priority,
+            () ->
+                recorder
+                    .recordStream(resolved, prompt, chatModel(resolved).stream(prompt))
+                    // 空闲超时只计上游，不含排队等待并发许可的时间
+                    .timeout(idleTimeout)
+                    .onErrorMap(
+                        TimeoutException.class, ex -> idleTimeoutExceeded(config, idleTimeout))
+                    .doOnComplete(() -> healthTracker.record(candidate, -1, true))
+                    .doOnError(error -> healthTracker.record(candidate, -1, false)));
+    return telemetry
+        .instrument(resolved, limited)
+        .takeUntilOther(
+            Mono.delay(deadline).then(Mono.error(() -> deadlineExceeded(config))))
+        .doOnComplete(() -> countGeneration(config, MODE_STREAM, OUTCOME_COMPLETED))
+        .doOnCancel(() -> countGeneration(config, MODE_STREAM, OUTCOME_CANCELLED))
+        .doOnError(
+            error ->
+                countGeneration(
+                    config,
+                    MODE_STREAM,
+                    error instanceof DeadlineExceededException ? OUTCOME_TIMEOUT : OUTCOME_FAILED));
+  }
+
+  /**
+   * 执行非阻塞调用：通过流式接口生成并聚合为完整文本，等待上游期间不占用线程。
+   *
+   * <p>失败时按健康排序切换到下一个候选模型，启用对冲的功能同阻塞调用一样对冲；截止时间、取消、健康统计与指标口径同阻塞调用。
+   *
+   * @param config 功能执行配置
+   * @param promptFactory 按候选模型构建 Prompt
+   * @param priority 调用优先级
+   * @return 响应文本及实际响应的候选模型
+   */
+  Mono<AiModelReply> callAsync(
+      AiFunctionConfiguration config,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority) {
+    return Mono.defer(
+            () -> {
+              List<AiModelCandidate> ranked = rank(config);
+              if (isHedgeEnabled(config) && ranked.size() > 1) {
+                return callHedgedAsync(config, ranked, promptFactory, priority);
+              }
+              int attempts = properties.getRouting().isFailoverEnabled() ? ranked.size() : 1;
+              Mono<AiModelReply> result =
+                  aggregateCandidate(config, ranked.getFirst(), promptFactory, priority);
+              for (int i = 1; i < attempts; i++) {
+                AiModelCandidate failed = ranked.get(i - 1);
+                AiModelCandidate next = ranked.get(i);
+                result =
+                    result.onErrorResume(
+                        error -> !(error instanceof DeadlineExceededException),
+                        error -> {
+                          log.warn(
+                              "AI 功能 [{}] 模型 {} 调用失败，切换到 {}: {}",
+                              config.functionType().getDescription(),
+                              failed.key(),
+                              next.key(),
+                              error.getMessage());
+                          return aggregateCandidate(config, next, promptFactory, priority);
+                        });
+              }
+              return result;
+            })
+        .timeout(deadline(config), Mono.error(() -> deadlineExceeded(config)))
+        .doOnSuccess(text -> countGeneration(config, MODE_CALL, OUTCOME_COMPLETED))
+        .doOnCancel(() -> countGeneration(config, MODE_CALL, OUTCOME_CANCELLED))
+        .doOnError(
+            error ->
+                countGeneration(
+                    config,
+                    MODE_CALL,
+                    error instanceof DeadlineExceededException ? OUTCOME_TIMEOUT : OUTCOME_FAILED));
+  }
+
+  /** 以流式接口调用单个候选模型，聚合为完整文本并记录健康统计 */
+  private Mono<AiModelReply> aggregateCandidate(
+      AiFunctionConfiguration config,
+      AiModelCandidate candidate,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority) {
+    AiFunctionConfiguration resolved = config.withCandidate(candidate);
+    Duration idleTimeout = properties.getDeadline().getStreamIdleTimeout();
+    return Mono.defer(
+        () -> {
+          Prompt prompt = promptFactory.apply(resolved);
+          long start = System.nanoTime();
+          return concurrencyLimiter
+              .stream(
+                  resolved,
+                  priority,
+                  () ->
+                      chatModel(resolved)
+                          .stream(prompt)
+                          .timeout(idleTimeout)
+                          .onErrorMap(
+                              TimeoutException.class,
+                              ex -> idleTimeoutExceeded(config, idleTimeout)))
+              .mapNotNull(
+                  response ->
+                      response.getResult() != null
+                          ? response.getResult().getOutput().getText()
+                          : null)
+              .collect(StringBuilder::new, StringBuilder::append)
+              .map(StringBuilder::toString)
+              .doOnSuccess(
+                  text -> {
+                    long elapsed = System.nanoTime() - start;
+                    healthTracker.record(candidate, elapsed, true);
+                    latencyTimer(config, candidate, "success")
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+                    recorder.recordCall(resolved, prompt, text, elapsed);
+                    telemetry.recordResponse(resolved, text);
+                  })
+              .map(text -> new AiModelReply(text, candidate))
+              .doOnError(
+                  error -> {
+                    long elapsed = System.nanoTime() - start;
+                    healthTracker.record(candidate, elapsed, false);
+                    latencyTimer(config, candidate, "error").record(elapsed, TimeUnit.NANOSECONDS);
+                  });
+        });
+  }
+
+  /** 按健康度对候选模型排序，首个即为本次首选 */
+  List<AiModelCandidate> rank(AiFunctionConfiguration config) {
+    List<AiModelCandidate> candidates = config.candidates();
+    if (candidates.size() <= 1) {
+      return candidates;
+    }
+    AiExecutionProperties.Routing routing = properties.getRouting();
+    List<AiModelCandidate> healthy = new ArrayList<>();
+    List<AiModelCandidate> unhealthy = new ArrayList<>();
+    for (AiModelCandidate candidate : candidates) {
+      HealthStats stats = healthTracker.stats(candidate);
+      if (stats.samples() >= routing.getMinSamples()
+          && stats.errorRate() > routing.getMaxErrorRate()) {
+        unhealthy.add(candidate);
+      } else {
+        healthy.add(candidate);
+      }
+    }
+    unhealthy.sort(Comparator.comparingDouble(c -> healthTracker.stats(c).errorRate()));
+
+    if (healthy.size() > 1) {
+      AiModelCandidate preferred = healthy.getFirst();
+      HealthStats preferredStats = healthTracker.stats(preferred);
+      healthy.stream()
+          .filter(c -> c != preferred)
+          .filter(c -> healthTracker.stats(c).samples() >= routing.getMinSamples())
+          .filter(c -> healthTracker.stats(c).hasLatency())
+          .min(Comparator.comparingLong(c -> healthTracker.stats(c).p95Millis()))
+          .filter(
+              fastest ->
+                  preferredStats.samples() >= routing.getMinSamples()
+                      && preferredStats.hasLatency()
+                      && healthTracker.stats(fastest).p95Millis()
+                          < preferredStats.p95Millis() * routing.getLatencySwitchRatio())
+          .ifPresent(
+              fastest -> {
+                healthy.remove(fastest);
+                healthy.addFirst(fastest);
+              });
+    }
+    healthy.addAll(unhealthy);
+    return healthy;
+  }
+
+  private boolean isHedgeEnabled(AiFunctionConfiguration config) {
+    AiExecutionProperties.Routing routing = properties.getRouting();
+    return routing.isHedgeEnabled() && routing.getHedgeFunctions().contains(config.functionType());
+  }
+
+  /**
+   * 首选调用超过对冲延迟仍未返回时，向下一个候选补发请求，先成功者生效。
+   *
+   * <p>只有一个候选时不对冲：向同一模型重复请求只会加倍占用其配额，换不来更低的延迟。
+   */
+  private AiModelReply callHedged(
+      AiFunctionConfiguration config,
+      List<AiModelCandidate> ranked,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority,
+      long deadlineNanos) {
+    AiModelCandidate primary = ranked.getFirst();
+    AiModelCandidate backup = ranked.get(1);
+    String function = config.functionType().getCode();
+    AtomicBoolean settled = new AtomicBoolean();
+    ExecutorCompletionService<AiModelReply> completion =
+        new ExecutorCompletionService<>(aiCallExecutorService);
+    List<Future<AiModelReply>> futures = new ArrayList<>(2);
+    Future<AiModelReply> hedge = null;
+    try {
+      try {
+        futures.add(
+            completion.submit(
+                () -> callCandidate(config, primary, promptFactory, priority, settled::get)));
+      } catch (RejectedExecutionException ex) {
+        throw executorSaturated(config);
+      }
+
+      long hedgeDelayNanos =
+          Math.min(hedgeDelay(primary).toNanos(), remainingNanos(config, deadlineNanos));
+      Future<AiModelReply> first = completion.poll(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+      if (first == null && remainingNanos(config, deadlineNanos) > 0) {
+        try {
+          hedge =
+              completion.submit(
+                  () -> callCandidate(config, backup, promptFactory, priority, settled::get));
+          futures.add(hedge);
+          meterRegistry.counter("ai.hedge.requests", "function", function).increment();
+          log.info(
+              "AI 功能 [{}] 首选模型 {} 响应较慢，对冲请求发往 {}",
+              config.functionType().getDescription(),
+              primary.key(),
+              backup.key());
+        } catch (RejectedExecutionException ex) {
+          log.warn("AI 调用线程池已满，功能 [{}] 放弃对冲请求", config.functionType().getDescription());
+        }
+      }
+
+      ExecutionException lastError = null;
+      for (int remaining = futures.size(); remaining > 0; remaining--) {
+        Future<AiModelReply> done =
+            first != null
+                ? first
+                : completion.poll(remainingNanos(config, deadlineNanos), TimeUnit.NANOSECONDS);
+        first = null;
+        if (done == null) {
+          throw deadlineExceeded(config);
+        }
+        try {
+          AiModelReply result = done.get();
+          settled.set(true);
+          if (done == hedge) {
+            meterRegistry.counter("ai.hedge.wins", "function", function).increment();
+          }
+          return result;
+        } catch (ExecutionException ex) {
+          lastError = ex;
+        }
+      }
+      if (hedge == null && properties.getRouting().isFailoverEnabled()) {
+        // 首选在对冲延迟内就失败了，直接切换到下一个候选
+        return callBeforeDeadline(config, backup, promptFactory, priority, deadlineNanos);
+      }
+      throw unwrap(lastError);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CallCancelledException(config);
+    } finally {
+      settled.set(true);
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  /**
+   * {@link #callHedged} 的非阻塞版本：对冲延迟到期前首选就失败时直接切换到下一个候选（需启用失败切换），先成功者生效，另一路随即取消。
+   */
+  private Mono<AiModelReply> callHedgedAsync(
+      AiFunctionConfiguration config,
+      List<AiModelCandidate> ranked,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority) {
+    AiModelCandidate primary = ranked.getFirst();
+    AiModelCandidate backup = ranked.get(1);
+    String function = config.functionType().getCode();
+    AtomicBoolean primaryFailed = new AtomicBoolean();
+    Sinks.Empty<Void> primaryFailure = Sinks.empty();
+    Mono<AiModelReply> primaryCall =
+        aggregateCandidate(config, primary, promptFactory, priority)
+            .doOnError(
+                error -> {
+                  primaryFailed.set(true);
+                  primaryFailure.tryEmitEmpty();
+                });
+    Mono<AiModelReply> backupCall =
+        Mono.firstWithSignal(Mono.delay(hedgeDelay(primary)).then(), primaryFailure.asMono())
+            .then(
+                Mono.defer(
+                    () -> {
+                      if (primaryFailed.get()) {
+                        // 首选在对冲延迟内就失败了，按失败切换处理
+                        return properties.getRouting().isFailoverEnabled()
+                            ? aggregateCandidate(config, backup, promptFactory, priority)
+                            : Mono.empty();
+                      }
+                      meterRegistry.counter("ai.hedge.requests", "function", function).increment();
+                      log.info(
+                          "AI 功能 [{}] 首选模型 {} 响应较慢，对冲请求发往 {}",
+                          config.functionType().getDescription(),
+                          primary.key(),
+                          backup.key());
+                      return aggregateCandidate(config, backup, promptFactory, priority)
+                          .doOnNext(
+                              reply ->
+                                  meterRegistry
+                                      .counter("ai.hedge.wins", "function", function)
+                                      .increment());
+                    }));
+    return Mono.firstWithValue(primaryCall, backupCall)
+        .onErrorMap(NoSuchElementException.class, AiModelRouter::lastFailure);
+  }
+
+  /** 对冲的两路都没有结果时，还原最后一个真实错误 */
+  private static Throwable lastFailure(NoSuchElementException error) {
+    Throwable[] suppressed = error.getSuppressed();
+    return suppressed.length > 0 ? suppressed[suppressed.length - 1] : error;
+  }
+
+  /** 功能截止时间：优先取功能单独配置，否则使用默认值 */
+  private Duration deadline(AiFunctionConfiguration config) {
+    AiExecutionProperties.Deadline settings = properties.getDeadline();
+    return settings
+        .getFunctions()
+        .getOrDefault(config.functionType(), settings.getDefaultTimeout());
+  }
+
+  /** 距截止时间的剩余纳秒数，已超时则直接抛出 */
+  private long remainingNanos(AiFunctionConfiguration config, long deadlineNanos) {
+    long remaining = deadlineNanos - System.nanoTime();
+    if (remaining <= 0) {
+      throw deadlineExceeded(config);
+    }
+    return remaining;
+  }
+
+  private DeadlineExceededException idleTimeoutExceeded(
+      AiFunctionConfiguration config, Duration idleTimeout) {
+    return new DeadlineExceededException(
+        String.format(
+            "AI 功能 [%s] 超过 %d 秒没有输出，已取消",
+            config.functionType().getDescription(), idleTimeout.toSeconds()));
+  }
+
+  /** 线程池排队已满时按超时处理：调用方得到明确的失败，也不会切换到同样无法提交的其他候选 */
+  private DeadlineExceededException executorSaturated(AiFunctionConfiguration config) {
+    log.warn("AI 调用线程池已满，功能 [{}] 调用失败", config.functionType().getDescription());
+    return new DeadlineExceededException(
+        String.format(
+            "AI 功能 [%s] 当前请求过多，无法在截止时间内执行，请稍后重试",
+            config.functionType().getDescription()));
+  }
+
+  private DeadlineExceededException deadlineExceeded(AiFunctionConfiguration config) {
+    return new DeadlineExceededException(
+        String.format(
+            "AI 功能 [%s] 超过 %d 秒未完成，已取消",
+            config.functionType().getDescription(), deadline(config).toSeconds()));
+  }
+
+  private void countGeneration(AiFunctionConfiguration config, String mode, String outcome) {
+    meterRegistry
+        .counter(
+            "ai.generations",
+            "function", config.functionType().getCode(),
+            "mode", mode,
+            "outcome", outcome)
+        .increment();
+  }
+
+  /** 对冲延迟：首选模型的 p95，样本不足时使用默认值，且不低于最小延迟 */
+  private Duration hedgeDelay(AiModelCandidate candidate) {
+    AiExecutionProperties.Routing routing = properties.getRouting();
+    HealthStats stats = healthTracker.stats(candidate);
+    Duration delay =
+        stats.samples() >= routing.getMinSamples() && stats.hasLatency()
+            ? Duration.ofMillis(stats.p95Millis())
+            : routing.getDefaultHedgeDelay();
+    return delay.compareTo(routing.getMinHedgeDelay()) < 0 ? routing.getMinHedgeDelay() : delay;
+  }
+
+  /**
+   * 调用单个候选模型并记录健康统计。
+   *
+   * @param cancelled 调用被主动取消（对冲落败）时返回 true，此时失败不计入错误率
+   */
+  private AiModelReply callCandidate(
+      AiFunctionConfiguration config,
+      AiModelCandidate candidate,
+      Function<AiFunctionConfiguration, Prompt> promptFactory,
+      AiCallPriority priority,
+      BooleanSupplier cancelled) {
+    AiFunctionConfiguration resolved = config.withCandidate(candidate);
+    Prompt prompt = promptFactory.apply(resolved);
+    ChatResponse response =
+        concurrencyLimiter.execute(
+            resolved,
+            priority,
+            () -> {
+              long start = System.nanoTime();
+              try {
+                ChatResponse chatResponse = chatModel(resolved).call(prompt);
+                long elapsed = System.nanoTime() - start;
+                healthTracker.record(candidate, elapsed, true);
+                latencyTimer(config, candidate, "success").record(elapsed, TimeUnit.NANOSECONDS);
+                recorder.recordCall(
+                    resolved, prompt, chatResponse.getResult().getOutput().getText(), elapsed);
+                return chatResponse;
+              } catch (RuntimeException ex) {
+                if (!cancelled.getAsBoolean()) {
+                  long elapsed = System.nanoTime() - start;
+                  healthTracker.record(candidate, elapsed, false);
+                  latencyTimer(config, candidate, "error").record(elapsed, TimeUnit.NANOSECONDS);
+                }
+                throw ex;
+              }
+            });
+    String text = response.getResult().getOutput().getText();
+    telemetry.recordResponse(resolved, text);
+    return new AiModelReply(text, candidate);
+  }
+
+  /** 回放模式下使用录制结果代替真实模型 */
+  private ChatModel chatModel(AiFunctionConfiguration resolved) {
+    return replayer.isEnabled()
+        ? replayer.chatModel(resolved.functionType())
+        : resolved.candidate().chatModel();
+  }
+
+  private Timer latencyTimer(
+      AiFunctionConfiguration config, AiModelCandidate candidate, String outcome) {
+    return Timer.builder("ai.model.latency")
+        .description("AI 模型阻塞调用耗时")
+        .tags(
+            "function", config.functionType().getCode(),
+            "model", candidate.key(),
+            "outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private RuntimeException unwrap(ExecutionException ex) {
+    Throwable cause = ex.getCause();
+    if (cause instanceof RuntimeException runtimeException) {
+      return runtimeException;
+    }
+    return new BusinessException("AI 调用失败", cause);
+  }
+
+  /** 超过截止时间或流式空闲超时 */
+  private static final class DeadlineExceededException extends BusinessException {
+
+    DeadlineExceededException(String message) {
+      super(message);
+    }
+  }
+
+  /** 调用方线程被中断，上游调用随之取消 */
+  private static final class CallCancelledException extends BusinessException {
+
+    CallCancelledException(AiFunctionConfiguration config) {
+      super(String.format("AI 功能 [%s] 调用已取消", config.functionType().getDescription()));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import com.excalicode.platform.core.enums.AiFunctionType;
+import com.excalicode.platform.core.exception.BusinessException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按功能类型的 Prompt token 预算。
+ *
+ * <p>预算包含系统提示词与用户消息（含 RAG 上下文），用 {@link AiTokenEstimator} 在本地估算。调用方可先用 {@link
+ * #remaining(AiFunctionType)} 裁剪上下文或拆分批次；执行入口在发起调用前统一校验。
+ *
+ * <p>本地估算偏保守（标点、符号按字计），默认超出预算只记录日志与指标 {@code ai.prompt.over_budget}，开启 {@code enforced}
+ * 后才直接失败。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AiPromptBudget {
+
+  private final AiExecutionProperties properties;
+  private final AiFunctionConfigurationService configurationService;
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * 用户消息可用的 token 数（预算扣除系统提示词后的部分）。
+   *
+   * @param functionType 功能类型
+   * @return 剩余 token 数，未开启预算时为 {@link Integer#MAX_VALUE}
+   */
+  public int remaining(AiFunctionType functionType) {
+    if (!properties.getPromptBudget().isEnabled()) {
+      return Integer.MAX_VALUE;
+    }
+    AiFunctionConfiguration config = configurationService.getConfiguration(functionType);
+    return limit(functionType) - AiTokenEstimator.estimate(config.systemPrompt());
+  }
+
+  /**
+   * 判断用户消息是否在预算内。
+   *
+   * @param functionType 功能类型
+   * @param userPrompt 用户消息
+   * @return 在预算内时为 true
+   */
+  public boolean fits(AiFunctionType functionType, String userPrompt) {
+    return AiTokenEstimator.estimate(userPrompt) <= remaining(functionType);
+  }
+
+  /** 发起调用前校验完整 Prompt，超出预算时记录告警，强制模式下抛出业务异常 */
+  void check(AiFunctionConfiguration config, List<Message> messages) {
+    AiExecutionProperties.PromptBudget budget = properties.getPromptBudget();
+    if (!budget.isEnabled()) {
+      return;
+    }
+    AiFunctionType functionType = config.functionType();
+    int tokens = AiTokenEstimator.estimate(config.systemPrompt());
+    for (Message message : messages) {
+      tokens += AiTokenEstimator.estimate(message.getText());
+    }
+    DistributionSummary.builder("ai.prompt.tokens")
+        .description("AI 调用 Prompt token 估算值")
+        .baseUnit("tokens")
+        .tags("function", functionType.getCode())
+        .register(meterRegistry)
+        .record(tokens);
+    int limit = limit(functionType);
+    if (tokens <= limit) {
+      return;
+    }
+    meterRegistry.counter("ai.prompt.over_budget", "function", functionType.getCode()).increment();
+    log.warn(
+        "AI 功能 [{}] Prompt 估算约 {} tokens，超过预算 {} tokens",
+        functionType.getDescription(),
+        tokens,
+        limit);
+    if (budget.isEnforced()) {
+      throw new BusinessException(
+          String.format(
+              "AI 功能 [%s] 输入内容过长：约 %d tokens，超过上限 %d tokens，请精简或拆分后重试",
+              functionType.getDescription(), tokens, limit));
+    }
+  }
+
+  private int limit(AiFunctionType functionType) {
+    AiExecutionProperties.PromptBudget budget = properties.getPromptBudget();
+    return budget.getFunctions().getOrDefault(functionType, budget.getDefaultMaxTokens());
+  }
+}
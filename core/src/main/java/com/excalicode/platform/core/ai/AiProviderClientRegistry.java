@@ -0,0 +1,118 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import com.excalicode.platform.core.entity.AiProvider;
+import com.google.common.hash.Hashing;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * 按厂商复用的 OpenAI 客户端注册表。
+ *
+ * <p>所有厂商共享同一个 JDK {@link HttpClient}（连接池 + keep-alive，可协商 HTTP/2），同一厂商下的功能复用同一个 {@link
+ * OpenAiApi}，同一模型复用同一个 {@link ChatModel}。厂商的地址、密钥或更新时间变化时才重建对应客户端，
+ * 功能配置缓存过期不会导致重新握手。
+ *
+ * <p>厂商更新或删除时由 {@link #evict(Long)} 移除其客户端；共享的 HttpClient 不随厂商关闭，移除后连接由连接池按空闲超时回收。
+ */
+@Slf4j
+@Component
+public class AiProviderClientRegistry {
+
+  private final HttpClient httpClient;
+  private final AiExecutionProperties.HttpClient httpProperties;
+  private final Map<Long, ProviderClient> clients = new ConcurrentHashMap<>();
+
+  AiProviderClientRegistry(AiExecutionProperties properties) {
+    this.httpProperties = properties.getHttpClient();
+    HttpClient.Version version =
+        httpProperties.isHttp2Enabled() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1;
+    this.httpClient =
+        HttpClient.newBuilder()
+            .version(version)
+            .connectTimeout(httpProperties.getConnectTimeout())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+  }
+
+  /**
+   * 获取厂商下指定模型的 ChatModel，厂商配置未变化时复用已有实例。
+   *
+   * @param provider 厂商（需包含地址、密钥）
+   * @param modelName 模型名称
+   * @return 复用的 ChatModel
+   */
+  ChatModel getChatModel(AiProvider provider, String modelName) {
+    Objects.requireNonNull(provider.getId(), "厂商 ID 不能为空");
+    String fingerprint = fingerprint(provider);
+    ProviderClient client =
+        clients.compute(
+            provider.getId(),
+            (id, existing) -> {
+              if (existing != null && existing.fingerprint().equals(fingerprint)) {
+                return existing;
+              }
+              if (existing != null) {
+                log.info("厂商 {} 配置已变更，重建客户端", id);
+              }
+              return new ProviderClient(fingerprint, createApi(provider), new ConcurrentHashMap<>());
+            });
+    return client.chatModels().computeIfAbsent(modelName, name -> createChatModel(client, name));
+  }
+
+  /**
+   * 移除厂商的客户端及其下所有 ChatModel，下次使用时按最新配置重建。
+   *
+   * @param providerId 厂商 ID
+   */
+  public void evict(Long providerId) {
+    if (providerId != null && clients.remove(providerId) != null) {
+      log.info("厂商 {} 已更新或删除，移除客户端", providerId);
+    }
+  }
+
+  private OpenAiApi createApi(AiProvider provider) {
+    JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    requestFactory.setReadTimeout(httpProperties.getReadTimeout());
+    JdkClientHttpConnector connector = new JdkClientHttpConnector(httpClient);
+    connector.setReadTimeout(httpProperties.getReadTimeout());
+
+    return OpenAiApi.builder()
+        .baseUrl(provider.getBaseUrl())
+        .apiKey(provider.getApiKey())
+        .restClientBuilder(RestClient.builder().requestFactory(requestFactory))
+        .webClientBuilder(WebClient.builder().clientConnector(connector))
+        .build();
+  }
+
+  private ChatModel createChatModel(ProviderClient client, String modelName) {
+    return OpenAiChatModel.builder()
+        .openAiApi(client.api())
+        .defaultOptions(OpenAiChatOptions.builder().model(modelName).build())
+        .build();
+  }
+
+  /** 厂商配置指纹：地址 + 密钥摘要 + 更新时间，任一变化即视为厂商已变更。 */
+  private String fingerprint(AiProvider provider) {
+    String apiKeyHash =
+        Hashing.sha256().hashString(provider.getApiKey(), StandardCharsets.UTF_8).toString();
+    return String.join(
+        "|", provider.getBaseUrl(), apiKeyHash, String.valueOf(provider.getUpdatedTime()));
+  }
+
+  private record ProviderClient(
+      String fingerprint, OpenAiApi api, Map<String, ChatModel> chatModels) {}
+}
@@ -0,0 +1,91 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import com.excalicode.platform.core.config.CacheConfig;
+import com.excalicode.platform.core.enums.AiFunctionType;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * AI 响应缓存：输入完全相同时直接复用上一次的原始响应文本。
+ *
+ * <p>一级缓存为 {@link CacheConfig#AI_RESPONSES_CACHE}（Caffeine，容量与过期由 CacheConfig 统一管理），
+ * 提示词模板或功能映射变更时随 {@code @CacheEvict} 一并清空；可选的 Redis 二级缓存依赖 {@link AiCallKey}
+ * 中的提示词摘要与模型标识失效，并由 TTL 兜底。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class AiResponseCache {
+
+  private final CacheManager cacheManager;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final AiExecutionProperties properties;
+
+  /** 指定功能是否允许使用响应缓存 */
+  boolean isEnabled(AiFunctionType functionType) {
+    AiExecutionProperties.ResponseCache cacheProperties = properties.getResponseCache();
+    return cacheProperties.isEnabled() && cacheProperties.getFunctions().contains(functionType);
+  }
+
+  /** 读取缓存的原始响应，先查本地再查 Redis，Redis 命中时回填本地。 */
+  Optional<String> get(AiCallKey key) {
+    Cache localCache = localCache();
+    String cached = localCache != null ? localCache.get(key.value(), String.class) : null;
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    if (!properties.getResponseCache().isRedisEnabled()) {
+      return Optional.empty();
+    }
+    try {
+      String remote = stringRedisTemplate.opsForValue().get(redisKey(key));
+      if (remote != null && localCache != null) {
+        localCache.put(key.value(), remote);
+      }
+      return Optional.ofNullable(remote);
+    } catch (Exception ex) {
+      log.warn("读取 AI 响应二级缓存失败: {}", ex.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /** 写入缓存 */
+  void put(AiCallKey key, String response) {
+    if (response == null) {
+      return;
+    }
+    Cache localCache = localCache();
+    if (localCache != null) {
+      localCache.put(key.value(), response);
+    }
+    AiExecutionProperties.ResponseCache cacheProperties = properties.getResponseCache();
+    if (!cacheProperties.isRedisEnabled()) {
+      return;
+    }
+    try {
+      Duration ttl = cacheProperties.getRedisTtl();
+      if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+        stringRedisTemplate.opsForValue().set(redisKey(key), response, ttl);
+      } else {
+        stringRedisTemplate.opsForValue().set(redisKey(key), response);
+      }
+    } catch (Exception ex) {
+      log.warn("写入 AI 响应二级缓存失败: {}", ex.getMessage());
+    }
+  }
+
+  private Cache localCache() {
+    return cacheManager.getCache(CacheConfig.AI_RESPONSES_CACHE);
+  }
+
+  private String redisKey(AiCallKey key) {
+    return properties.getResponseCache().getRedisKeyPrefix() + key.value();
+  }
+}
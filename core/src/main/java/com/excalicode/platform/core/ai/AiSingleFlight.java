@@ -0,0 +1,181 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 相同 AI 调用合并（single-flight）：同一时刻 {@link AiCallKey} 相同的调用只向上游发起一次，其余调用方共享结果。
+ *
+ * <p>流式调用共享同一条上游流，后加入的订阅者会先重放已推送的片段再继续接收；所有订阅者都取消后上游随之取消。
+ *
+ * <p>非阻塞调用的上游独立于发起方订阅运行，按等待方计数：任一调用方（包括发起方）取消只退出自己的等待，全部取消后才取消上游；
+ * 有阻塞调用方在等待时上游一定运行到结束。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class AiSingleFlight {
+
+  private final AiExecutionProperties properties;
+
+  private final Map<String, Flight> inFlightCalls = new ConcurrentHashMap<>();
+  private final Map<String, Flux<String>> inFlightStreams = new ConcurrentHashMap<>();
+
+  /** 是否启用调用合并 */
+  boolean isEnabled() {
+    return properties.getSingleFlight().isEnabled();
+  }
+
+  /**
+   * 执行阻塞调用，已有相同调用在途时等待并复用其结果。
+   *
+   * @param key 调用标识
+   * @param upstream 真正发起调用的逻辑
+   * @return 响应文本
+   */
+  String call(AiCallKey key, Supplier<String> upstream) {
+    String flightKey = key.value();
+    Flight created = new Flight();
+    Flight existing = inFlightCalls.putIfAbsent(flightKey, created);
+    if (existing != null && existing.join()) {
+      // 阻塞等待无法取消，不释放计数，保证上游运行到结束
+      log.info("AI 功能 [{}] 合并到在途调用", key.functionCode());
+      return await(existing.result);
+    }
+    if (existing != null) {
+      inFlightCalls.replace(flightKey, existing, created);
+    }
+    try {
+      String result = upstream.get();
+      created.result.complete(result);
+      return result;
+    } catch (RuntimeException | Error ex) {
+      created.result.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlightCalls.remove(flightKey, created);
+    }
+  }
+
+  /**
+   * 执行非阻塞调用，已有相同调用（阻塞或非阻塞）在途时复用其结果。
+   *
+   * @param key 调用标识
+   * @param upstream 真正发起调用的逻辑
+   * @return 响应文本
+   */
+  Mono<String> callAsync(AiCallKey key, Mono<String> upstream) {
+    String flightKey = key.value();
+    return Mono.defer(
+        () -> {
+          Flight existing = inFlightCalls.get(flightKey);
+          if (existing != null && existing.join()) {
+            log.info("AI 功能 [{}] 合并到在途调用", key.functionCode());
+            return await(existing);
+          }
+          Flight created = new Flight();
+          existing = inFlightCalls.putIfAbsent(flightKey, created);
+          if (existing != null && existing.join()) {
+            log.info("AI 功能 [{}] 合并到在途调用", key.functionCode());
+            return await(existing);
+          }
+          if (existing != null) {
+            inFlightCalls.replace(flightKey, existing, created);
+          }
+          // 上游独立订阅，发起方取消不会让合并进来的调用方失败
+          created.upstream =
+              upstream
+                  .doFinally(signal -> inFlightCalls.remove(flightKey, created))
+                  .subscribe(
+                      created.result::complete,
+                      created.result::completeExceptionally,
+                      () -> created.result.complete(null));
+          return await(created);
+        });
+  }
+
+  /**
+   * 执行流式调用，已有相同流在途时加入该流并重放已推送的片段。
+   *
+   * @param key 调用标识
+   * @param upstream 创建上游流的逻辑
+   * @return 共享的文本流
+   */
+  Flux<String> stream(AiCallKey key, Supplier<Flux<String>> upstream) {
+    String flightKey = key.value();
+    return Flux.defer(
+        () -> {
+          AtomicReference<Flux<String>> self = new AtomicReference<>();
+          Flux<String> created =
+              upstream
+                  .get()
+                  .doFinally(signal -> inFlightStreams.remove(flightKey, self.get()))
+                  .replay()
+                  .refCount();
+          self.set(created);
+          Flux<String> existing = inFlightStreams.putIfAbsent(flightKey, created);
+          if (existing != null) {
+            log.info("AI 功能 [{}] 加入在途流式调用", key.functionCode());
+            return existing;
+          }
+          return created;
+        });
+  }
+
+  /** 非阻塞等待在途调用；取消时只释放自己的计数 */
+  private Mono<String> await(Flight flight) {
+    return Mono.fromFuture(flight.result, true).doOnCancel(flight::leave);
+  }
+
+  private String await(CompletableFuture<String> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (ex.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw ex;
+    }
+  }
+
+  /** 在途的非流式调用：共享结果，并统计仍在等待的调用方 */
+  private static final class Flight {
+
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    private volatile Disposable upstream;
+
+    /** 等待方数量，降为 0 后不再接受新的等待方 */
+    private final AtomicInteger waiters = new AtomicInteger(1);
+
+    /** 加入等待，上游已被全部等待方放弃时返回 false */
+    private boolean join() {
+      return waiters.getAndUpdate(n -> n > 0 ? n + 1 : n) > 0;
+    }
+
+    /** 退出等待，最后一个等待方退出时取消上游 */
+    private void leave() {
+      if (waiters.decrementAndGet() == 0 && !result.isDone()) {
+        Disposable subscription = upstream;
+        if (subscription != null) {
+          subscription.dispose();
+        }
+        result.cancel(false);
+      }
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * AI 调用遥测：用 Micrometer 指标代替逐片段日志。
+ *
+ * <p>流式调用记录首字延迟、片段间隔、输出字符数、输出速度与 token 用量（厂商返回时），按功能类型与模型打标签；
+ * 阻塞调用记录输出字符数。完整响应内容默认不记录，开启后按采样率输出到日志。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class AiStreamTelemetry {
+
+  private final AiExecutionProperties properties;
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * 为流式响应挂载遥测，每次订阅独立计时；逐片段记录的计时器在挂载时解析一次，不在每个片段上查找注册表。
+   *
+   * @param config 已选定候选模型的功能配置
+   * @param responses 原始响应流
+   * @return 挂载遥测后的响应流
+   */
+  Flux<ChatResponse> instrument(AiFunctionConfiguration config, Flux<ChatResponse> responses) {
+    Tags tags = tags(config);
+    Timer ttft =
+        Timer.builder("ai.stream.ttft")
+            .description("AI 流式调用首个片段延迟（含排队）")
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    Timer chunkGap =
+        Timer.builder("ai.stream.chunk.gap")
+            .description("AI 流式调用相邻片段间隔")
+            .tags(tags)
+            .register(meterRegistry);
+    return Flux.defer(
+        () -> {
+          StreamState state = new StreamState(System.nanoTime(), ttft, chunkGap);
+          return responses
+              .doOnNext(state::onChunk)
+              .doOnComplete(() -> state.onComplete(tags));
+        });
+  }
+
+  /** 记录阻塞调用的输出字符数 */
+  void recordResponse(AiFunctionConfiguration config, String text) {
+    if (text == null) {
+      return;
+    }
+    DistributionSummary.builder("ai.call.chars")
+        .description("AI 阻塞调用输出字符数")
+        .baseUnit("characters")
+        .tags(tags(config))
+        .register(meterRegistry)
+        .record(text.length());
+  }
+
+  /**
+   * 按采样率记录完整内容，默认关闭。
+   *
+   * @param config 功能配置
+   * @param label 内容说明，如"文本响应"
+   * @param payload 完整内容
+   */
+  void capturePayload(AiFunctionConfiguration config, String label, String payload) {
+    AiExecutionProperties.Telemetry telemetry = properties.getTelemetry();
+    if (!telemetry.isPayloadLoggingEnabled()
+        || ThreadLocalRandom.current().nextDouble() >= telemetry.getPayloadSampleRate()) {
+      return;
+    }
+    log.info("AI 功能 [{}] {}: {}", config.functionType().getDescription(), label, payload);
+  }
+
+  private Tags tags(AiFunctionConfiguration config) {
+    return Tags.of("function", config.functionType().getCode(), "model", config.candidate().key());
+  }
+
+  /** 单次流式调用的计时状态，片段按顺序到达，无需同步 */
+  private final class StreamState {
+
+    private final long startNanos;
+    private final Timer ttft;
+    private final Timer chunkGap;
+    private long firstChunkNanos = -1;
+    private long lastChunkNanos;
+    private long chars;
+    private Usage usage;
+
+    StreamState(long startNanos, Timer ttft, Timer chunkGap) {
+      this.startNanos = startNanos;
+      this.ttft = ttft;
+      this.chunkGap = chunkGap;
+    }
+
+    void onChunk(ChatResponse response) {
+      if (response.getMetadata() != null
+          && response.getMetadata().getUsage() != null
+          && response.getMetadata().getUsage().getTotalTokens() != null
+          && response.getMetadata().getUsage().getTotalTokens() > 0) {
+        usage = response.getMetadata().getUsage();
+      }
+      String text =
+          response.getResult() != null ? response.getResult().getOutput().getText() : null;
+      if (text == null || text.isEmpty()) {
+        return;
+      }
+      long now = System.nanoTime();
+      if (firstChunkNanos < 0) {
+        firstChunkNanos = now;
+        ttft.record(now - startNanos, TimeUnit.NANOSECONDS);
+      } else {
+        chunkGap.record(now - lastChunkNanos, TimeUnit.NANOSECONDS);
+      }
+      lastChunkNanos = now;
+      chars += text.length();
+    }
+
+    void onComplete(Tags tags) {
+      DistributionSummary.builder("ai.stream.chars")
+          .description("AI 流式调用输出字符数")
+          .baseUnit("characters")
+          .tags(tags)
+          .register(meterRegistry)
+          .record(chars);
+      if (firstChunkNanos >= 0 && lastChunkNanos > firstChunkNanos) {
+        double seconds = (lastChunkNanos - firstChunkNanos) / 1_000_000_000.0;
+        DistributionSummary.builder("ai.stream.chars_per_second")
+            .description("AI 流式调用输出速度（首个片段之后）")
+            .baseUnit("characters")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(chars / seconds);
+      }
+      if (usage != null) {
+        DistributionSummary.builder("ai.stream.tokens")
+            .description("AI 流式调用 token 用量（厂商返回时）")
+            .baseUnit("tokens")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(usage.getTotalTokens());
+        if (usage.getCompletionTokens() != null
+            && firstChunkNanos >= 0
+            && lastChunkNanos > firstChunkNanos) {
+          double seconds = (lastChunkNanos - firstChunkNanos) / 1_000_000_000.0;
+          DistributionSummary.builder("ai.stream.tokens_per_second")
+              .description("AI 流式调用输出 token 速度")
+              .baseUnit("tokens")
+              .tags(tags)
+              .register(meterRegistry)
+              .record(usage.getCompletionTokens() / seconds);
+        }
+      }
+    }
+  }
+}
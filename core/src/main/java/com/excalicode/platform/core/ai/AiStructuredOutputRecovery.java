@@ -0,0 +1,222 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.config.AiExecutionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * 结构化输出解析与恢复。
+ *
+ * <p>直接解析失败时依次尝试：
+ *
+ * <ol>
+ *   <li>本地修复（{@link AiJsonRepair}），不产生额外调用；
+ *   <li>输出被截断时，带上已生成的部分请求模型续写，只生成缺失的尾部。
+ * </ol>
+ *
+ * <p>本地修复丢弃了截断的尾部元素时数据不完整，仍会请求续写；续写不可用或失败时返回标记为 {@code truncated} 的结果，由调用方决定
+ * 如何处理，不当作正常结果。
+ *
+ * <p>按功能与阶段记录恢复成功/截断/失败次数（{@code ai.structured.recovery}），以及因此免于整段重新生成的 token 估算值
+ * （{@code ai.structured.tokens_avoided}）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class AiStructuredOutputRecovery {
+
+  private static final String STAGE_LOCAL = "local";
+  private static final String STAGE_CONTINUATION = "continuation";
+  private static final String OUTCOME_SUCCESS = "success";
+  private static final String OUTCOME_TRUNCATED = "truncated";
+  private static final String OUTCOME_FAILURE = "failure";
+
+  private final AiExecutionProperties properties;
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * 解析模型输出，失败时尝试恢复。
+   *
+   * @param config 功能配置
+   * @param output 结构化输出定义
+   * @param raw 原始响应文本
+   * @param continuation 续写调用：入参为已生成的部分，返回模型续写的文本
+   * @return 解析结果及可直接解析的 JSON（可能被标记为截断），恢复失败时为 null
+   */
+  <T> Recovered<T> parse(
+      AiFunctionConfiguration config,
+      AiStructuredOutputRegistry.StructuredOutput<T> output,
+      String raw,
+      UnaryOperator<String> continuation) {
+    LocalAttempt<T> attempt = parseLocally(config, output, raw);
+    if (!attempt.needsContinuation()) {
+      return attempt.recovered();
+    }
+    return preferComplete(
+        parseContinuation(config, output, raw, continuation.apply(raw)), attempt.recovered());
+  }
+
+  /**
+   * {@link #parse} 的非阻塞版本，续写调用同样不占用线程。
+   *
+   * @return 解析结果，恢复失败时为空
+   */
+  <T> Mono<Recovered<T>> parseAsync(
+      AiFunctionConfiguration config,
+      AiStructuredOutputRegistry.StructuredOutput<T> output,
+      String raw,
+      Function<String, Mono<String>> continuation) {
+    LocalAttempt<T> attempt = parseLocally(config, output, raw);
+    if (!attempt.needsContinuation()) {
+      return Mono.justOrEmpty(attempt.recovered());
+    }
+    return continuation
+        .apply(raw)
+        .defaultIfEmpty("")
+        .mapNotNull(
+            tail ->
+                preferComplete(
+                    parseContinuation(config, output, raw, tail), attempt.recovered()));
+  }
+
+  /** 直接解析与本地修复，不产生额外调用 */
+  private <T> LocalAttempt<T> parseLocally(
+      AiFunctionConfiguration config,
+      AiStructuredOutputRegistry.StructuredOutput<T> output,
+      String raw) {
+    T value = tryParse(output, raw);
+    if (value != null) {
+      return new LocalAttempt<>(new Recovered<>(value, raw, false), false);
+    }
+    AiExecutionProperties.StructuredRecovery recovery = properties.getStructuredRecovery();
+    Optional<AiJsonRepair.Result> repaired = AiJsonRepair.repair(raw);
+    String function = config.functionType().getDescription();
+
+    Recovered<T> partial = null;
+    if (recovery.isLocalRepairEnabled() && repaired.isPresent()) {
+      value = tryParse(output, repaired.get().json());
+      if (value != null && !repaired.get().truncated()) {
+        record(config, STAGE_LOCAL, OUTCOME_SUCCESS);
+        recordTokensAvoided(config, STAGE_LOCAL, raw);
+        return new LocalAttempt<>(new Recovered<>(value, repaired.get().json(), false), false);
+      }
+      if (value != null) {
+        // 丢弃了不完整的尾部元素，只作为续写失败时的兜底
+        log.warn("AI 功能 [{}] 输出被截断，本地修复会丢失最后一个不完整的元素", function);
+        partial = new Recovered<>(value, repaired.get().json(), true);
+      }
+      record(config, STAGE_LOCAL, value != null ? OUTCOME_TRUNCATED : OUTCOME_FAILURE);
+    }
+
+    // 根节点已完整闭合仍无法解析，说明结构与 Schema 不符，续写无济于事
+    boolean truncated = repaired.map(AiJsonRepair.Result::truncated).orElse(true);
+    if (!recovery.isContinuationEnabled() || !truncated || !StringUtils.hasText(raw)) {
+      return new LocalAttempt<>(partial, false);
+    }
+    log.warn("AI 功能 [{}] 输出不完整，请求模型续写", function);
+    return new LocalAttempt<>(partial, true);
+  }
+
+  private <T> Recovered<T> parseContinuation(
+      AiFunctionConfiguration config,
+      AiStructuredOutputRegistry.StructuredOutput<T> output,
+      String raw,
+      String tail) {
+    Recovered<T> recovered = null;
+    if (StringUtils.hasText(tail)) {
+      recovered = tryParseWithRepair(output, raw + tail);
+      if (recovered == null || recovered.truncated()) {
+        // 模型没有续写而是重新输出了完整 JSON
+        recovered = preferComplete(tryParseWithRepair(output, tail), recovered);
+      }
+    }
+    if (recovered == null) {
+      record(config, STAGE_CONTINUATION, OUTCOME_FAILURE);
+      return null;
+    }
+    record(config, STAGE_CONTINUATION, recovered.truncated() ? OUTCOME_TRUNCATED : OUTCOME_SUCCESS);
+    if (!recovered.truncated()) {
+      recordTokensAvoided(config, STAGE_CONTINUATION, raw);
+    }
+    return recovered;
+  }
+
+  /** 优先取完整的结果，都不完整时取第一个非空结果 */
+  private static <T> Recovered<T> preferComplete(Recovered<T> first, Recovered<T> second) {
+    if (first != null && (!first.truncated() || second == null)) {
+      return first;
+    }
+    return second != null ? second : first;
+  }
+
+  private <T> Recovered<T> tryParseWithRepair(
+      AiStructuredOutputRegistry.StructuredOutput<T> output, String raw) {
+    T value = tryParse(output, raw);
+    if (value != null) {
+      return new Recovered<>(value, raw, false);
+    }
+    Optional<AiJsonRepair.Result> repaired = AiJsonRepair.repair(raw);
+    value = repaired.map(result -> tryParse(output, result.json())).orElse(null);
+    return value != null
+        ? new Recovered<>(value, repaired.get().json(), repaired.get().truncated())
+        : null;
+  }
+
+  private <T> T tryParse(AiStructuredOutputRegistry.StructuredOutput<T> output, String raw) {
+    try {
+      return output.parse(raw);
+    } catch (RuntimeException ex) {
+      return null;
+    }
+  }
+
+  private void record(AiFunctionConfiguration config, String stage, String outcome) {
+    Counter.builder("ai.structured.recovery")
+        .description("结构化输出恢复次数")
+        .tags(
+            "function",
+            config.functionType().getCode(),
+            "stage",
+            stage,
+            "outcome",
+            outcome)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  /** 恢复成功时，已生成的部分无需重新生成 */
+  private void recordTokensAvoided(AiFunctionConfiguration config, String stage, String raw) {
+    DistributionSummary.builder("ai.structured.tokens_avoided")
+        .description("结构化输出恢复免于重新生成的 token 估算值")
+        .baseUnit("tokens")
+        .tags("function", config.functionType().getCode(), "stage", stage)
+        .register(meterRegistry)
+        .record(AiTokenEstimator.estimate(raw));
+  }
+
+  /**
+   * 恢复后的结果。
+   *
+   * @param value 解析结果
+   * @param json 可直接解析出 value 的 JSON，缓存时保存它而不是原始输出
+   * @param truncated 是否丢弃了截断的尾部元素（结果不完整）
+   */
+  record Recovered<T>(T value, String json, boolean truncated) {}
+
+  /**
+   * 本地解析结果。
+   *
+   * @param recovered 解析结果，失败时为 null
+   * @param needsContinuation 是否需要请求模型续写
+   */
+  private record LocalAttempt<T>(Recovered<T> recovered, boolean needsContinuation) {}
+}
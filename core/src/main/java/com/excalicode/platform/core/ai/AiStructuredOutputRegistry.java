@@ -0,0 +1,99 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.api.cosmic.CosmicProcessesResponse;
+import com.excalicode.platform.core.api.cosmic.FunctionalProcessesResponse;
+import com.excalicode.platform.core.model.chatbi.ChatBiQueryPlan;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.openai.api.ResponseFormat;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * 结构化输出注册表：按响应类型缓存 {@link BeanOutputConverter}、JSON Schema 与 {@link ResponseFormat}。
+ *
+ * <p>常用类型在启动时预先生成，其余类型首次使用时生成。解析时先用预配置的 {@link ObjectReader} 直接读取，失败再交给
+ * BeanOutputConverter 兜底（处理 Markdown 代码块等非纯 JSON 输出）。
+ */
+@Slf4j
+@Component
+class AiStructuredOutputRegistry {
+
+  /** 启动时预先生成的响应类型 */
+  private static final List<Class<?>> PRELOADED_TYPES =
+      List.of(
+          FunctionalProcessesResponse.class, CosmicProcessesResponse.class, ChatBiQueryPlan.class);
+
+  /** 不支持 JSON Schema 的模型统一使用 JSON 模式 */
+  private static final ResponseFormat JSON_OBJECT_FORMAT =
+      new ResponseFormat(ResponseFormat.Type.JSON_OBJECT, null);
+
+  private final ObjectMapper objectMapper;
+  private final Map<Class<?>, StructuredOutput<?>> outputs = new ConcurrentHashMap<>();
+
+  AiStructuredOutputRegistry(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    PRELOADED_TYPES.forEach(this::get);
+    log.info("已预生成结构化输出 {} 个", PRELOADED_TYPES.size());
+  }
+
+  /** 获取响应类型对应的结构化输出定义 */
+  @SuppressWarnings("unchecked")
+  <T> StructuredOutput<T> get(Class<T> type) {
+    return (StructuredOutput<T>) outputs.computeIfAbsent(type, this::create);
+  }
+
+  private <T> StructuredOutput<T> create(Class<T> type) {
+    BeanOutputConverter<T> converter = new BeanOutputConverter<>(type);
+    String jsonSchema = converter.getJsonSchema();
+    return new StructuredOutput<>(
+        converter,
+        jsonSchema,
+        new ResponseFormat(ResponseFormat.Type.JSON_SCHEMA, jsonSchema),
+        objectMapper.readerFor(type).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+  }
+
+  /**
+   * 单个响应类型的结构化输出定义。
+   *
+   * @param converter Spring AI 转换器，用于兜底解析
+   * @param jsonSchema 响应类型的 JSON Schema
+   * @param jsonSchemaFormat 携带 Schema 的响应格式
+   * @param reader 预配置的读取器
+   */
+  record StructuredOutput<T>(
+      BeanOutputConverter<T> converter,
+      String jsonSchema,
+      ResponseFormat jsonSchemaFormat,
+      ObjectReader reader) {
+
+    /** 按模型能力选择响应格式 */
+    ResponseFormat responseFormat(boolean supportsJsonSchema) {
+      return supportsJsonSchema ? jsonSchemaFormat : JSON_OBJECT_FORMAT;
+    }
+
+    /**
+     * 解析模型输出。
+     *
+     * @param raw 原始响应文本
+     * @return 解析结果，无法解析时为 null
+     */
+    T parse(String raw) {
+      String trimmed = raw.trim();
+      if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+        try {
+          return reader.readValue(trimmed);
+        } catch (JacksonException ex) {
+          // 交给 BeanOutputConverter 兜底
+        }
+      }
+      return converter.convert(raw);
+    }
+  }
+}
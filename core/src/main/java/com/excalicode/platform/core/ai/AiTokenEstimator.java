@@ -0,0 +1,42 @@
+package com.excalicode.platform.core.ai;
+
+/**
+ * 本地 token 数估算。
+ *
+ * <p>不依赖具体模型的分词器：汉字等非 ASCII 字符按 1 个 token 计，连续的英文字母与数字按约 4 个字符 1 个 token
+ * 计，标点符号按 1 个 token 计，空白不计。对常见中英文混排与 JSON 文本的估算略偏高，用于预算判断偏保守。
+ */
+public final class AiTokenEstimator {
+
+  private static final int CHARS_PER_WORD_TOKEN = 4;
+
+  private AiTokenEstimator() {}
+
+  /**
+   * 估算文本的 token 数。
+   *
+   * @param text 文本，可为 null
+   * @return 估算的 token 数
+   */
+  public static int estimate(CharSequence text) {
+    if (text == null) {
+      return 0;
+    }
+    int tokens = 0;
+    int wordChars = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c < 0x80 && Character.isLetterOrDigit(c)) {
+        wordChars++;
+        continue;
+      }
+      tokens += (wordChars + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+      wordChars = 0;
+      if (Character.isLowSurrogate(c) || Character.isWhitespace(c)) {
+        continue;
+      }
+      tokens++;
+    }
+    return tokens + (wordChars + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+  }
+}
@@ -0,0 +1,78 @@
+package com.excalicode.platform.core.ai;
+
+import com.excalicode.platform.core.exception.BusinessException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 回放录制结果的 ChatModel，不发起任何网络请求。
+ *
+ * <p>阻塞调用等待录制的总耗时后返回完整响应；流式调用按录制的片段间隔依次推送。耗时均乘以缩放比例，比例为 0 时立即返回。
+ */
+class ReplayChatModel implements ChatModel {
+
+  private final Function<Prompt, AiCallRecording> lookup;
+  private final double timeScale;
+
+  ReplayChatModel(Function<Prompt, AiCallRecording> lookup, double timeScale) {
+    this.lookup = lookup;
+    this.timeScale = Math.max(0, timeScale);
+  }
+
+  @Override
+  public ChatResponse call(Prompt prompt) {
+    AiCallRecording recording = lookup.apply(prompt);
+    Duration latency = scaled(recording.latencyMillis());
+    if (!latency.isZero()) {
+      try {
+        Thread.sleep(latency);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new BusinessException("AI 调用回放被中断", ex);
+      }
+    }
+    return response(recording.response());
+  }
+
+  @Override
+  public Flux<ChatResponse> stream(Prompt prompt) {
+    return Flux.defer(
+        () -> {
+          AiCallRecording recording = lookup.apply(prompt);
+          List<AiCallRecording.Chunk> chunks = recording.chunks();
+          if (chunks == null || chunks.isEmpty()) {
+            // 阻塞调用的录制也可用于流式回放：整段响应作为一个片段
+            chunks =
+                List.of(
+                    new AiCallRecording.Chunk(recording.latencyMillis(), recording.response()));
+          }
+          List<Mono<ChatResponse>> timed = new ArrayList<>(chunks.size());
+          long previousOffset = 0;
+          for (AiCallRecording.Chunk chunk : chunks) {
+            Duration gap = scaled(chunk.offsetMillis() - previousOffset);
+            previousOffset = chunk.offsetMillis();
+            Mono<ChatResponse> next = Mono.fromSupplier(() -> response(chunk.text()));
+            timed.add(gap.isZero() ? next : next.delaySubscription(gap));
+          }
+          return Flux.concat(timed);
+        });
+  }
+
+  private Duration scaled(long millis) {
+    return Duration.ofMillis(Math.round(Math.max(0, millis) * timeScale));
+  }
+
+  private static ChatResponse response(String text) {
+    AssistantMessage message = AssistantMessage.builder().content(text == null ? "" : text).build();
+    return new ChatResponse(List.of(new Generation(message)));
+  }
+}
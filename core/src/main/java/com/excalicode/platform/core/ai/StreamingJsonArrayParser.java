@@ -0,0 +1,164 @@
+package com.excalicode.platform.core.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 增量 JSON 数组解析器：从流式输出中按顺序切出指定字段数组里已经完整的元素。
+ *
+ * <p>只做结构扫描（括号深度、字符串与转义），不做反序列化；每个完整元素以原始 JSON 文本返回，由调用方自行解析。
+ * 字段之前的 Markdown 代码块标记或其他文本会被忽略。非线程安全，每个流使用独立实例。
+ */
+public class StreamingJsonArrayParser {
+
+  private final Pattern arrayStartPattern;
+  private final StringBuilder buffer = new StringBuilder();
+
+  /** 当前扫描位置（buffer 内下标） */
+  private int position;
+
+  /** 当前元素在 buffer 内的起始下标，-1 表示尚未进入元素 */
+  private int elementStart = -1;
+
+  /** 元素内部的嵌套深度 */
+  private int depth;
+
+  private boolean arrayStarted;
+  private boolean arrayClosed;
+  private boolean inString;
+  private boolean escaped;
+
+  /**
+   * @param fieldName 目标数组所在的字段名，例如 {@code processes}
+   */
+  public StreamingJsonArrayParser(String fieldName) {
+    Objects.requireNonNull(fieldName, "fieldName 不能为空");
+    this.arrayStartPattern = Pattern.compile("\"" + Pattern.quote(fieldName) + "\"\\s*:\\s*\\[");
+  }
+
+  /**
+   * 追加一段流式文本，返回本次新完成的数组元素。
+   *
+   * @param chunk 流式片段
+   * @return 新完成的元素 JSON 文本，按出现顺序排列
+   */
+  public List<String> feed(String chunk) {
+    if (chunk == null || chunk.isEmpty() || arrayClosed) {
+      return List.of();
+    }
+    buffer.append(chunk);
+    if (!arrayStarted && !locateArrayStart()) {
+      return List.of();
+    }
+
+    List<String> elements = new ArrayList<>();
+    while (position < buffer.length() && !arrayClosed) {
+      char c = buffer.charAt(position);
+      if (elementStart < 0) {
+        scanBetweenElements(c);
+      } else {
+        scanInsideElement(c, elements);
+      }
+      position++;
+    }
+    compact();
+    return elements;
+  }
+
+  /** 数组是否已经闭合（后续片段会被忽略） */
+  public boolean isCompleted() {
+    return arrayClosed;
+  }
+
+  private boolean locateArrayStart() {
+    Matcher matcher = arrayStartPattern.matcher(buffer);
+    if (!matcher.find()) {
+      return false;
+    }
+    arrayStarted = true;
+    position = matcher.end();
+    return true;
+  }
+
+  private void scanBetweenElements(char c) {
+    if (Character.isWhitespace(c) || c == ',') {
+      return;
+    }
+    if (c == ']') {
+      arrayClosed = true;
+      return;
+    }
+    elementStart = position;
+    depth = 0;
+    if (c == '{' || c == '[') {
+      depth = 1;
+    } else if (c == '"') {
+      inString = true;
+    }
+  }
+
+  private void scanInsideElement(char c, List<String> elements) {
+    if (inString) {
+      if (escaped) {
+        escaped = false;
+      } else if (c == '\\') {
+        escaped = true;
+      } else if (c == '"') {
+        inString = false;
+        if (depth == 0) {
+          emit(elements, position + 1);
+        }
+      }
+      return;
+    }
+    switch (c) {
+      case '"' -> inString = true;
+      case '{', '[' -> depth++;
+      case '}', ']' -> {
+        if (depth == 0) {
+          // 标量元素后紧跟数组结束
+          emit(elements, position);
+          arrayClosed = c == ']';
+          return;
+        }
+        depth--;
+        if (depth == 0) {
+          emit(elements, position + 1);
+        }
+      }
+      case ',' -> {
+        if (depth == 0) {
+          emit(elements, position);
+        }
+      }
+      default -> {
+        // 普通字符无需处理
+      }
+    }
+  }
+
+  private void emit(List<String> elements, int endExclusive) {
+    String element = buffer.substring(elementStart, endExclusive).trim();
+    if (!element.isEmpty()) {
+      elements.add(element);
+    }
+    elementStart = -1;
+    depth = 0;
+  }
+
+  /** 丢弃已经消费的内容，避免长输出时 buffer 无限增长。 */
+  private void compact() {
+    int consumed = elementStart >= 0 ? elementStart : position;
+    if (consumed <= 0) {
+      return;
+    }
+    buffer.delete(0, consumed);
+    position -= consumed;
+    if (elementStart >= 0) {
+      elementStart = 0;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.excalicode.platform.core.api.ai;
 
+import java.util.List;
 import lombok.Data;
 
 /** 设置功能-模型映射请求 */
@@ -9,6 +10,9 @@ public class SetFunctionMappingRequest {
   /** 功能类型代码 */
   private String functionType;
 
-  /** 模型ID */
+  /** 模型ID（只映射单个模型时使用） */
   private Long modelId;
+
+  /** 按优先级排列的候选模型ID，非空时优先于 modelId */
+  private List<Long> modelIds;
 }
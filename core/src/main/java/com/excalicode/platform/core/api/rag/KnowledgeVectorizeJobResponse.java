@@ -0,0 +1,61 @@
+package com.excalicode.platform.core.api.rag;
+
+import com.excalicode.platform.core.model.rag.KnowledgeVectorizeJobStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 知识库批量向量化作业进度 */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KnowledgeVectorizeJobResponse {
+
+  /** 作业ID */
+  private Long jobId;
+
+  /** 作业状态 */
+  private KnowledgeVectorizeJobStatus status;
+
+  /** 状态标签（中文） */
+  private String statusLabel;
+
+  /** 提交时未向量化的条目数 */
+  private Integer totalCount;
+
+  /** 已处理条目数 */
+  private Integer processedCount;
+
+  /** 成功条目数 */
+  private Integer succeededCount;
+
+  /** 失败条目数 */
+  private Integer failedCount;
+
+  /** 进度百分比（0-100） */
+  private Double progressPercent;
+
+  /** 本轮吞吐：每分钟处理的条目数 */
+  private Double entriesPerMinute;
+
+  /** 预计剩余秒数，无法估算时为空 */
+  private Long etaSeconds;
+
+  /** 是否已请求取消 */
+  private Boolean cancelRequested;
+
+  /** 失败原因 */
+  private String errorMessage;
+
+  /** 创建时间 */
+  private LocalDateTime createdTime;
+
+  /** 本轮开始时间 */
+  private LocalDateTime startedTime;
+
+  /** 完成时间 */
+  private LocalDateTime finishedTime;
+}
@@ -0,0 +1,81 @@
+package com.excalicode.platform.core.config;
+
+import com.excalicode.platform.core.enums.AdmissionWorkload;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** 工作负载准入控制配置 */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cosmic.admission")
+public class AdmissionProperties {
+
+  private static final Workload DEFAULT_WORKLOAD = new Workload();
+
+  /** 是否开启准入控制，关闭时所有请求直接放行（仍统计在途数） */
+  private boolean enabled = true;
+
+  /** 返回给客户端的 Retry-After 下限 */
+  private Duration minRetryAfter = Duration.ofSeconds(1);
+
+  /** 返回给客户端的 Retry-After 上限 */
+  private Duration maxRetryAfter = Duration.ofMinutes(5);
+
+  /** 各工作负载的准入参数，未配置的类型使用 {@link Workload} 默认值 */
+  private Map<AdmissionWorkload, Workload> workloads = defaultWorkloads();
+
+  /**
+   * 获取工作负载的准入参数。
+   *
+   * @param workload 工作负载类型
+   * @return 准入参数
+   */
+  public Workload workload(AdmissionWorkload workload) {
+    return workloads.getOrDefault(workload, DEFAULT_WORKLOAD);
+  }
+
+  private static Map<AdmissionWorkload, Workload> defaultWorkloads() {
+    Map<AdmissionWorkload, Workload> defaults = new EnumMap<>(AdmissionWorkload.class);
+    defaults.put(
+        AdmissionWorkload.COSMIC_ANALYSIS,
+        new Workload(16, 32, Duration.ofMinutes(2), Duration.ofSeconds(60)));
+    defaults.put(
+        AdmissionWorkload.COSMIC_TASK,
+        new Workload(8, 100, Duration.ofMinutes(30), Duration.ofMinutes(3)));
+    defaults.put(
+        AdmissionWorkload.VACATION,
+        new Workload(4, 8, Duration.ofMinutes(2), Duration.ofSeconds(30)));
+    return defaults;
+  }
+
+  /** 单个工作负载的准入参数 */
+  @Data
+  public static class Workload {
+
+    /** 同时执行的请求数，超出部分视为排队 */
+    private int maxConcurrency = 8;
+
+    /** 最多排队的请求数，超出后直接拒绝 */
+    private int maxQueued = 16;
+
+    /** 预计排队等待时间上限，超出后直接拒绝 */
+    private Duration maxEstimatedWait = Duration.ofMinutes(2);
+
+    /** 尚无耗时样本时假定的单次执行耗时 */
+    private Duration initialDuration = Duration.ofSeconds(30);
+
+    public Workload() {}
+
+    public Workload(
+        int maxConcurrency, int maxQueued, Duration maxEstimatedWait, Duration initialDuration) {
+      this.maxConcurrency = maxConcurrency;
+      this.maxQueued = maxQueued;
+      this.maxEstimatedWait = maxEstimatedWait;
+      this.initialDuration = initialDuration;
+    }
+  }
+}
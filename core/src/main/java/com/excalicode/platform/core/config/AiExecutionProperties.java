@@ -0,0 +1,239 @@
+package com.excalicode.platform.core.config;
+
+import com.excalicode.platform.core.enums.AiFunctionType;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** AI 功能执行配置 */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cosmic.ai")
+public class AiExecutionProperties {
+
+  /** 响应缓存配置 */
+  private ResponseCache responseCache = new ResponseCache();
+
+  /** 相同调用合并配置 */
+  private SingleFlight singleFlight = new SingleFlight();
+
+  /** 厂商 HTTP 连接配置 */
+  private HttpClient httpClient = new HttpClient();
+
+  /** 厂商并发限制配置 */
+  private Concurrency concurrency = new Concurrency();
+
+  /** 多模型路由配置 */
+  private Routing routing = new Routing();
+
+  /** 调用截止时间配置 */
+  private Deadline deadline = new Deadline();
+
+  /** 调用遥测配置 */
+  private Telemetry telemetry = new Telemetry();
+
+  /** 调用录制与回放配置（压测用） */
+  private Recording recording = new Recording();
+
+  /** 结构化输出解析失败时的恢复配置 */
+  private StructuredRecovery structuredRecovery = new StructuredRecovery();
+
+  /** Prompt token 预算配置 */
+  private PromptBudget promptBudget = new PromptBudget();
+
+  /** 完全相同输入的响应缓存：本地 Caffeine 为一级缓存，可选 Redis 为二级缓存 */
+  @Data
+  public static class ResponseCache {
+
+    /** 是否启用响应缓存 */
+    private boolean enabled = true;
+
+    /** 允许缓存的功能类型（仅适合输入相同即可复用结果的功能） */
+    private Set<AiFunctionType> functions =
+        EnumSet.of(
+            AiFunctionType.COSMIC_FUNCTIONAL,
+            AiFunctionType.COSMIC_PRD,
+            AiFunctionType.COSMIC_SEQUENCE_DIAGRAM);
+
+    /** 是否启用 Redis 二级缓存（多实例共享） */
+    private boolean redisEnabled;
+
+    /** Redis 二级缓存 key 前缀 */
+    private String redisKeyPrefix = "cosmic:ai:resp:";
+
+    /** Redis 二级缓存存活时间 */
+    private Duration redisTtl = Duration.ofHours(24);
+  }
+
+  /** 相同调用合并：同一时刻完全相同的调用只向上游发起一次 */
+  @Data
+  public static class SingleFlight {
+
+    /** 是否启用调用合并 */
+    private boolean enabled = true;
+  }
+
+  /** 所有厂商客户端共享的 HTTP 连接池配置 */
+  @Data
+  public static class HttpClient {
+
+    /** 是否优先使用 HTTP/2（服务端不支持时自动降级为 HTTP/1.1） */
+    private boolean http2Enabled = true;
+
+    /** 建立连接超时时间 */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /** 阻塞调用读取超时时间 */
+    private Duration readTimeout = Duration.ofMinutes(5);
+  }
+
+  /** 按厂商隔离的自适应并发限制：成功时加性增长，429 或超时时按比例收缩 */
+  @Data
+  public static class Concurrency {
+
+    /** 是否启用并发限制 */
+    private boolean enabled = true;
+
+    /** 初始并发许可数 */
+    private int initialLimit = 8;
+
+    /** 最小并发许可数 */
+    private int minLimit = 1;
+
+    /** 最大并发许可数 */
+    private int maxLimit = 32;
+
+    /** 每个厂商最多排队的调用数，超出直接拒绝 */
+    private int maxQueueSize = 100;
+
+    /** 排队等待许可的最长时间 */
+    private Duration maxWait = Duration.ofSeconds(60);
+
+    /** 遇到限流或超时时许可数的收缩比例 */
+    private double backoffRatio = 0.7;
+
+    /** 批量调用保底占用的许可比例，交互调用排队时也不会低于该份额 */
+    private double batchMinShare = 0.25;
+  }
+
+  /** 多候选模型路由：按滚动延迟与错误率选择模型，失败切换，延迟敏感功能可发起对冲请求 */
+  @Data
+  public static class Routing {
+
+    /** 健康统计的时间窗口 */
+    private Duration healthWindow = Duration.ofMinutes(5);
+
+    /** 每个模型保留的最大样本数 */
+    private int healthWindowSize = 200;
+
+    /** 参与健康判断所需的最少样本数 */
+    private int minSamples = 10;
+
+    /** 错误率超过该值视为不健康，排到候选末尾 */
+    private double maxErrorRate = 0.5;
+
+    /** 其他候选 p95 低于首选 p95 的该比例时改用其他候选 */
+    private double latencySwitchRatio = 0.5;
+
+    /** 调用失败时是否切换到下一个候选 */
+    private boolean failoverEnabled = true;
+
+    /** 是否启用对冲请求（需要功能映射了多个候选模型，只有一个候选时不对冲） */
+    private boolean hedgeEnabled = false;
+
+    /** 启用对冲请求的功能类型（仅适合响应较短、对延迟敏感的功能） */
+    private Set<AiFunctionType> hedgeFunctions =
+        EnumSet.of(AiFunctionType.CHAT_BI, AiFunctionType.COSMIC_SEQUENCE_DIAGRAM);
+
+    /** 对冲延迟下限 */
+    private Duration minHedgeDelay = Duration.ofSeconds(1);
+
+    /** 首选模型样本不足时的对冲延迟 */
+    private Duration defaultHedgeDelay = Duration.ofSeconds(10);
+  }
+
+  /** 调用截止时间：超时后取消上游请求，避免无人等待的生成继续消耗 token 与连接 */
+  @Data
+  public static class Deadline {
+
+    /** 默认截止时间（阻塞调用与流式调用的总时长） */
+    private Duration defaultTimeout = Duration.ofMinutes(5);
+
+    /** 按功能单独配置的截止时间 */
+    private Map<AiFunctionType, Duration> functions =
+        new EnumMap<>(
+            Map.of(
+                AiFunctionType.CHAT_BI, Duration.ofSeconds(60),
+                AiFunctionType.COSMIC_SEQUENCE_DIAGRAM, Duration.ofSeconds(90),
+                AiFunctionType.COSMIC_ANALYSIS, Duration.ofMinutes(10)));
+
+    /** 流式调用两个片段之间的最长间隔 */
+    private Duration streamIdleTimeout = Duration.ofSeconds(60);
+  }
+
+  /** 调用遥测：指标始终记录，完整响应内容默认不落日志 */
+  @Data
+  public static class Telemetry {
+
+    /** 是否记录完整响应内容（可能包含业务数据） */
+    private boolean payloadLoggingEnabled = false;
+
+    /** 完整响应内容的采样比例，0~1 */
+    private double payloadSampleRate = 0.01;
+  }
+
+  /** 调用录制与回放：录制模式把真实调用追加写入 JSONL 文件，回放模式用录制结果代替真实模型，用于无网络压测 */
+  @Data
+  public static class Recording {
+
+    /** 运行模式 */
+    private Mode mode = Mode.OFF;
+
+    /** 录制文件路径，每行一次调用 */
+    private String file = "data/ai-recordings.jsonl";
+
+    /** 回放耗时缩放比例：1 为原始耗时，0 为不等待 */
+    private double replayTimeScale = 1.0;
+
+    /** 录制/回放模式 */
+    public enum Mode {
+      OFF,
+      RECORD,
+      REPLAY
+    }
+  }
+
+  /** 结构化输出恢复：先在本地修复 JSON，仍失败且输出被截断时请求模型续写，而不是整段重新生成 */
+  @Data
+  public static class StructuredRecovery {
+
+    /** 是否在本地修复 JSON（去掉代码块与说明文字、丢弃截断的尾部元素并补齐括号） */
+    private boolean localRepairEnabled = true;
+
+    /** 本地修复失败时是否请求模型续写 */
+    private boolean continuationEnabled = true;
+  }
+
+  /** Prompt token 预算：系统提示词与用户消息的估算 token 数之和的上限，超出时告警，强制模式下在本地直接失败 */
+  @Data
+  public static class PromptBudget {
+
+    /** 是否开启预算校验 */
+    private boolean enabled = true;
+
+    /** 超出上限时是否拒绝调用；关闭时只记录日志与指标，本地估算偏保守，按模型真实上下文长度配置上限后再开启 */
+    private boolean enforced = false;
+
+    /** 默认上限 */
+    private int defaultMaxTokens = 32000;
+
+    /** 按功能单独配置的上限 */
+    private Map<AiFunctionType, Integer> functions =
+        new EnumMap<>(Map.of(AiFunctionType.COSMIC_ESTIMATE, 64000));
+  }
+}
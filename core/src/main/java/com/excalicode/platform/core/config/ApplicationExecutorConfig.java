@@ -1,7 +1,13 @@
 package com.excalicode.platform.core.config;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import jakarta.validation.constraints.NotNull;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -15,6 +21,15 @@ import org.springframework.context.annotation.Primary;
 @Configuration
 public class ApplicationExecutorConfig {
 
+  /** COSMIC 分组并行线程池 Bean 名称。 */
+  public static final String COSMIC_ANALYSIS_EXECUTOR = "cosmicAnalysisExecutorService";
+
+  /** AI 调用线程池 Bean 名称。 */
+  public static final String AI_CALL_EXECUTOR = "aiCallExecutorService";
+
+  /** AI 调用线程池线程数（平台线程模式）。 */
+  private static final int AI_CALL_POOL_SIZE = 64;
+
   /** 核心线程数，取 CPU 核心数与 4 的最大值。 */
   private static final int CORE_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
 
@@ -25,9 +40,10 @@ public class ApplicationExecutorConfig {
   private static final int MAX_POOL_SIZE = CORE_POOL_SIZE * 2;
 
   /**
-   * 创建平台统一线程池 {@link ExecutorService}。
+   * 创建平台统一执行器 {@link ExecutorService}。
    *
-   * <p>线程池特点：
+   * <p>虚拟线程模式（默认）：每任务一个虚拟线程，并发数上限为 {@link
+   * ExecutorProperties#getApplicationMaxConcurrency()}。平台线程模式：
    *
    * <ul>
    *   <li>核心线程数：{@link #CORE_POOL_SIZE}
@@ -35,34 +51,161 @@ public class ApplicationExecutorConfig {
    *   <li>队列容量：{@link #QUEUE_CAPACITY}
    *   <li>线程存活时间：非核心线程空闲 60 秒回收
    *   <li>线程工厂：自定义线程名 {@code platform-worker-<序号>}，非守护线程
-   *   <li>拒绝策略：{@link ThreadPoolExecutor.CallerRunsPolicy}
+   *   <li>拒绝策略：{@link ThreadPoolExecutor.AbortPolicy}，不退回到请求线程执行；入口处由准入控制提前拒绝
    * </ul>
    *
-   * @return 平台统一线程池 {@link ExecutorService} Bean
+   * <p>两种模式都以 {@code executor.*}（tag {@code name=application}）暴露活跃数与排队数。
+   *
+   * @param properties 执行器配置
+   * @param meterRegistry 指标注册表
+   * @return 平台统一执行器 {@link ExecutorService} Bean
    */
   @Bean(destroyMethod = "shutdown")
   @Primary
-  ExecutorService applicationExecutorService() {
-    ThreadFactory threadFactory =
-        new ThreadFactory() {
-          private final AtomicInteger counter = new AtomicInteger(0);
+  ExecutorService applicationExecutorService(
+      ExecutorProperties properties, MeterRegistry meterRegistry) {
+    if (properties.getMode() == ExecutorProperties.Mode.VIRTUAL) {
+      return monitor(
+          new BoundedVirtualThreadExecutorService(
+              "platform-vt-", properties.getApplicationMaxConcurrency()),
+          "application",
+          meterRegistry);
+    }
+    return monitor(
+        new ThreadPoolExecutor(
+            CORE_POOL_SIZE,
+            MAX_POOL_SIZE,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            namedThreadFactory("platform-worker-"),
+            new ThreadPoolExecutor.AbortPolicy()),
+        "application",
+        meterRegistry);
+  }
+
+  /**
+   * COSMIC 子过程分组并行专用线程池。
+   *
+   * <p>子过程任务本身运行在平台统一线程池中，分组请求如果再投递回同一个线程池，
+   * 线程全部阻塞在等待分组结果时会互相等死，因此单独隔离。虚拟线程模式下并发数同样为 {@link
+   * CosmicAnalysisProperties#getParallelism()}。平台线程模式下队列满时拒绝提交，不在调用线程内执行，调用方以业务异常失败。
+   *
+   * @param properties COSMIC 子过程生成配置
+   * @param executorProperties 执行器配置
+   * @param meterRegistry 指标注册表
+   * @return 分组并行线程池
+   */
+  @Bean(name = COSMIC_ANALYSIS_EXECUTOR, destroyMethod = "shutdown")
+  ExecutorService cosmicAnalysisExecutorService(
+      CosmicAnalysisProperties properties,
+      ExecutorProperties executorProperties,
+      MeterRegistry meterRegistry) {
+    int parallelism = Math.max(1, properties.getParallelism());
+    if (executorProperties.getMode() == ExecutorProperties.Mode.VIRTUAL) {
+      return monitor(
+          new BoundedVirtualThreadExecutorService("cosmic-analysis-vt-", parallelism),
+          "cosmic-analysis",
+          meterRegistry);
+    }
+    return monitor(
+        new ThreadPoolExecutor(
+            parallelism,
+            parallelism,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            namedThreadFactory("cosmic-analysis-"),
+            new ThreadPoolExecutor.AbortPolicy()),
+        "cosmic-analysis",
+        meterRegistry);
+  }
+
+  /**
+   * AI 调用专用执行器：阻塞调用都在这里执行，以便按截止时间等待并通过中断取消。
+   *
+   * <p>任务在执行器线程上等待 AI 并发许可，上游并发由按厂商的并发限制决定，执行器本身不应成为瓶颈：
+   *
+   * <ul>
+   *   <li>虚拟线程模式（默认）：每个调用一个虚拟线程，不设上限，与应用执行器的并发上限相匹配
+   *   <li>平台线程模式：{@link #AI_CALL_POOL_SIZE} 个线程，超出的调用排队（容量 {@link #QUEUE_CAPACITY}），
+   *       排队时间计入调用方的截止时间；队列也满时拒绝提交，调用方立即以超时错误失败
+   * </ul>
+   *
+   * @param properties 执行器配置
+   * @param meterRegistry 指标注册表
+   * @return AI 调用执行器
+   */
+  @Bean(name = AI_CALL_EXECUTOR, destroyMethod = "shutdown")
+  ExecutorService aiCallExecutorService(
+      ExecutorProperties properties, MeterRegistry meterRegistry) {
+    if (properties.getMode() == ExecutorProperties.Mode.VIRTUAL) {
+      return Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("ai-call-vt-", 1).factory());
+    }
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            AI_CALL_POOL_SIZE,
+            AI_CALL_POOL_SIZE,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            namedThreadFactory("ai-call-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return monitor(executor, "ai-call", meterRegistry);
+  }
+
+  /**
+   * 注册执行器饱和度指标：线程池使用 Micrometer 自带的 {@link ExecutorServiceMetrics}，虚拟线程执行器注册同名的活跃数、排队数与
+   * 并发上限。
+   *
+   * @param executor 执行器
+   * @param name 指标 tag {@code name}
+   * @param meterRegistry 指标注册表
+   * @return 原执行器
+   */
+  static <E extends ExecutorService> E monitor(
+      E executor, String name, MeterRegistry meterRegistry) {
+    if (executor instanceof BoundedVirtualThreadExecutorService bounded) {
+      Tags tags = Tags.of("name", name);
+      Gauge.builder("executor.active", bounded, BoundedVirtualThreadExecutorService::getActiveCount)
+          .description("正在执行的任务数")
+          .tags(tags)
+          .register(meterRegistry);
+      Gauge.builder("executor.queued", bounded, BoundedVirtualThreadExecutorService::getQueuedCount)
+          .description("等待许可的任务数")
+          .tags(tags)
+          .register(meterRegistry);
+      Gauge.builder(
+              "executor.pool.max", bounded, BoundedVirtualThreadExecutorService::getMaxConcurrency)
+          .description("最大并发任务数")
+          .tags(tags)
+          .register(meterRegistry);
+      FunctionCounter.builder(
+              "executor.completed",
+              bounded,
+              BoundedVirtualThreadExecutorService::getCompletedTaskCount)
+          .description("已完成的任务数")
+          .tags(tags)
+          .register(meterRegistry);
+    } else {
+      new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(meterRegistry);
+    }
+    return executor;
+  }
 
-          @Override
-          public Thread newThread(@NotNull Runnable runnable) {
-            Thread thread = new Thread(runnable);
-            thread.setName("platform-worker-" + counter.incrementAndGet());
-            thread.setDaemon(false);
-            return thread;
-          }
-        };
+  private ThreadFactory namedThreadFactory(String prefix) {
+    return new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger(0);
 
-    return new ThreadPoolExecutor(
-        CORE_POOL_SIZE,
-        MAX_POOL_SIZE,
-        60L,
-        TimeUnit.SECONDS,
-        new LinkedBlockingQueue<>(QUEUE_CAPACITY),
-        threadFactory,
-        new ThreadPoolExecutor.CallerRunsPolicy());
+      @Override
+      public Thread newThread(@NotNull Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setName(prefix + counter.incrementAndGet());
+        thread.setDaemon(false);
+        return thread;
+      }
+    };
   }
 }
@@ -0,0 +1,116 @@
+package com.excalicode.platform.core.config;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 信号量限流的虚拟线程执行器。
+ *
+ * <p>每个任务一个虚拟线程，同时运行的任务数由信号量限制；超出的任务以挂起的虚拟线程排队等待许可，提交方不会被阻塞，也不会退回到提交线程执行。
+ * 适用于大部分时间在等待 I/O（模型调用、数据库）的任务。
+ */
+public class BoundedVirtualThreadExecutorService extends AbstractExecutorService {
+
+  private final ExecutorService delegate;
+  private final Semaphore permits;
+  private final int maxConcurrency;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+
+  /**
+   * @param namePrefix 线程名前缀
+   * @param maxConcurrency 最大并发任务数
+   */
+  public BoundedVirtualThreadExecutorService(String namePrefix, int maxConcurrency) {
+    this.maxConcurrency = Math.max(1, maxConcurrency);
+    this.permits = new Semaphore(this.maxConcurrency, true);
+    this.delegate =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory());
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Objects.requireNonNull(command, "command");
+    queued.incrementAndGet();
+    try {
+      delegate.execute(() -> runWithPermit(command));
+    } catch (RejectedExecutionException ex) {
+      queued.decrementAndGet();
+      throw ex;
+    }
+  }
+
+  private void runWithPermit(Runnable command) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException ex) {
+      // 排队期间被取消
+      queued.decrementAndGet();
+      Thread.currentThread().interrupt();
+      return;
+    }
+    queued.decrementAndGet();
+    active.incrementAndGet();
+    try {
+      command.run();
+    } finally {
+      active.decrementAndGet();
+      completed.increment();
+      permits.release();
+    }
+  }
+
+  /** 最大并发任务数 */
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /** 正在执行的任务数 */
+  public int getActiveCount() {
+    return active.get();
+  }
+
+  /** 等待许可的任务数 */
+  public int getQueuedCount() {
+    return queued.get();
+  }
+
+  /** 已完成的任务数 */
+  public long getCompletedTaskCount() {
+    return completed.sum();
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+}
@@ -22,6 +22,10 @@ public class CacheConfig {
 
   public static final String SYS_SETTINGS_CACHE = "sysSettings";
 
+  public static final String AI_RESPONSES_CACHE = "aiResponses";
+
+  public static final String QUERY_EMBEDDINGS_CACHE = "queryEmbeddings";
+
   /** 配置 Caffeine 缓存管理器 */
   @Bean
   @Primary
@@ -31,7 +35,9 @@ public class CacheConfig {
         List.of(
             buildCache(PROMPTS_CACHE, 100, Duration.ofHours(24)),
             buildCache(AI_FUNCTION_CONFIGS_CACHE, 100, Duration.ofHours(1)),
-            buildCache(SYS_SETTINGS_CACHE, 200, Duration.ofHours(6))));
+            buildCache(SYS_SETTINGS_CACHE, 200, Duration.ofHours(6)),
+            buildCache(AI_RESPONSES_CACHE, 500, Duration.ofHours(6)),
+            buildCache(QUERY_EMBEDDINGS_CACHE, 1000, Duration.ofHours(6))));
     return cacheManager;
   }
 
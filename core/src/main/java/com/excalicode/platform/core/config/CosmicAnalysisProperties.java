@@ -0,0 +1,21 @@
+package com.excalicode.platform.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** COSMIC 子过程生成配置 */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cosmic.analysis")
+public class CosmicAnalysisProperties {
+
+  /** 是否启用分组并行生成（功能过程较多时拆分为多次 AI 调用） */
+  private boolean parallelEnabled = true;
+
+  /** 每组包含的功能过程数量上限，功能过程不超过该值时仍走单次调用 */
+  private int batchSize = 8;
+
+  /** 分组并行执行的线程数 */
+  private int parallelism = 4;
+}
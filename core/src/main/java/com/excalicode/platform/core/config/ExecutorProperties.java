@@ -0,0 +1,29 @@
+package com.excalicode.platform.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** 业务线程池配置 */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cosmic.executor")
+public class ExecutorProperties {
+
+  /** 执行模式 */
+  private Mode mode = Mode.VIRTUAL;
+
+  /** 虚拟线程模式下平台统一执行器（休假明细并行、COSMIC 任务派发）的最大并发任务数 */
+  private int applicationMaxConcurrency = 256;
+
+  /** 虚拟线程模式下 MVC 异步请求的最大并发任务数 */
+  private int mvcMaxConcurrency = 512;
+
+  /** 执行模式 */
+  public enum Mode {
+    /** 固定大小的平台线程池，队列满时拒绝任务 */
+    PLATFORM,
+    /** 每任务一个虚拟线程，并发数由信号量限制 */
+    VIRTUAL
+  }
+}
@@ -0,0 +1,31 @@
+package com.excalicode.platform.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** 集群级限流配置：按名称配置的令牌桶，所有节点共享同一个 Redis 桶 */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cosmic.rate-limit")
+public class RateLimitProperties {
+
+  /** 令牌桶在 Redis 中的 key 前缀 */
+  private String keyPrefix = "cosmic:ratelimit:";
+
+  /** 各限流器配置，key 为限流器名称，未配置的名称不限流 */
+  private Map<String, Limit> limits = new HashMap<>();
+
+  /** 单个令牌桶配置 */
+  @Data
+  public static class Limit {
+
+    /** 每分钟补充的令牌数 */
+    private double permitsPerMinute = 60;
+
+    /** 桶容量，即允许的突发请求数 */
+    private int burst = 1;
+  }
+}
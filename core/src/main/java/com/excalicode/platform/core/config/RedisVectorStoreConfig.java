@@ -1,13 +1,21 @@
 package com.excalicode.platform.core.config;
 
+import com.excalicode.platform.core.service.DistributedRateLimiter;
+import com.excalicode.platform.core.service.rag.CachingEmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.redis.RedisVectorStore;
 import org.springframework.ai.vectorstore.redis.autoconfigure.RedisVectorStoreProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.boot.data.redis.autoconfigure.DataRedisProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.util.StringUtils;
 import redis.clients.jedis.DefaultJedisClientConfig;
 import redis.clients.jedis.HostAndPort;
@@ -40,10 +48,36 @@ public class RedisVectorStoreConfig {
     return new JedisPooled(hostAndPort, clientConfig);
   }
 
+  /**
+   * 带内容哈希缓存的 EmbeddingModel，包装自动配置的 OpenAI EmbeddingModel。
+   *
+   * <p>声明为 {@link Primary}：向量库写入与检索、批量向量化预先计算向量都经过缓存，内容未变的片段不再重复调用上游接口。
+   * 检索查询向量另有本地缓存 {@link CacheConfig#QUERY_EMBEDDINGS_CACHE}。
+   */
+  @Bean
+  @Primary
+  CachingEmbeddingModel cachingEmbeddingModel(
+      @Qualifier("openAiEmbeddingModel") EmbeddingModel embeddingModel,
+      StringRedisTemplate stringRedisTemplate,
+      RequirementRagProperties ragProperties,
+      CacheManager cacheManager,
+      DistributedRateLimiter rateLimiter,
+      MeterRegistry meterRegistry,
+      @Value("${spring.ai.openai.embedding.options.model:}") String embeddingModelName) {
+    return new CachingEmbeddingModel(
+        embeddingModel,
+        stringRedisTemplate,
+        cacheManager,
+        rateLimiter,
+        ragProperties,
+        embeddingModelName,
+        meterRegistry);
+  }
+
   @Bean
   VectorStore redisVectorStore(
       JedisPooled jedisPooled,
-      EmbeddingModel embeddingModel,
+      CachingEmbeddingModel embeddingModel,
       RedisVectorStoreProperties properties) {
     RedisVectorStore.Builder builder = RedisVectorStore.builder(jedisPooled, embeddingModel);
     if (StringUtils.hasText(properties.getIndexName())) {
@@ -29,9 +29,6 @@ public class RequirementRagProperties {
   /** Redis 中 chunk id 的 key 前缀 */
   private String redisChunkKeyPrefix;
 
-  /** chunk id 在 Redis 中的存活周期 */
-  private Duration chunkKeyTtl;
-
   /** 是否开启重排 */
   private boolean rerankEnabled;
 
@@ -49,4 +46,28 @@ public class RequirementRagProperties {
 
   /** 重排 HTTP 调用超时 */
   private Duration rerankTimeout;
+
+  /** 是否开启 Embedding 内容哈希缓存 */
+  private boolean embeddingCacheEnabled = true;
+
+  /** Embedding 缓存在 Redis 中的 key 前缀 */
+  private String embeddingCacheKeyPrefix = "cosmic:req:emb:";
+
+  /** Embedding 缓存的存活周期，命中时顺延 */
+  private Duration embeddingCacheTtl = Duration.ofDays(30);
+
+  /** 是否开启检索查询向量的本地缓存（容量与过期见 CacheConfig） */
+  private boolean queryEmbeddingCacheEnabled = true;
+
+  /** 批量向量化时单次 Embedding 请求的最大片段数 */
+  private int embeddingBatchMaxChunks = 32;
+
+  /** 批量向量化时单次 Embedding 请求的最大 token 数（本地估算） */
+  private int embeddingBatchMaxTokens = 16000;
+
+  /** 批量向量化时每轮处理的文档数，每轮向量一次写入向量库、向量化状态一次更新 */
+  private int vectorizeBatchDocuments = 100;
+
+  /** 批量向量化作业每页拆分的并行 worker 数 */
+  private int vectorizeWorkers = 2;
 }
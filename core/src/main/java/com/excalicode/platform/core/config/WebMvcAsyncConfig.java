@@ -1,28 +1,45 @@
 package com.excalicode.platform.core.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /** WebMvc 异步配置类。 */
 @Configuration
+@RequiredArgsConstructor
 public class WebMvcAsyncConfig implements WebMvcConfigurer {
 
   private static final int CORE_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
   private static final int MAX_POOL_SIZE = CORE_POOL_SIZE * 2;
   private static final int QUEUE_CAPACITY = 256;
 
+  private final ExecutorProperties executorProperties;
+  private final MeterRegistry meterRegistry;
+
+  /** 虚拟线程模式下每个异步任务一个虚拟线程，并发数上限为 {@link ExecutorProperties#getMvcMaxConcurrency()} */
   @Bean("mvcTaskExecutor")
   AsyncTaskExecutor mvcTaskExecutor() {
+    if (executorProperties.getMode() == ExecutorProperties.Mode.VIRTUAL) {
+      return new TaskExecutorAdapter(
+          ApplicationExecutorConfig.monitor(
+              new BoundedVirtualThreadExecutorService(
+                  "mvc-async-vt-", executorProperties.getMvcMaxConcurrency()),
+              "mvc",
+              meterRegistry));
+    }
     ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
     executor.setCorePoolSize(CORE_POOL_SIZE);
     executor.setMaxPoolSize(MAX_POOL_SIZE);
     executor.setQueueCapacity(QUEUE_CAPACITY);
     executor.setThreadNamePrefix("mvc-async-");
     executor.initialize();
+    ApplicationExecutorConfig.monitor(executor.getThreadPoolExecutor(), "mvc", meterRegistry);
     return executor;
   }
 
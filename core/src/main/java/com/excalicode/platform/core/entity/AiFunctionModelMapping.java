@@ -5,7 +5,7 @@ import com.baomidou.mybatisplus.annotation.TableField;
 import java.time.LocalDateTime;
 import lombok.Data;
 
-/** AI 功能-模型映射实体 存储功能类型与 AI 模型的绑定关系，实现功能级别的模型切换 */
+/** AI 功能-模型映射实体 存储功能类型与 AI 模型的绑定关系（一个功能可按顺序绑定多个候选模型），实现功能级别的模型切换 */
 @Data
 public class AiFunctionModelMapping {
 
@@ -18,6 +18,9 @@ public class AiFunctionModelMapping {
   /** 模型ID, 外键关联 ai_model 表 */
   private Long modelId;
 
+  /** 候选顺序, 同一功能可映射多个模型, 越小越优先 */
+  private Integer sortOrder;
+
   /** 创建时间, 插入时自动填充 */
   @TableField(fill = FieldFill.INSERT)
   private LocalDateTime createdTime;
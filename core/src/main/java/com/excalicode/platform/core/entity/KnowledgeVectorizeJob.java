@@ -0,0 +1,54 @@
+package com.excalicode.platform.core.entity;
+
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/** 知识库批量向量化作业持久化实体，按 documentId 游标分页推进并记录检查点 */
+@Data
+public class KnowledgeVectorizeJob {
+
+  /** 主键ID */
+  private Long id;
+
+  /** 作业状态：PENDING、RUNNING、SUCCEEDED、FAILED、CANCELLED */
+  private String status;
+
+  /** 提交时未向量化的条目数 */
+  private Integer totalCount;
+
+  /** 已处理条目数（成功与失败之和） */
+  private Integer processedCount;
+
+  /** 向量化成功条目数 */
+  private Integer succeededCount;
+
+  /** 向量化失败条目数 */
+  private Integer failedCount;
+
+  /** 检查点：已处理的最后一个 documentId，恢复时从其后继续 */
+  private String lastDocumentId;
+
+  /** 是否已请求取消: 0-否, 1-是 */
+  private Integer cancelRequested;
+
+  /** 错误原因（失败时填充） */
+  private String errorMessage;
+
+  /** 本轮开始执行时间，用于计算吞吐 */
+  private LocalDateTime startedTime;
+
+  /** 本轮开始时已处理的条目数，用于计算吞吐 */
+  private Integer startedProcessedCount;
+
+  /** 完成时间 */
+  private LocalDateTime finishedTime;
+
+  /** 创建时间 */
+  private LocalDateTime createdTime;
+
+  /** 更新时间 */
+  private LocalDateTime updatedTime;
+
+  /** 逻辑删除标记 */
+  private Integer deleted;
+}
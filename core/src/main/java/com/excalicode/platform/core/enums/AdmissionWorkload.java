@@ -0,0 +1,24 @@
+package com.excalicode.platform.core.enums;
+
+/** 准入控制的工作负载类型：各自独立统计在途数与预计等待时间。 */
+public enum AdmissionWorkload {
+  /** 页面同步生成 COSMIC 子过程（含流式） */
+  COSMIC_ANALYSIS("cosmic-analysis"),
+
+  /** 后台 COSMIC 子过程任务，从提交到执行结束都计入在途 */
+  COSMIC_TASK("cosmic-task"),
+
+  /** 休假 Excel 一站式解析 */
+  VACATION("vacation");
+
+  private final String code;
+
+  AdmissionWorkload(String code) {
+    this.code = code;
+  }
+
+  /** 指标 tag 使用的编码 */
+  public String getCode() {
+    return code;
+  }
+}
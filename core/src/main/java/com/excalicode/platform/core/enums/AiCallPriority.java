@@ -0,0 +1,10 @@
+package com.excalicode.platform.core.enums;
+
+/** AI 调用优先级：决定同一厂商许可紧张时的排队顺序。 */
+public enum AiCallPriority {
+  /** 交互调用：用户在页面上实时等待结果，优先获取许可 */
+  INTERACTIVE,
+
+  /** 批量调用：后台任务或批量导入，保底份额内执行，其余让位于交互调用 */
+  BATCH
+}
@@ -12,20 +12,23 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public enum AiFunctionType {
-  COSMIC_PM("COSMIC_PM", "资深产品经理"),
-  COSMIC_FUNCTIONAL("COSMIC_FUNCTIONAL", "功能过程拆解"),
-  COSMIC_ANALYSIS("COSMIC_ANALYSIS", "COSMIC 拆分"),
-  COSMIC_PRD("COSMIC_PRD", "PRD 文档生成"),
-  COSMIC_SEQUENCE_DIAGRAM("COSMIC_SEQUENCE_DIAGRAM", "时序图生成"),
-  COSMIC_ESTIMATE("COSMIC_ESTIMATE", "锐评大师"),
+  COSMIC_PM("COSMIC_PM", "资深产品经理", AiCallPriority.INTERACTIVE),
+  COSMIC_FUNCTIONAL("COSMIC_FUNCTIONAL", "功能过程拆解", AiCallPriority.INTERACTIVE),
+  COSMIC_ANALYSIS("COSMIC_ANALYSIS", "COSMIC 拆分", AiCallPriority.INTERACTIVE),
+  COSMIC_PRD("COSMIC_PRD", "PRD 文档生成", AiCallPriority.INTERACTIVE),
+  COSMIC_SEQUENCE_DIAGRAM("COSMIC_SEQUENCE_DIAGRAM", "时序图生成", AiCallPriority.INTERACTIVE),
+  COSMIC_ESTIMATE("COSMIC_ESTIMATE", "锐评大师", AiCallPriority.INTERACTIVE),
 
-  QINSHI_ATTENDANCE("QINSHI_ATTENDANCE", "勤时考勤数据处理"),
+  QINSHI_ATTENDANCE("QINSHI_ATTENDANCE", "勤时考勤数据处理", AiCallPriority.BATCH),
 
-  CHAT_BI("CHAT_BI", "ChatBI");
+  CHAT_BI("CHAT_BI", "ChatBI", AiCallPriority.INTERACTIVE);
 
   private final String code;
   private final String description;
 
+  /** 默认调用优先级，调用方可通过 {@code AiCallContext} 覆盖 */
+  private final AiCallPriority defaultPriority;
+
   private static final Map<String, AiFunctionType> CODE_MAP =
       Arrays.stream(values())
           .collect(Collectors.toMap(AiFunctionType::getCode, Function.identity()));
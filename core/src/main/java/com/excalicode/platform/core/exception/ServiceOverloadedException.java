@@ -0,0 +1,25 @@
+package com.excalicode.platform.core.exception;
+
+import java.time.Duration;
+
+/** 服务繁忙异常：准入控制拒绝新请求时抛出，携带建议的重试等待时间。 */
+public class ServiceOverloadedException extends BusinessException {
+
+  private final Duration retryAfter;
+
+  /**
+   * 构造函数。
+   *
+   * @param message 异常提示信息
+   * @param retryAfter 建议的重试等待时间
+   */
+  public ServiceOverloadedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  /** 建议的重试等待时间 */
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
@@ -2,8 +2,29 @@ package com.excalicode.platform.core.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.excalicode.platform.core.entity.AiFunctionModelMapping;
+import java.util.Collection;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 /** AI 功能-模型映射 Mapper 接口 */
 @Mapper
-public interface AiFunctionModelMappingMapper extends BaseMapper<AiFunctionModelMapping> {}
+public interface AiFunctionModelMappingMapper extends BaseMapper<AiFunctionModelMapping> {
+
+  /**
+   * 物理删除映射，绕过逻辑删除。
+   *
+   * <p>唯一索引包含 deleted 列，同一功能-模型第二次逻辑删除会与已删除的记录冲突，映射不保留删除历史。
+   *
+   * @param ids 映射 ID
+   * @return 删除行数
+   */
+  @Delete(
+      """
+      <script>
+      DELETE FROM ai_function_model_mapping WHERE id IN
+      <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+      </script>
+      """)
+  int deletePhysicallyByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package com.excalicode.platform.core.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.excalicode.platform.core.entity.KnowledgeVectorizeJob;
+import org.apache.ibatis.annotations.Mapper;
+
+/** 知识库批量向量化作业 Mapper */
+@Mapper
+public interface KnowledgeVectorizeJobMapper extends BaseMapper<KnowledgeVectorizeJob> {}
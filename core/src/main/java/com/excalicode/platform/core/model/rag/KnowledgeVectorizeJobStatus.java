@@ -0,0 +1,31 @@
+package com.excalicode.platform.core.model.rag;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** 知识库批量向量化作业状态 */
+@Getter
+@AllArgsConstructor
+public enum KnowledgeVectorizeJobStatus {
+  PENDING("待执行"),
+  RUNNING("执行中"),
+  SUCCEEDED("已完成"),
+  FAILED("失败"),
+  CANCELLED("已取消");
+
+  private final String label;
+
+  /** 是否仍需执行（启动时恢复、重复提交时复用） */
+  public boolean isActive() {
+    return this == PENDING || this == RUNNING;
+  }
+
+  public static KnowledgeVectorizeJobStatus fromValue(String value) {
+    for (KnowledgeVectorizeJobStatus status : values()) {
+      if (status.name().equalsIgnoreCase(value)) {
+        return status;
+      }
+    }
+    throw new IllegalArgumentException("未知的向量化作业状态: " + value);
+  }
+}
@@ -35,9 +35,10 @@ import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /** ChatBI 核心服务（任务域）。 */
 @Slf4j
@@ -53,9 +54,12 @@ public class ChatBiService {
   private final JdbcTemplate jdbcTemplate;
   private final ObjectMapper objectMapper;
 
-  /** 提问并返回 ChatBI 结果。 */
-  @Transactional
-  public ChatBiAskResponse ask(ChatBiAskRequest request, SysUser user) {
+  /**
+   * 提问并返回 ChatBI 结果。
+   *
+   * <p>等待模型生成查询计划期间不占用线程；拿到计划后的校验、查询与落库切换到 boundedElastic 线程执行。
+   */
+  public Mono<ChatBiAskResponse> ask(ChatBiAskRequest request, SysUser user) {
     Objects.requireNonNull(request, "request");
     SysUser currentUser = Objects.requireNonNull(user, "user");
 
@@ -64,111 +68,121 @@ public class ChatBiService {
     ChatBiSession session = ensureSessionAccessible(request.getSessionId(), currentUser, question);
     persistMessage(session.getId(), "USER", question, null, null, null, null);
 
-    ChatBiAskResponse response = new ChatBiAskResponse();
-    response.setSessionId(session.getId());
-
-    String planJson = null;
-    String executedSql = null;
-
-    try {
-      log.info(
-          "ChatBI 提问: username={}, role={}, sessionId={}, question={}",
-          currentUser.getUsername(),
-          currentUser.getRole(),
-          session.getId(),
-          question);
-
-      String roleHint = "ADMIN".equalsIgnoreCase(currentUser.getRole()) ? "ADMIN" : "USER";
-      String roleInstruction =
-          "当前登录用户信息：username="
-              + currentUser.getUsername()
-              + ", role="
-              + roleHint
-              + "。请严格按权限规则生成计划。";
-
-      ChatBiQueryPlan plan =
-          aiFunctionExecutor.executeStructured(
-              AiFunctionType.CHAT_BI,
-              List.of(new SystemMessage(roleInstruction), new UserMessage(question)),
-              ChatBiQueryPlan.class);
-
-      ChatBiPermissionGuard.GuardResult guard =
-          ChatBiPermissionGuard.applyAndMaybeClarify(currentUser, question, plan);
-
-      ChatBiQueryPlan guardedPlan = guard.plan();
-      planJson = safeToJson(guardedPlan);
-
-      if (!guard.allowExecute() || Boolean.TRUE.equals(guardedPlan.getNeedClarification())) {
-        String clarifying =
-            StringUtils.hasText(guardedPlan.getClarifyingQuestion())
-                ? guardedPlan.getClarifyingQuestion()
-                : "需要进一步澄清你的问题";
-
-        response.setNeedClarification(true);
-        response.setClarifyingQuestion(clarifying);
-        response.setAnswer(clarifying);
-        attachDebugIfAdmin(response, currentUser, null, planJson);
-
-        persistMessage(session.getId(), "ASSISTANT", clarifying, planJson, null, null, null);
-        touchSession(session);
-        return response;
-      }
+    AskContext context = new AskContext(session, currentUser, question);
+
+    log.info(
+        "ChatBI 提问: username={}, role={}, sessionId={}, question={}",
+        currentUser.getUsername(),
+        currentUser.getRole(),
+        session.getId(),
+        question);
+
+    String roleHint = "ADMIN".equalsIgnoreCase(currentUser.getRole()) ? "ADMIN" : "USER";
+    String roleInstruction =
+        "当前登录用户信息：username="
+            + currentUser.getUsername()
+            + ", role="
+            + roleHint
+            + "。请严格按权限规则生成计划。";
+
+    return aiFunctionExecutor
+        .executeStructuredAsync(
+            AiFunctionType.CHAT_BI,
+            List.of(new SystemMessage(roleInstruction), new UserMessage(question)),
+            ChatBiQueryPlan.class)
+        .publishOn(Schedulers.boundedElastic())
+        .map(plan -> answer(context, plan))
+        .onErrorResume(
+            BusinessException.class, ex -> Mono.just(answerBusinessFailure(context, ex)))
+        .onErrorResume(ex -> Mono.just(answerSystemFailure(context, ex)));
+  }
 
-      ChatBiPlanValidator.ValidatedPlan validated =
-          ChatBiPlanValidator.validateAndNormalize(guardedPlan);
-      ChatBiBuiltQuery built = TaskBiSqlBuilder.build(validated);
-      executedSql = built.sql();
-      ChatBiSqlSafetyGuard.assertSafeSelect(executedSql);
+  private ChatBiAskResponse answer(AskContext context, ChatBiQueryPlan plan) {
+    ChatBiAskResponse response = context.response;
+    ChatBiPermissionGuard.GuardResult guard =
+        ChatBiPermissionGuard.applyAndMaybeClarify(context.user, context.question, plan);
 
-      ChatBiQueryResult result = executeQuery(built);
-      ChatBiQueryResultResponse resultResponse = toResultResponse(result);
+    ChatBiQueryPlan guardedPlan = guard.plan();
+    context.planJson = safeToJson(guardedPlan);
 
-      String answer = buildAnswerText(result);
+    if (!guard.allowExecute() || Boolean.TRUE.equals(guardedPlan.getNeedClarification())) {
+      String clarifying =
+          StringUtils.hasText(guardedPlan.getClarifyingQuestion())
+              ? guardedPlan.getClarifyingQuestion()
+              : "需要进一步澄清你的问题";
 
-      response.setNeedClarification(false);
-      response.setAnswer(answer);
-      response.setResult(resultResponse);
-      attachDebugIfAdmin(response, currentUser, executedSql, planJson);
+      response.setNeedClarification(true);
+      response.setClarifyingQuestion(clarifying);
+      response.setAnswer(clarifying);
+      attachDebugIfAdmin(response, context.user, null, context.planJson);
 
       persistMessage(
-          session.getId(),
-          "ASSISTANT",
-          answer,
-          planJson,
-          executedSql,
-          safeToJson(resultResponse),
-          null);
-      touchSession(session);
+          context.session.getId(), "ASSISTANT", clarifying, context.planJson, null, null, null);
+      touchSession(context.session);
       return response;
-    } catch (BusinessException ex) {
-      if (StringUtils.hasText(executedSql)) {
-        log.warn("ChatBI 执行失败: {}, sql={}", ex.getMessage(), executedSql);
-      } else {
-        log.warn("ChatBI 执行失败: {}", ex.getMessage());
-      }
-      response.setNeedClarification(false);
-      response.setAnswer(ex.getMessage());
-      attachDebugIfAdmin(response, currentUser, executedSql, planJson);
+    }
 
-      persistMessage(
-          session.getId(),
-          "ASSISTANT",
-          ex.getMessage(),
-          planJson,
-          executedSql,
-          null,
-          ex.getMessage());
-      touchSession(session);
-      return response;
-    } catch (Exception ex) {
-      log.error("ChatBI 执行异常", ex);
-      response.setNeedClarification(false);
-      response.setAnswer("系统繁忙，请稍后重试");
+    ChatBiPlanValidator.ValidatedPlan validated =
+        ChatBiPlanValidator.validateAndNormalize(guardedPlan);
+    ChatBiBuiltQuery built = TaskBiSqlBuilder.build(validated);
+    context.executedSql = built.sql();
+    ChatBiSqlSafetyGuard.assertSafeSelect(context.executedSql);
+
+    ChatBiQueryResult result = executeQuery(built);
+    ChatBiQueryResultResponse resultResponse = toResultResponse(result);
+
+    String answer = buildAnswerText(result);
+
+    response.setNeedClarification(false);
+    response.setAnswer(answer);
+    response.setResult(resultResponse);
+    attachDebugIfAdmin(response, context.user, context.executedSql, context.planJson);
+
+    persistMessage(
+        context.session.getId(),
+        "ASSISTANT",
+        answer,
+        context.planJson,
+        context.executedSql,
+        safeToJson(resultResponse),
+        null);
+    touchSession(context.session);
+    return response;
+  }
 
-      persistMessage(session.getId(), "ASSISTANT", "系统繁忙，请稍后重试", null, null, null, ex.getMessage());
-      touchSession(session);
-      return response;
+  private ChatBiAskResponse answerBusinessFailure(AskContext context, BusinessException ex) {
+    if (StringUtils.hasText(context.executedSql)) {
+      log.warn("ChatBI 执行失败: {}, sql={}", ex.getMessage(), context.executedSql);
+    } else {
+      log.warn("ChatBI 执行失败: {}", ex.getMessage());
     }
+    ChatBiAskResponse response = context.response;
+    response.setNeedClarification(false);
+    response.setAnswer(ex.getMessage());
+    attachDebugIfAdmin(response, context.user, context.executedSql, context.planJson);
+
+    persistMessage(
+        context.session.getId(),
+        "ASSISTANT",
+        ex.getMessage(),
+        context.planJson,
+        context.executedSql,
+        null,
+        ex.getMessage());
+    touchSession(context.session);
+    return response;
+  }
+
+  private ChatBiAskResponse answerSystemFailure(AskContext context, Throwable ex) {
+    log.error("ChatBI 执行异常", ex);
+    ChatBiAskResponse response = context.response;
+    response.setNeedClarification(false);
+    response.setAnswer("系统繁忙，请稍后重试");
+
+    persistMessage(
+        context.session.getId(), "ASSISTANT", "系统繁忙，请稍后重试", null, null, null, ex.getMessage());
+    touchSession(context.session);
+    return response;
   }
 
   /** 获取当前用户最近会话列表。 */
@@ -403,4 +417,22 @@ public class ChatBiService {
     }
     return q.substring(0, 40) + "…";
   }
+
+  /** 单次提问在各处理阶段之间传递的状态 */
+  private static final class AskContext {
+
+    private final ChatBiSession session;
+    private final SysUser user;
+    private final String question;
+    private final ChatBiAskResponse response = new ChatBiAskResponse();
+    private String planJson;
+    private String executedSql;
+
+    private AskContext(ChatBiSession session, SysUser user, String question) {
+      this.session = session;
+      this.user = user;
+      this.question = question;
+      response.setSessionId(session.getId());
+    }
+  }
 }
@@ -1,12 +1,15 @@
 package com.excalicode.platform.core.service;
 
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.excalicode.platform.core.ai.AiCallContext;
 import com.excalicode.platform.core.api.cosmic.AnalysisResponse;
 import com.excalicode.platform.core.api.cosmic.CosmicAnalysisRequest;
 import com.excalicode.platform.core.api.cosmic.CosmicAnalysisTaskResponse;
 import com.excalicode.platform.core.api.cosmic.FunctionalProcess;
 import com.excalicode.platform.core.entity.CosmicAnalysisTask;
 import com.excalicode.platform.core.entity.SysUser;
+import com.excalicode.platform.core.enums.AdmissionWorkload;
+import com.excalicode.platform.core.enums.AiCallPriority;
 import com.excalicode.platform.core.exception.BusinessException;
 import com.excalicode.platform.core.mapper.CosmicAnalysisTaskMapper;
 import com.excalicode.platform.core.model.cosmic.CosmicAnalysisTaskStatus;
@@ -20,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -38,8 +42,9 @@ public class CosmicAnalysisTaskService {
   private final CosmicService cosmicService;
   private final ObjectMapper objectMapper;
   private final ExecutorService executorService;
+  private final WorkloadAdmissionService admissionService;
 
-  /** 启动时重新派发未完成任务，避免重启后丢失执行 */
+  /** 启动时重新派发未完成任务，避免重启后丢失执行；已受理的任务不再经过准入判断 */
   @PostConstruct
   public void resumePendingTasks() {
     List<String> targetStatuses =
@@ -52,10 +57,17 @@ public class CosmicAnalysisTaskService {
     if (CollectionUtils.isEmpty(pendingTasks)) {
       return;
     }
-    pendingTasks.forEach(task -> dispatchAsync(task.getId()));
+    for (CosmicAnalysisTask task : pendingTasks) {
+      try {
+        dispatchAsync(
+            task.getId(), admissionService.admitUnconditionally(AdmissionWorkload.COSMIC_TASK));
+      } catch (RejectedExecutionException ex) {
+        log.warn("恢复子过程任务时执行器已满, taskId={}", task.getId());
+      }
+    }
   }
 
-  /** 提交子过程生成任务 */
+  /** 提交子过程生成任务：排队任务过多时直接拒绝，不再入库 */
   public CosmicAnalysisTaskResponse submitTask(CosmicAnalysisRequest request, SysUser user) {
     if (user == null) {
       throw new BusinessException("未检测到登录用户，无法提交任务");
@@ -63,6 +75,7 @@ public class CosmicAnalysisTaskService {
     CosmicAnalysisRequest sanitized = sanitizeRequest(request);
     String payload = serializePayload(sanitized);
 
+    WorkloadAdmissionService.Permit permit = admissionService.admit(AdmissionWorkload.COSMIC_TASK);
     CosmicAnalysisTask task = new CosmicAnalysisTask();
     task.setUserId(user.getId());
     task.setUsername(user.getUsername());
@@ -70,9 +83,14 @@ public class CosmicAnalysisTaskService {
     task.setRequestPayload(payload);
     task.setErrorMessage(null);
     task.setDeleted(0);
-    cosmicAnalysisTaskMapper.insert(task);
+    try {
+      cosmicAnalysisTaskMapper.insert(task);
+    } catch (RuntimeException ex) {
+      permit.close();
+      throw ex;
+    }
 
-    dispatchAsync(task.getId());
+    dispatchAsync(task.getId(), permit);
     return buildResponse(task, false);
   }
 
@@ -111,11 +129,25 @@ public class CosmicAnalysisTaskService {
     return buildResponse(task, true);
   }
 
-  private void dispatchAsync(Long taskId) {
+  /** 派发任务，任务执行结束后释放准入许可；执行器拒绝时任务标记为失败并向上抛出 */
+  private void dispatchAsync(Long taskId, WorkloadAdmissionService.Permit permit) {
     if (taskId == null) {
+      permit.close();
       return;
     }
-    executorService.submit(() -> processTask(taskId));
+    try {
+      // 后台任务按批量优先级调用 AI，不挤占页面实时请求
+      executorService.submit(
+          () -> {
+            try (permit) {
+              AiCallContext.runWithPriority(AiCallPriority.BATCH, () -> processTask(taskId));
+            }
+          });
+    } catch (RejectedExecutionException ex) {
+      permit.close();
+      saveFailure(taskId, "执行队列已满，任务未能派发，请稍后重新提交");
+      throw ex;
+    }
   }
 
   private void processTask(Long taskId) {
@@ -140,7 +172,7 @@ public class CosmicAnalysisTaskService {
     }
 
     try {
-      AnalysisResponse result = cosmicService.analyzeRequirement(analysisRequest);
+      AnalysisResponse result = cosmicService.analyze(analysisRequest);
       saveSuccess(taskId, result);
     } catch (Exception ex) {
       log.error("子过程任务执行失败, taskId={}", taskId, ex);
@@ -1,6 +1,10 @@
 package com.excalicode.platform.core.service;
 
+import com.excalicode.platform.core.ai.AiCallContext;
 import com.excalicode.platform.core.ai.AiFunctionExecutor;
+import com.excalicode.platform.core.ai.AiPromptBudget;
+import com.excalicode.platform.core.ai.AiTokenEstimator;
+import com.excalicode.platform.core.ai.StreamingJsonArrayParser;
 import com.excalicode.platform.core.api.cosmic.AnalysisResponse;
 import com.excalicode.platform.core.api.cosmic.CosmicAnalysisRequest;
 import com.excalicode.platform.core.api.cosmic.CosmicProcessesResponse;
@@ -13,17 +17,27 @@ import com.excalicode.platform.core.api.cosmic.ProcessBreakdownResponse;
 import com.excalicode.platform.core.api.cosmic.ProcessTableExportRequest;
 import com.excalicode.platform.core.api.cosmic.RequirementEnhanceRequest;
 import com.excalicode.platform.core.api.cosmic.SequenceDiagramRequest;
+import com.excalicode.platform.core.config.ApplicationExecutorConfig;
+import com.excalicode.platform.core.config.CosmicAnalysisProperties;
+import com.excalicode.platform.core.enums.AdmissionWorkload;
 import com.excalicode.platform.core.enums.AiFunctionType;
 import com.excalicode.platform.core.exception.BusinessException;
 import com.excalicode.platform.core.model.cosmic.CosmicProcess;
 import com.excalicode.platform.core.model.cosmic.CosmicProcessStep;
+import com.excalicode.platform.core.service.cosmic.CosmicProcessSanitizer;
+import com.google.common.collect.Lists;
 import tools.jackson.core.JacksonException;
 import tools.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,11 +47,13 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /** COSMIC 业务编排服务 */
 @Slf4j
@@ -53,13 +69,21 @@ public class CosmicService {
   private static final int COLUMN_DATA_MOVEMENT = 6;
   private static final int COLUMN_DATA_GROUP = 7;
   private static final int COLUMN_DATA_ATTRIBUTES = 8;
-  private static final Set<String> SUPPORTED_DATA_MOVEMENT_TYPES = Set.of("E", "R", "W", "X");
+
+  /** 背景资料标题与代码块标记占用的 token 数 */
+  private static final int RAG_CONTEXT_WRAPPER_TOKENS = 16;
 
   private final AiFunctionExecutor aiFunctionExecutor;
   private final CosmicExcelService cosmicExcelService;
   private final CosmicPrdService cosmicPrdService;
   private final RequirementKnowledgeService requirementKnowledgeService;
   private final ObjectMapper objectMapper;
+  private final CosmicAnalysisProperties cosmicAnalysisProperties;
+  private final AiPromptBudget promptBudget;
+  private final WorkloadAdmissionService admissionService;
+
+  @Qualifier(ApplicationExecutorConfig.COSMIC_ANALYSIS_EXECUTOR)
+  private final ExecutorService cosmicAnalysisExecutorService;
 
   /**
    * 流式返回需求扩写结果
@@ -74,7 +98,13 @@ public class CosmicService {
     }
     String normalized = originalRequirement.trim();
     Integer expectedProcessCount = request.getExpectedProcessCount();
-    String ragContext = requirementKnowledgeService.buildContext(normalized);
+    // 背景资料只使用原始需求之外剩余的预算
+    int contextBudget =
+        promptBudget.remaining(AiFunctionType.COSMIC_PM)
+            - AiTokenEstimator.estimate(
+                buildRequirementEnhancePrompt(normalized, null, expectedProcessCount))
+            - RAG_CONTEXT_WRAPPER_TOKENS;
+    String ragContext = requirementKnowledgeService.buildContext(normalized, contextBudget);
     String userPrompt = buildRequirementEnhancePrompt(normalized, ragContext, expectedProcessCount);
 
     return aiFunctionExecutor
@@ -96,22 +126,21 @@ public class CosmicService {
    * @return 拆解结果，包含功能过程列表
    * @throws BusinessException 业务异常
    */
-  public ProcessBreakdownResponse breakdownProcess(ProcessBreakdownRequest request) {
+  public Mono<ProcessBreakdownResponse> breakdownProcess(ProcessBreakdownRequest request) {
     String userPromptText =
         buildFunctionalProcessUserPrompt(
             request.getRequirementDescription(), request.getExpectedProcessCount());
-    FunctionalProcessesResponse result =
-        aiFunctionExecutor.executeStructured(
-            AiFunctionType.COSMIC_FUNCTIONAL, userPromptText, FunctionalProcessesResponse.class);
-
-    if (result == null || CollectionUtils.isEmpty(result.getFunctionalProcesses())) {
-      throw new BusinessException("AI 拆解未能生成有效的功能过程");
-    }
-    List<FunctionalProcess> processes = result.getFunctionalProcesses();
-    if (CollectionUtils.isEmpty(processes)) {
-      throw new BusinessException("AI拆解未返回有效结果");
-    }
-    return ProcessBreakdownResponse.builder().functionalProcesses(processes).build();
+    return aiFunctionExecutor
+        .executeStructuredAsync(
+            AiFunctionType.COSMIC_FUNCTIONAL, userPromptText, FunctionalProcessesResponse.class)
+        .map(
+            result -> {
+              List<FunctionalProcess> processes = result.getFunctionalProcesses();
+              if (CollectionUtils.isEmpty(processes)) {
+                throw new BusinessException("AI 拆解未能生成有效的功能过程");
+              }
+              return ProcessBreakdownResponse.builder().functionalProcesses(processes).build();
+            });
   }
 
   private String buildFunctionalProcessUserPrompt(
@@ -300,7 +329,7 @@ public class CosmicService {
       if (processes.isEmpty()) {
         throw new BusinessException("Excel file does not contain valid COSMIC processes");
       }
-      List<CosmicProcess> sanitized = sanitizeCosmicProcesses(processes);
+      List<CosmicProcess> sanitized = CosmicProcessSanitizer.sanitize(processes);
       return AnalysisResponse.builder().processes(sanitized).build();
     } catch (BusinessException e) {
       throw e;
@@ -318,8 +347,7 @@ public class CosmicService {
    */
   public Flux<String> streamCosmicEstimate(MultipartFile file) {
     AnalysisResponse analysisResponse = importCosmicProcesses(file);
-    String payloadJson = serializeCosmicEstimatePayload(analysisResponse);
-    String userPrompt = buildCosmicEstimateUserPrompt(payloadJson);
+    String userPrompt = buildCosmicEstimateUserPrompt(analysisResponse);
 
     return aiFunctionExecutor
         .streamText(AiFunctionType.COSMIC_ESTIMATE, userPrompt)
@@ -333,19 +361,69 @@ public class CosmicService {
         .switchIfEmpty(Flux.error(new BusinessException("AI 未返回任何可用的锐评内容（流式）")));
   }
 
-  private String serializeCosmicEstimatePayload(AnalysisResponse response) {
+  /**
+   * 构建锐评输入：超出 token 预算时改用紧凑格式（子过程按数组行输出，不重复字段名）；仍超出时照常发送，
+   * 由调用前的预算校验在强制模式下拒绝。
+   *
+   * <p>锐评需要通读整张表，不做拆分。
+   */
+  private String buildCosmicEstimateUserPrompt(AnalysisResponse analysisResponse) {
+    String userPrompt =
+        "# 用户上传的 COSMIC 拆分结果\n"
+            + "```json\n"
+            + serializeCosmicEstimatePayload(analysisResponse)
+            + "\n```\n";
+    if (promptBudget.fits(AiFunctionType.COSMIC_ESTIMATE, userPrompt)) {
+      return userPrompt;
+    }
+    String compactPrompt =
+        "# 用户上传的 COSMIC 拆分结果\n"
+            + "紧凑格式：steps 中每一行依次为子过程描述、数据移动类型、数据组、数据属性。\n"
+            + "```json\n"
+            + serializeCosmicEstimatePayload(compactCosmicEstimatePayload(analysisResponse))
+            + "\n```\n";
+    int tokens = AiTokenEstimator.estimate(compactPrompt);
+    if (!promptBudget.fits(AiFunctionType.COSMIC_ESTIMATE, compactPrompt)) {
+      log.warn("锐评紧凑格式输入仍超出预算（约 {} tokens），按预算配置决定是否放行", tokens);
+      return compactPrompt;
+    }
+    log.info(
+        "锐评输入超出预算，改用紧凑格式: {} -> {} tokens",
+        AiTokenEstimator.estimate(userPrompt),
+        tokens);
+    return compactPrompt;
+  }
+
+  private List<Map<String, Object>> compactCosmicEstimatePayload(AnalysisResponse response) {
+    List<Map<String, Object>> processes = new ArrayList<>(response.getProcesses().size());
+    for (CosmicProcess process : response.getProcesses()) {
+      List<List<String>> steps = new ArrayList<>(process.getProcessSteps().size());
+      for (CosmicProcessStep step : process.getProcessSteps()) {
+        steps.add(
+            List.of(
+                trimToEmpty(step.getSubProcessDesc()),
+                trimToEmpty(step.getDataMovementType()),
+                trimToEmpty(step.getDataGroup()),
+                trimToEmpty(step.getDataAttributes())));
+      }
+      Map<String, Object> compact = new LinkedHashMap<>();
+      compact.put("triggerEvent", process.getTriggerEvent());
+      compact.put("functionalProcess", process.getFunctionalProcess());
+      compact.put("steps", steps);
+      processes.add(compact);
+    }
+    return processes;
+  }
+
+  private String serializeCosmicEstimatePayload(Object payload) {
     try {
-      return objectMapper.writeValueAsString(response);
+      return objectMapper.writeValueAsString(payload);
     } catch (JacksonException ex) {
       log.error("序列化 COSMIC 子过程失败", ex);
       throw new BusinessException("COSMIC 子过程数据序列化失败", ex);
     }
   }
 
-  private String buildCosmicEstimateUserPrompt(String analysisJson) {
-    return "# 用户上传的 COSMIC 拆分结果\n" + "```json\n" + analysisJson + "\n```\n";
-  }
-
   private void validateCosmicImportHeader(Row headerRow) {
     String[] expectedHeaders = {"触发事件", "功能过程", "子过程描述", "数据移动类型", "数据组", "数据属性"};
     int[] columns = {
@@ -448,14 +526,169 @@ public class CosmicService {
   }
 
   /**
-   * 执行 COSMIC 分析：使用一次性生成所有字段的方式,可能在功能过程较多时出现截断问题。
+   * 执行 COSMIC 分析。
+   *
+   * <p>功能过程数量不超过 {@link CosmicAnalysisProperties#getBatchSize()} 时一次性生成所有字段；
+   * 超过时按组拆分并行调用 AI，再按原始顺序合并，避免单次输出过长被截断，耗时取决于最慢的一组。单组 Prompt 超出 token
+   * 预算时继续缩小分组。排队请求过多时由准入控制直接拒绝。
    *
    * @param request 需求请求参数
    * @return 分析结果，包含 COSMIC 过程数据
    * @throws BusinessException 业务异常
    */
   public AnalysisResponse analyzeRequirement(CosmicAnalysisRequest request) {
-    String userPromptText = buildCosmicUserPrompt(request.getFunctionalProcesses());
+    try (WorkloadAdmissionService.Permit ignored =
+        admissionService.admit(AdmissionWorkload.COSMIC_ANALYSIS)) {
+      return analyze(request);
+    }
+  }
+
+  /** 执行 COSMIC 分析，不经过准入控制（后台任务已在提交时准入）。 */
+  AnalysisResponse analyze(CosmicAnalysisRequest request) {
+    List<FunctionalProcess> functionalProcesses = request.getFunctionalProcesses();
+    int batchSize =
+        CollectionUtils.isEmpty(functionalProcesses)
+            ? 1
+            : batchSizeWithinBudget(functionalProcesses);
+    List<CosmicProcess> generated =
+        functionalProcesses != null && functionalProcesses.size() > batchSize
+            ? analyzeInParallel(functionalProcesses, batchSize)
+            : analyzeProcessGroup(functionalProcesses);
+
+    List<CosmicProcess> processes = CosmicProcessSanitizer.sanitize(generated);
+    return AnalysisResponse.builder().processes(processes).build();
+  }
+
+  /**
+   * 将功能过程按组拆分并行生成，结果按分组顺序拼接。
+   *
+   * <p>任一组失败或调用线程被中断时中断其余分组，正在进行的 AI 调用随之取消；分组线程池已满时直接失败。
+   */
+  private List<CosmicProcess> analyzeInParallel(
+      List<FunctionalProcess> functionalProcesses, int batchSize) {
+    List<List<FunctionalProcess>> groups = Lists.partition(functionalProcesses, batchSize);
+    log.info("COSMIC 子过程分组并行生成: 功能过程 {} 个，分 {} 组", functionalProcesses.size(), groups.size());
+
+    List<Future<List<CosmicProcess>>> futures = new ArrayList<>(groups.size());
+    List<CosmicProcess> merged = new ArrayList<>();
+    try {
+      for (List<FunctionalProcess> group : groups) {
+        Supplier<List<CosmicProcess>> task = AiCallContext.wrap(() -> analyzeProcessGroup(group));
+        futures.add(cosmicAnalysisExecutorService.submit(task::get));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          merged.addAll(futures.get(i).get());
+        } catch (ExecutionException ex) {
+          Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+          throw new BusinessException(
+              String.format("第 %d 组功能过程生成失败: %s", i + 1, cause.getMessage()), cause);
+        }
+      }
+    } catch (RejectedExecutionException ex) {
+      throw new BusinessException("COSMIC 子过程分组执行队列已满，请稍后重试", ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new BusinessException("COSMIC 子过程分组生成已取消", ex);
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+    return merged;
+  }
+
+  /**
+   * 流式执行 COSMIC 分析：每解析出一个完整的功能过程即校验并推送，无需等待全部生成完成。
+   *
+   * <p>功能过程较多时同样按组并行生成，推送顺序与功能过程的分组顺序保持一致。订阅时申请准入许可，流结束或取消时释放。
+   *
+   * @param request 需求请求参数
+   * @return 已校验的 COSMIC 功能过程流
+   */
+  public Flux<CosmicProcess> streamAnalyzeRequirement(CosmicAnalysisRequest request) {
+    List<FunctionalProcess> functionalProcesses =
+        request == null ? null : request.getFunctionalProcesses();
+    if (CollectionUtils.isEmpty(functionalProcesses)) {
+      return Flux.error(new BusinessException("功能过程列表不能为空"));
+    }
+    List<List<FunctionalProcess>> groups =
+        Lists.partition(functionalProcesses, batchSizeWithinBudget(functionalProcesses));
+
+    return Flux.using(
+            () -> admissionService.admit(AdmissionWorkload.COSMIC_ANALYSIS),
+            permit -> {
+              AtomicInteger processIndex = new AtomicInteger();
+              return Flux.mergeSequential(
+                      groups.stream().map(this::streamProcessGroup).toList(),
+                      Math.max(1, cosmicAnalysisProperties.getParallelism()),
+                      1)
+                  .map(
+                      process ->
+                          CosmicProcessSanitizer.sanitize(
+                              process, processIndex.getAndIncrement()));
+            },
+            WorkloadAdmissionService.Permit::close)
+        .onErrorMap(
+            error -> {
+              if (error instanceof BusinessException) {
+                return error;
+              }
+              return new BusinessException("AI 流式生成子过程失败: " + error.getMessage(), error);
+            })
+        .switchIfEmpty(Flux.error(new BusinessException("AI 分析未能生成有效的 COSMIC 过程")));
+  }
+
+  /**
+   * 计算分组大小：未开启分组时为全部功能过程，任一组的 Prompt 超出预算时减半，直至每组只含一个功能过程。
+   *
+   * <p>单个功能过程仍超出预算时由执行入口直接拒绝。
+   */
+  private int batchSizeWithinBudget(List<FunctionalProcess> functionalProcesses) {
+    int batchSize =
+        cosmicAnalysisProperties.isParallelEnabled()
+            ? Math.max(1, cosmicAnalysisProperties.getBatchSize())
+            : functionalProcesses.size();
+    int budget = promptBudget.remaining(AiFunctionType.COSMIC_ANALYSIS);
+    while (batchSize > 1 && exceedsBudget(functionalProcesses, batchSize, budget)) {
+      batchSize = (batchSize + 1) / 2;
+    }
+    return batchSize;
+  }
+
+  private boolean exceedsBudget(
+      List<FunctionalProcess> functionalProcesses, int batchSize, int budget) {
+    for (List<FunctionalProcess> group : Lists.partition(functionalProcesses, batchSize)) {
+      if (AiTokenEstimator.estimate(buildCosmicUserPrompt(group)) > budget) {
+        log.info("COSMIC 子过程分组超出 token 预算，缩小分组: 每组 {} 个", batchSize);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Flux<CosmicProcess> streamProcessGroup(List<FunctionalProcess> functionalProcesses) {
+    String userPromptText = buildCosmicUserPrompt(functionalProcesses);
+    return Flux.defer(
+        () -> {
+          StreamingJsonArrayParser parser = new StreamingJsonArrayParser("processes");
+          return aiFunctionExecutor
+              .streamStructuredText(
+                  AiFunctionType.COSMIC_ANALYSIS, userPromptText, CosmicProcessesResponse.class)
+              .concatMapIterable(parser::feed)
+              .map(this::parseCosmicProcess);
+        });
+  }
+
+  private CosmicProcess parseCosmicProcess(String json) {
+    try {
+      return objectMapper.readValue(json, CosmicProcess.class);
+    } catch (JacksonException ex) {
+      log.warn("解析流式 COSMIC 子过程失败: {}", json, ex);
+      throw new BusinessException("AI 返回的 COSMIC 子过程格式异常", ex);
+    }
+  }
+
+  private List<CosmicProcess> analyzeProcessGroup(List<FunctionalProcess> functionalProcesses) {
+    String userPromptText = buildCosmicUserPrompt(functionalProcesses);
     CosmicProcessesResponse result =
         aiFunctionExecutor.executeStructured(
             AiFunctionType.COSMIC_ANALYSIS, userPromptText, CosmicProcessesResponse.class);
@@ -463,8 +696,7 @@ public class CosmicService {
     if (result == null || CollectionUtils.isEmpty(result.getProcesses())) {
       throw new BusinessException("AI 分析未能生成有效的 COSMIC 过程");
     }
-    List<CosmicProcess> processes = sanitizeCosmicProcesses(result.getProcesses());
-    return AnalysisResponse.builder().processes(processes).build();
+    return result.getProcesses();
   }
 
   private String buildCosmicUserPrompt(List<FunctionalProcess> functionalProcesses) {
@@ -485,84 +717,6 @@ public class CosmicService {
     return builder.toString();
   }
 
-  private List<CosmicProcess> sanitizeCosmicProcesses(List<CosmicProcess> processes) {
-    if (CollectionUtils.isEmpty(processes)) {
-      throw new BusinessException("COSMIC过程列表不能为空");
-    }
-
-    List<CosmicProcess> sanitized = new ArrayList<>();
-    for (int processIndex = 0; processIndex < processes.size(); processIndex++) {
-      CosmicProcess process = processes.get(processIndex);
-
-      String triggerEvent = trimToEmpty(process.getTriggerEvent());
-      if (!StringUtils.hasText(triggerEvent)) {
-        throw new BusinessException(String.format("第 %d 个功能过程缺少触发事件", processIndex + 1));
-      }
-
-      String functionalProcess = trimToEmpty(process.getFunctionalProcess());
-      if (!StringUtils.hasText(functionalProcess)) {
-        throw new BusinessException(String.format("第 %d 个功能过程缺少功能过程名称", processIndex + 1));
-      }
-
-      List<CosmicProcessStep> steps = process.getProcessSteps();
-      if (CollectionUtils.isEmpty(steps)) {
-        throw new BusinessException(String.format("功能过程 \"%s\" 缺少子过程步骤", functionalProcess));
-      }
-
-      List<CosmicProcessStep> sanitizedSteps = new ArrayList<>();
-      for (int stepIndex = 0; stepIndex < steps.size(); stepIndex++) {
-        CosmicProcessStep step = steps.get(stepIndex);
-        sanitizedSteps.add(sanitizeStep(step, functionalProcess, stepIndex));
-      }
-
-      sanitized.add(
-          CosmicProcess.builder()
-              .triggerEvent(triggerEvent)
-              .functionalProcess(functionalProcess)
-              .processSteps(sanitizedSteps)
-              .build());
-    }
-
-    return sanitized;
-  }
-
-  private CosmicProcessStep sanitizeStep(
-      CosmicProcessStep step, String functionalProcess, int stepIndex) {
-    // 必填:子过程描述
-    String subProcessDesc = trimToEmpty(step.getSubProcessDesc());
-    if (!StringUtils.hasText(subProcessDesc)) {
-      throw new BusinessException(
-          String.format("功能过程 \"%s\" 的第 %d 个子过程描述为空", functionalProcess, stepIndex + 1));
-    }
-
-    // 必填:数据移动类型
-    String dataMovementType =
-        normalizeMovementType(step.getDataMovementType(), functionalProcess, stepIndex);
-
-    // 选填:数据组(有就要合法)
-    String dataGroup = trimToEmpty(step.getDataGroup());
-
-    // 选填:数据属性
-    String dataAttributes = trimToEmpty(step.getDataAttributes());
-
-    return CosmicProcessStep.builder()
-        .subProcessDesc(subProcessDesc)
-        .dataMovementType(dataMovementType)
-        .dataGroup(dataGroup)
-        .dataAttributes(dataAttributes)
-        .build();
-  }
-
-  private String normalizeMovementType(String value, String functionalProcess, int stepIndex) {
-    String normalized = trimToEmpty(value).toUpperCase();
-    if (!SUPPORTED_DATA_MOVEMENT_TYPES.contains(normalized)) {
-      throw new BusinessException(
-          String.format(
-              "功能过程 \"%s\" 的第 %d 个子过程数据移动类型无效: %s", functionalProcess, stepIndex + 1, value));
-    }
-    return normalized;
-  }
-
   private String trimToEmpty(String value) {
     return value == null ? "" : value.trim();
   }
@@ -574,7 +728,7 @@ public class CosmicService {
    * @return Excel 文件字节数组
    */
   public byte[] exportProcessTableAsBytes(ProcessTableExportRequest request) {
-    List<CosmicProcess> sanitized = sanitizeCosmicProcesses(request.getProcesses());
+    List<CosmicProcess> sanitized = CosmicProcessSanitizer.sanitize(request.getProcesses());
     return cosmicExcelService.generateExcelReport(sanitized);
   }
 
@@ -585,12 +739,12 @@ public class CosmicService {
    * @return 文档预览内容
    * @throws BusinessException 业务异常
    */
-  public String generateDocumentPreview(DocumentPreviewRequest request) {
+  public Mono<String> generateDocumentPreview(DocumentPreviewRequest request) {
     List<CosmicProcess> processes = request.getProcesses();
     if (CollectionUtils.isEmpty(processes)) {
       throw new BusinessException("COSMIC过程列表不能为空");
     }
-    List<CosmicProcess> sanitized = sanitizeCosmicProcesses(processes);
+    List<CosmicProcess> sanitized = CosmicProcessSanitizer.sanitize(processes);
 
     String processDescription =
         sanitized.stream()
@@ -610,7 +764,7 @@ public class CosmicService {
     }
     String userInput =
         String.format("需求名称：%s\n功能过程或子过程描述：%s", requirementName.trim(), processDescription);
-    return aiFunctionExecutor.executeText(AiFunctionType.COSMIC_PRD, userInput);
+    return aiFunctionExecutor.executeTextAsync(AiFunctionType.COSMIC_PRD, userInput);
   }
 
   /**
@@ -619,7 +773,7 @@ public class CosmicService {
    * @param request 功能过程与子过程描述
    * @return Mermaid sequenceDiagram 文本
    */
-  public String generateSequenceDiagram(SequenceDiagramRequest request) {
+  public Mono<String> generateSequenceDiagram(SequenceDiagramRequest request) {
     if (request == null) {
       throw new BusinessException("请求参数不能为空");
     }
@@ -634,19 +788,20 @@ public class CosmicService {
       throw new BusinessException("COSMIC过程列表不能为空");
     }
 
-    String diagram = aiFunctionExecutor.executeText(AiFunctionType.COSMIC_SEQUENCE_DIAGRAM, text);
-    return normalizeMermaidDiagram(diagram);
+    return aiFunctionExecutor
+        .executeTextAsync(AiFunctionType.COSMIC_SEQUENCE_DIAGRAM, text)
+        .map(this::normalizeMermaidDiagram);
   }
 
-  private String generateSequenceDiagramFromProcesses(List<CosmicProcess> processes) {
+  private Mono<String> generateSequenceDiagramFromProcesses(List<CosmicProcess> processes) {
     if (CollectionUtils.isEmpty(processes)) {
       throw new BusinessException("COSMIC过程列表不能为空");
     }
-    List<CosmicProcess> sanitized = sanitizeCosmicProcesses(processes);
+    List<CosmicProcess> sanitized = CosmicProcessSanitizer.sanitize(processes);
     String userPrompt = serializeSequenceDiagramPayload(sanitized);
-    String diagram =
-        aiFunctionExecutor.executeText(AiFunctionType.COSMIC_SEQUENCE_DIAGRAM, userPrompt);
-    return normalizeMermaidDiagram(diagram);
+    return aiFunctionExecutor
+        .executeTextAsync(AiFunctionType.COSMIC_SEQUENCE_DIAGRAM, userPrompt)
+        .map(this::normalizeMermaidDiagram);
   }
 
   private String normalizeMermaidDiagram(String rawDiagram) {
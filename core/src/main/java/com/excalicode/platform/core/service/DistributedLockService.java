@@ -0,0 +1,129 @@
+package com.excalicode.platform.core.service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * 基于 Redis 的分布式锁，用于保证集群内同一时间只有一个节点执行某项后台作业。
+ *
+ * <p>加锁使用 {@code SET NX PX}，值为本次持有的随机令牌；续期与释放都由 Lua 脚本先比对令牌，不会误删其他节点的锁。
+ * 持有期间后台按租期的三分之一定时续期，节点宕机后锁在租期到期时自动释放。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DistributedLockService {
+
+  private static final String LOCK_KEY_PREFIX = "cosmic:lock:";
+
+  private static final RedisScript<Long> RELEASE_SCRIPT =
+      new DefaultRedisScript<>(
+          """
+          if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+          end
+          return 0
+          """,
+          Long.class);
+
+  private static final RedisScript<Long> RENEW_SCRIPT =
+      new DefaultRedisScript<>(
+          """
+          if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+          end
+          return 0
+          """,
+          Long.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+
+  private final ScheduledExecutorService renewalScheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("lock-renewal-", 1).daemon(true).factory());
+
+  /**
+   * 尝试获取锁，不等待。
+   *
+   * @param name 锁名称
+   * @param lease 租期，持有期间自动续期
+   * @return 获取成功时返回锁，用完后关闭；已被其他持有者占用时为空
+   */
+  public Optional<Lock> tryLock(String name, Duration lease) {
+    String key = LOCK_KEY_PREFIX + name;
+    String token = UUID.randomUUID().toString();
+    Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(key, token, lease);
+    if (!Boolean.TRUE.equals(acquired)) {
+      return Optional.empty();
+    }
+    Lock lock = new Lock(key, token, lease);
+    long period = Math.max(1000L, lease.toMillis() / 3);
+    lock.renewal =
+        renewalScheduler.scheduleAtFixedRate(lock::renew, period, period, TimeUnit.MILLISECONDS);
+    return Optional.of(lock);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    renewalScheduler.shutdownNow();
+  }
+
+  /** 已持有的锁：关闭时停止续期并释放，重复关闭无副作用。 */
+  public final class Lock implements AutoCloseable {
+
+    private final String key;
+    private final String token;
+    private final Duration lease;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile ScheduledFuture<?> renewal;
+
+    private Lock(String key, String token, Duration lease) {
+      this.key = key;
+      this.token = token;
+      this.lease = lease;
+    }
+
+    private void renew() {
+      try {
+        Long renewed =
+            stringRedisTemplate.execute(
+                RENEW_SCRIPT, List.of(key), token, Long.toString(lease.toMillis()));
+        if (renewed == null || renewed == 0L) {
+          log.warn("分布式锁续期失败，锁已丢失: {}", key);
+          renewal.cancel(false);
+        }
+      } catch (Exception ex) {
+        log.warn("分布式锁续期异常: key={}, error={}", key, ex.getMessage());
+      }
+    }
+
+    @Override
+    public void close() {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      if (renewal != null) {
+        renewal.cancel(false);
+      }
+      try {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+      } catch (Exception ex) {
+        log.warn("释放分布式锁失败，等待租期到期: key={}, error={}", key, ex.getMessage());
+      }
+    }
+  }
+}
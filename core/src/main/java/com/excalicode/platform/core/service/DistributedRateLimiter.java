@@ -0,0 +1,144 @@
+package com.excalicode.platform.core.service;
+
+import com.excalicode.platform.core.config.RateLimitProperties;
+import com.excalicode.platform.core.exception.BusinessException;
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * 基于 Redis 的集群级令牌桶限流。
+ *
+ * <p>令牌桶状态保存在 Redis 哈希中，由 Lua 脚本原子地补充与扣减，时间取 Redis 服务器时间，多个节点共享同一份上游配额。
+ * 令牌不足时脚本返回需要等待的毫秒数，调用方休眠后重试。Redis 不可用时退回到本节点的 {@link RateLimiter}，只保证单节点不超限。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DistributedRateLimiter {
+
+  /** Embedding 接口限流器名称 */
+  public static final String EMBEDDING = "embedding";
+
+  /** 重排接口限流器名称 */
+  public static final String RERANK = "rerank";
+
+  /** 返回 0 表示已取得令牌，否则返回还需等待的毫秒数 */
+  private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT =
+      new DefaultRedisScript<>(
+          """
+          local rate = tonumber(ARGV[1])
+          local capacity = tonumber(ARGV[2])
+          local requested = tonumber(ARGV[3])
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+          local tokens = tonumber(bucket[1])
+          local ts = tonumber(bucket[2])
+          if tokens == nil or ts == nil then
+            tokens = capacity
+            ts = now
+          end
+          tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+          local wait = 0
+          if tokens >= requested then
+            tokens = tokens - requested
+          else
+            wait = math.ceil((requested - tokens) / rate)
+          end
+          redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+          redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate) + 60000)
+          return wait
+          """,
+          Long.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RateLimitProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, RateLimiter> localFallbacks = new ConcurrentHashMap<>();
+
+  /**
+   * 阻塞直至取得一个令牌。
+   *
+   * @param name 限流器名称，未配置时直接放行
+   */
+  public void acquire(String name) {
+    if (!tryAcquire(name, null)) {
+      throw new BusinessException("获取限流许可失败: " + name);
+    }
+  }
+
+  /**
+   * 在限定时间内尝试取得一个令牌。
+   *
+   * @param name 限流器名称，未配置时直接放行
+   * @param maxWait 最长等待时间，null 表示一直等待
+   * @return 取得令牌时为 true
+   */
+  public boolean tryAcquire(String name, Duration maxWait) {
+    RateLimitProperties.Limit limit = properties.getLimits().get(name);
+    if (limit == null || limit.getPermitsPerMinute() <= 0) {
+      return true;
+    }
+    long start = System.nanoTime();
+    long deadline = maxWait == null ? Long.MAX_VALUE : start + maxWait.toNanos();
+    try {
+      while (true) {
+        long waitMillis = requestToken(name, limit);
+        if (waitMillis <= 0) {
+          recordWait(name, start, true);
+          return true;
+        }
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis) > deadline) {
+          recordWait(name, start, false);
+          return false;
+        }
+        Thread.sleep(waitMillis);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new BusinessException("等待限流许可时被中断: " + name);
+    }
+  }
+
+  /** 执行令牌桶脚本，Redis 不可用时改用本节点限流 */
+  private long requestToken(String name, RateLimitProperties.Limit limit) {
+    double permitsPerMillis = limit.getPermitsPerMinute() / 60_000.0d;
+    try {
+      Long wait =
+          stringRedisTemplate.execute(
+              TOKEN_BUCKET_SCRIPT,
+              List.of(properties.getKeyPrefix() + name),
+              Double.toString(permitsPerMillis),
+              Integer.toString(Math.max(1, limit.getBurst())),
+              "1");
+      return wait != null ? wait : 0L;
+    } catch (Exception ex) {
+      log.warn("分布式限流不可用，退回本节点限流: name={}, error={}", name, ex.getMessage());
+      RateLimiter fallback =
+          localFallbacks.computeIfAbsent(
+              name, key -> RateLimiter.create(limit.getPermitsPerMinute() / 60.0d));
+      fallback.acquire();
+      return 0L;
+    }
+  }
+
+  private void recordWait(String name, long startNanos, boolean acquired) {
+    Timer.builder("rate_limiter.wait")
+        .description("等待限流许可的耗时")
+        .tags("name", name, "outcome", acquired ? "acquired" : "timeout")
+        .register(meterRegistry)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+}
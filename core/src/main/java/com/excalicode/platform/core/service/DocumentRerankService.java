@@ -27,15 +27,18 @@ public class DocumentRerankService {
   private final RequirementRagProperties properties;
   private final RestClient restClient;
   private final ObjectMapper objectMapper;
+  private final DistributedRateLimiter rateLimiter;
 
   public DocumentRerankService(
       RequirementRagProperties properties,
       RestClient.Builder restClientBuilder,
       ObjectMapper objectMapper,
+      DistributedRateLimiter rateLimiter,
       @Value("${spring.ai.openai.base-url}") String openAiBaseUrl,
       @Value("${spring.ai.openai.api-key}") String openAiApiKey) {
     this.properties = properties;
     this.objectMapper = objectMapper;
+    this.rateLimiter = rateLimiter;
     this.restClient = buildRestClient(properties, restClientBuilder, openAiBaseUrl, openAiApiKey);
   }
 
@@ -57,6 +60,11 @@ public class DocumentRerankService {
     if (!StringUtils.hasText(query) || CollectionUtils.isEmpty(contents)) {
       return List.of();
     }
+    // 配额紧张时等待不超过重排超时，超时则保持原始排序
+    if (!rateLimiter.tryAcquire(DistributedRateLimiter.RERANK, properties.getRerankTimeout())) {
+      log.warn("重排接口限流，跳过本次重排");
+      return List.of();
+    }
     int topN = Math.clamp(properties.getRerankTopN(), 1, contents.size());
     Map<String, Object> payload = new HashMap<>();
     payload.put("model", properties.getRerankModel());
@@ -1,77 +1,248 @@
 package com.excalicode.platform.core.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.excalicode.platform.core.api.rag.KnowledgeVectorizeJobResponse;
+import com.excalicode.platform.core.config.RequirementRagProperties;
+import com.excalicode.platform.core.entity.KnowledgeVectorizeJob;
 import com.excalicode.platform.core.entity.RequirementKnowledgeEntry;
 import com.excalicode.platform.core.exception.BusinessException;
+import com.excalicode.platform.core.mapper.KnowledgeVectorizeJobMapper;
+import com.excalicode.platform.core.model.rag.KnowledgeVectorizeJobStatus;
 import com.excalicode.platform.core.model.rag.RequirementKnowledgeDocument;
 import com.excalicode.platform.core.service.entity.RequirementKnowledgeEntryService;
 import com.google.common.base.Splitter;
-import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.collect.Lists;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
-/** 批量向量化服务：将数据库中“未向量化”的条目写入向量库 */
+/**
+ * 批量向量化服务：将数据库中“未向量化”的条目写入向量库。
+ *
+ * <p>每次提交生成一条持久化作业，按 documentId 游标分页读取未向量化条目，每页拆给若干 worker 并行处理，处理完一页即写入检查点。
+ * 作业可取消，取消、失败或节点重启后从检查点继续。
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RequirementKnowledgeBatchVectorizeService {
 
-  private static final double UPSERTS_PER_MINUTE = 10.0d;
+  /** 集群内只允许一个批量向量化作业执行 */
+  private static final String VECTORIZE_ALL_LOCK = "knowledge-vectorize-all";
+
+  private static final Duration VECTORIZE_ALL_LOCK_LEASE = Duration.ofMinutes(2);
 
   private static final Splitter TAG_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
 
   private final RequirementKnowledgeService requirementKnowledgeService;
   private final RequirementKnowledgeEntryService requirementKnowledgeEntryService;
+  private final KnowledgeVectorizeJobMapper jobMapper;
   private final TaskExecutor taskExecutor;
+  private final ExecutorService executorService;
+  private final RequirementRagProperties properties;
+
+  private final DistributedLockService lockService;
+
+  /** 启动时恢复未完成的作业，已在其他节点执行的作业由分布式锁挡住，锁释放后仍未结束的作业会被接手 */
+  @PostConstruct
+  public void resumeActiveJobs() {
+    List<KnowledgeVectorizeJob> jobs =
+        jobMapper.selectList(
+            Wrappers.<KnowledgeVectorizeJob>lambdaQuery()
+                .in(
+                    KnowledgeVectorizeJob::getStatus,
+                    KnowledgeVectorizeJobStatus.PENDING.name(),
+                    KnowledgeVectorizeJobStatus.RUNNING.name())
+                .eq(KnowledgeVectorizeJob::getDeleted, 0));
+    if (CollectionUtils.isEmpty(jobs)) {
+      return;
+    }
+    jobs.forEach(job -> dispatch(job.getId()));
+  }
+
+  /** 提交一键向量化作业；已有未完成作业时直接返回该作业 */
+  public KnowledgeVectorizeJobResponse submitVectorizeAllUnvectorized() {
+    KnowledgeVectorizeJob active = findLatestJob();
+    if (active != null && resolveStatus(active.getStatus()).isActive()) {
+      log.info("批量向量化已在执行，忽略重复请求: jobId={}", active.getId());
+      return buildResponse(active);
+    }
 
-  private final AtomicBoolean vectorizeAllRunning = new AtomicBoolean(false);
+    KnowledgeVectorizeJob job = new KnowledgeVectorizeJob();
+    job.setStatus(KnowledgeVectorizeJobStatus.PENDING.name());
+    job.setTotalCount(
+        Math.toIntExact(requirementKnowledgeEntryService.count(buildUnvectorizedWrapper())));
+    job.setProcessedCount(0);
+    job.setSucceededCount(0);
+    job.setFailedCount(0);
+    job.setStartedProcessedCount(0);
+    job.setCancelRequested(0);
+    job.setDeleted(0);
+    jobMapper.insert(job);
+
+    dispatch(job.getId());
+    return buildResponse(job);
+  }
+
+  /** 最近一次作业的进度，没有作业时为 null */
+  public KnowledgeVectorizeJobResponse getLatestJob() {
+    KnowledgeVectorizeJob job = findLatestJob();
+    return job == null ? null : buildResponse(job);
+  }
+
+  /** 查询作业进度 */
+  public KnowledgeVectorizeJobResponse getJob(Long jobId) {
+    return buildResponse(requireJob(jobId));
+  }
+
+  /** 请求取消作业：当前页处理完后停止，检查点保留 */
+  public KnowledgeVectorizeJobResponse cancelJob(Long jobId) {
+    KnowledgeVectorizeJob job = requireJob(jobId);
+    KnowledgeVectorizeJobStatus status = resolveStatus(job.getStatus());
+    if (!status.isActive()) {
+      throw new BusinessException("作业已结束，无法取消: " + status.getLabel());
+    }
+    KnowledgeVectorizeJob update = new KnowledgeVectorizeJob();
+    update.setId(jobId);
+    update.setCancelRequested(1);
+    if (status == KnowledgeVectorizeJobStatus.PENDING) {
+      update.setStatus(KnowledgeVectorizeJobStatus.CANCELLED.name());
+      update.setFinishedTime(LocalDateTime.now());
+    }
+    jobMapper.updateById(update);
+    return getJob(jobId);
+  }
+
+  /** 从检查点继续执行已取消、失败或中断的作业 */
+  public KnowledgeVectorizeJobResponse resumeJob(Long jobId) {
+    KnowledgeVectorizeJob job = requireJob(jobId);
+    if (resolveStatus(job.getStatus()) == KnowledgeVectorizeJobStatus.SUCCEEDED) {
+      throw new BusinessException("作业已完成，无需继续");
+    }
+    KnowledgeVectorizeJob latest = findLatestJob();
+    if (latest != null && !Objects.equals(latest.getId(), jobId)) {
+      throw new BusinessException("只能继续最近一次作业，请重新提交一键向量化");
+    }
+    KnowledgeVectorizeJob update = new KnowledgeVectorizeJob();
+    update.setId(jobId);
+    update.setStatus(KnowledgeVectorizeJobStatus.PENDING.name());
+    update.setCancelRequested(0);
+    update.setErrorMessage("");
+    jobMapper.updateById(update);
+    dispatch(jobId);
+    return getJob(jobId);
+  }
+
+  private void dispatch(Long jobId) {
+    taskExecutor.execute(() -> runWithLock(jobId));
+  }
 
   /**
-   * 上游 embedding 接口只有 10 RPM；这里对每次调用 upsertDocument 做限流。
-   *
-   * <p>阻塞式限流，批量向量化会按 10 RPM 的速度慢慢跑。
+   * 持锁执行作业。锁被占用时，作业仍未结束则等一个租期后重试：重启前持有的锁要到租期到期才释放，直接放弃会让作业一直停在执行中。
    */
-  private final RateLimiter upsertLimiter = RateLimiter.create(UPSERTS_PER_MINUTE / 60.0d);
-
-  public void submitVectorizeAllUnvectorized() {
-    if (!vectorizeAllRunning.compareAndSet(false, true)) {
-      log.info("批量向量化已在执行，忽略重复请求");
+  private void runWithLock(Long jobId) {
+    Optional<DistributedLockService.Lock> lock =
+        lockService.tryLock(VECTORIZE_ALL_LOCK, VECTORIZE_ALL_LOCK_LEASE);
+    if (lock.isEmpty()) {
+      KnowledgeVectorizeJob job = jobMapper.selectById(jobId);
+      if (job == null || !resolveStatus(job.getStatus()).isActive()) {
+        return;
+      }
+      log.info("批量向量化作业锁被占用，{} 后重试: jobId={}", VECTORIZE_ALL_LOCK_LEASE, jobId);
+      CompletableFuture.delayedExecutor(
+              VECTORIZE_ALL_LOCK_LEASE.toMillis(), TimeUnit.MILLISECONDS, taskExecutor)
+          .execute(() -> runWithLock(jobId));
       return;
     }
-    taskExecutor.execute(
-        () -> {
-          try {
-            doVectorizeAllUnvectorized();
-          } finally {
-            vectorizeAllRunning.set(false);
-          }
-        });
-  }
-
-  private void doVectorizeAllUnvectorized() {
-    List<RequirementKnowledgeEntry> targets =
-        requirementKnowledgeEntryService.list(buildUnvectorizedWrapper());
-    if (targets == null || targets.isEmpty()) {
-      log.info("批量向量化结束: 没有未向量化条目");
+    try (DistributedLockService.Lock ignored = lock.get()) {
+      runJob(jobId);
+    } catch (Exception ex) {
+      log.error("批量向量化作业失败: jobId={}", jobId, ex);
+      finish(jobId, KnowledgeVectorizeJobStatus.FAILED, ex.getMessage());
+    }
+  }
+
+  /** 从检查点开始逐页处理，每页结束写入检查点并检查取消请求 */
+  private void runJob(Long jobId) {
+    KnowledgeVectorizeJob job = jobMapper.selectById(jobId);
+    if (job == null || !resolveStatus(job.getStatus()).isActive()) {
       return;
     }
+    markRunning(job);
 
-    for (RequirementKnowledgeEntry entry : targets) {
-      if (entry == null || !StringUtils.hasText(entry.getDocumentId())) {
-        continue;
+    String cursor = job.getLastDocumentId();
+    int pageSize = Math.max(1, properties.getVectorizeBatchDocuments());
+    int workers = Math.max(1, properties.getVectorizeWorkers());
+    while (true) {
+      KnowledgeVectorizeJob current = jobMapper.selectById(jobId);
+      if (current == null || Objects.equals(current.getCancelRequested(), 1)) {
+        finish(jobId, KnowledgeVectorizeJobStatus.CANCELLED, null);
+        log.info("批量向量化作业已取消: jobId={}, 检查点={}", jobId, cursor);
+        return;
       }
-      try {
-        vectorizeEntryWithRateLimit(entry);
-      } catch (Exception ex) {
-        log.error("批量向量化失败: docId={}", entry.getDocumentId(), ex);
+
+      List<RequirementKnowledgeEntry> page = fetchPage(cursor, pageSize);
+      if (page.isEmpty()) {
+        finish(jobId, KnowledgeVectorizeJobStatus.SUCCEEDED, null);
+        log.info("批量向量化作业完成: jobId={}", jobId);
+        return;
       }
+
+      int succeeded = processPage(page, workers);
+      cursor = page.getLast().getDocumentId();
+      checkpoint(current, cursor, page.size(), succeeded);
+    }
+  }
+
+  /** 按 documentId 游标读取下一页未向量化条目 */
+  private List<RequirementKnowledgeEntry> fetchPage(String cursor, int pageSize) {
+    LambdaQueryWrapper<RequirementKnowledgeEntry> wrapper = buildUnvectorizedWrapper();
+    if (StringUtils.hasText(cursor)) {
+      wrapper.gt(RequirementKnowledgeEntry::getDocumentId, cursor);
     }
+    wrapper.last("limit " + pageSize);
+    List<RequirementKnowledgeEntry> entries = requirementKnowledgeEntryService.list(wrapper);
+    return entries == null ? List.of() : entries;
+  }
+
+  /** 一页条目拆给多个 worker 并行处理，返回成功条数；单个 worker 失败只影响自己那一份 */
+  private int processPage(List<RequirementKnowledgeEntry> page, int workers) {
+    List<RequirementKnowledgeEntry> valid =
+        page.stream()
+            .filter(entry -> entry != null && StringUtils.hasText(entry.getDocumentId()))
+            .toList();
+    if (valid.isEmpty()) {
+      return 0;
+    }
+    int share = (valid.size() + workers - 1) / workers;
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (List<RequirementKnowledgeEntry> batch : Lists.partition(valid, share)) {
+      futures.add(
+          CompletableFuture.supplyAsync(() -> vectorizeBatch(batch), executorService)
+              .exceptionally(
+                  ex -> {
+                    log.error(
+                        "批量向量化失败: docIds={}",
+                        batch.stream().map(RequirementKnowledgeEntry::getDocumentId).toList(),
+                        ex);
+                    return 0;
+                  }));
+    }
+    return futures.stream().mapToInt(CompletableFuture::join).sum();
   }
 
   private static LambdaQueryWrapper<RequirementKnowledgeEntry> buildUnvectorizedWrapper() {
@@ -87,24 +258,127 @@ public class RequirementKnowledgeBatchVectorizeService {
     return wrapper;
   }
 
-  private void vectorizeEntryWithRateLimit(RequirementKnowledgeEntry entry) {
-    String documentId = entry.getDocumentId();
-    RequirementKnowledgeDocument document =
-        RequirementKnowledgeDocument.builder()
-            .documentId(documentId)
-            .title(entry.getTitle())
-            .content(entry.getContent())
-            .tags(splitTags(entry.getTags()))
-            .build();
+  /** 一批条目：片段打包请求 Embedding，向量一次写入向量库，向量化状态一条 SQL 更新 */
+  private int vectorizeBatch(List<RequirementKnowledgeEntry> entries) {
+    List<RequirementKnowledgeDocument> documents =
+        entries.stream()
+            .map(
+                entry ->
+                    RequirementKnowledgeDocument.builder()
+                        .documentId(entry.getDocumentId())
+                        .title(entry.getTitle())
+                        .content(entry.getContent())
+                        .tags(splitTags(entry.getTags()))
+                        .build())
+            .toList();
+
+    List<String> documentIds =
+        requirementKnowledgeService.upsertDocuments(documents);
+    int updated = requirementKnowledgeEntryService.updateVectorStateBatch(documentIds, true);
+    if (updated < documentIds.size()) {
+      log.warn("部分条目向量化状态未更新: 写入 {} 条，更新 {} 条", documentIds.size(), updated);
+    }
+    return updated;
+  }
 
-    upsertLimiter.acquire();
-    requirementKnowledgeService.upsertDocument(document);
+  private void markRunning(KnowledgeVectorizeJob job) {
+    KnowledgeVectorizeJob update = new KnowledgeVectorizeJob();
+    update.setId(job.getId());
+    update.setStatus(KnowledgeVectorizeJobStatus.RUNNING.name());
+    update.setStartedTime(LocalDateTime.now());
+    update.setStartedProcessedCount(job.getProcessedCount());
+    jobMapper.updateById(update);
+  }
+
+  private void checkpoint(KnowledgeVectorizeJob job, String cursor, int processed, int succeeded) {
+    KnowledgeVectorizeJob update = new KnowledgeVectorizeJob();
+    update.setId(job.getId());
+    update.setLastDocumentId(cursor);
+    update.setProcessedCount(job.getProcessedCount() + processed);
+    update.setSucceededCount(job.getSucceededCount() + succeeded);
+    update.setFailedCount(job.getFailedCount() + processed - succeeded);
+    jobMapper.updateById(update);
+  }
 
-    boolean updated = requirementKnowledgeEntryService.updateVectorState(documentId, true);
-    if (!updated) {
-      requirementKnowledgeService.deleteDocumentVectors(documentId);
-      throw new BusinessException("更新向量化状态失败: " + documentId);
+  private void finish(Long jobId, KnowledgeVectorizeJobStatus status, String errorMessage) {
+    KnowledgeVectorizeJob update = new KnowledgeVectorizeJob();
+    update.setId(jobId);
+    update.setStatus(status.name());
+    update.setFinishedTime(LocalDateTime.now());
+    if (StringUtils.hasText(errorMessage)) {
+      update.setErrorMessage(
+          errorMessage.length() <= 4000 ? errorMessage : errorMessage.substring(0, 4000));
     }
+    jobMapper.updateById(update);
+  }
+
+  private KnowledgeVectorizeJob findLatestJob() {
+    return jobMapper.selectOne(
+        Wrappers.<KnowledgeVectorizeJob>lambdaQuery()
+            .eq(KnowledgeVectorizeJob::getDeleted, 0)
+            .orderByDesc(KnowledgeVectorizeJob::getId)
+            .last("limit 1"));
+  }
+
+  private KnowledgeVectorizeJob requireJob(Long jobId) {
+    KnowledgeVectorizeJob job = jobId == null ? null : jobMapper.selectById(jobId);
+    if (job == null || Objects.equals(job.getDeleted(), 1)) {
+      throw new BusinessException("未找到对应的向量化作业");
+    }
+    return job;
+  }
+
+  private KnowledgeVectorizeJobStatus resolveStatus(String status) {
+    try {
+      return KnowledgeVectorizeJobStatus.fromValue(status);
+    } catch (Exception ex) {
+      log.warn("未知的向量化作业状态: {}", status);
+      return KnowledgeVectorizeJobStatus.FAILED;
+    }
+  }
+
+  /** 吞吐按本轮开始以来的处理量计算，剩余量按提交时的总数估算 */
+  private KnowledgeVectorizeJobResponse buildResponse(KnowledgeVectorizeJob job) {
+    KnowledgeVectorizeJobStatus status = resolveStatus(job.getStatus());
+    int total = Objects.requireNonNullElse(job.getTotalCount(), 0);
+    int processed = Objects.requireNonNullElse(job.getProcessedCount(), 0);
+    double progress = total == 0 ? 100.0d : Math.min(100.0d, processed * 100.0d / total);
+
+    Double entriesPerMinute = null;
+    Long etaSeconds = null;
+    if (job.getStartedTime() != null) {
+      LocalDateTime end =
+          job.getFinishedTime() != null && !status.isActive()
+              ? job.getFinishedTime()
+              : LocalDateTime.now();
+      long elapsedSeconds = Duration.between(job.getStartedTime(), end).toSeconds();
+      int processedThisRun =
+          processed - Objects.requireNonNullElse(job.getStartedProcessedCount(), 0);
+      if (elapsedSeconds > 0 && processedThisRun > 0) {
+        entriesPerMinute = processedThisRun * 60.0d / elapsedSeconds;
+        if (status.isActive()) {
+          etaSeconds = Math.round(Math.max(0, total - processed) * 60.0d / entriesPerMinute);
+        }
+      }
+    }
+
+    return KnowledgeVectorizeJobResponse.builder()
+        .jobId(job.getId())
+        .status(status)
+        .statusLabel(status.getLabel())
+        .totalCount(total)
+        .processedCount(processed)
+        .succeededCount(job.getSucceededCount())
+        .failedCount(job.getFailedCount())
+        .progressPercent(progress)
+        .entriesPerMinute(entriesPerMinute)
+        .etaSeconds(etaSeconds)
+        .cancelRequested(Objects.equals(job.getCancelRequested(), 1))
+        .errorMessage(job.getErrorMessage())
+        .createdTime(job.getCreatedTime())
+        .startedTime(job.getStartedTime())
+        .finishedTime(job.getFinishedTime())
+        .build();
   }
 
   private static List<String> splitTags(String tags) {
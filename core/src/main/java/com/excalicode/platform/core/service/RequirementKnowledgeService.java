@@ -1,15 +1,20 @@
 package com.excalicode.platform.core.service;
 
+import com.excalicode.platform.core.ai.AiTokenEstimator;
 import com.excalicode.platform.core.config.RequirementRagProperties;
 import com.excalicode.platform.core.exception.BusinessException;
 import com.excalicode.platform.core.model.rag.RequirementKnowledgeDocument;
 import com.excalicode.platform.core.model.rag.RequirementKnowledgeMatch;
+import com.excalicode.platform.core.service.rag.CachingEmbeddingModel;
+import com.excalicode.platform.core.service.rag.RequirementChunkSplitter;
 import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
 import com.google.common.primitives.Ints;
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -19,6 +24,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.redis.RedisVectorStore;
+import org.springframework.ai.vectorstore.redis.autoconfigure.RedisVectorStoreProperties;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -35,12 +44,19 @@ public class RequirementKnowledgeService {
   private static final String METADATA_TAGS = "tags";
   private static final String METADATA_CHUNK_INDEX = "chunkIndex";
 
+  private static final String CHUNK_ID_SEPARATOR = "::";
+
+  /** chunk id 中内容哈希的长度（十六进制字符数） */
+  private static final int CHUNK_HASH_LENGTH = 16;
+
   private static final Splitter TAG_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
 
   private final VectorStore vectorStore;
   private final RequirementRagProperties properties;
   private final StringRedisTemplate stringRedisTemplate;
   private final DocumentRerankService documentRerankService;
+  private final CachingEmbeddingModel embeddingModel;
+  private final RedisVectorStoreProperties vectorStoreProperties;
 
   /** 删除指定 documentId 对应的向量片段（不影响数据库条目） */
   public void deleteDocumentVectors(String documentId) {
@@ -50,7 +66,12 @@ public class RequirementKnowledgeService {
     removeExistingChunks(documentId.trim());
   }
 
-  /** 向向量库写入或更新知识文档 */
+  /**
+   * 向向量库写入或更新知识文档。
+   *
+   * <p>chunk id 由片段内容（连同标题、标签）的哈希决定，与文档现有的 chunk id 比对：只写入新增或变化的片段，写入完成后再删除已不存在
+   * 的片段，未变化的片段不重新向量化，也不会在更新过程中从索引里消失。
+   */
   public void upsertDocument(RequirementKnowledgeDocument document) {
     RequirementKnowledgeDocument normalized =
         Objects.requireNonNull(document, "document 不能为空").normalized();
@@ -62,11 +83,113 @@ public class RequirementKnowledgeService {
     if (chunks.isEmpty()) {
       throw new BusinessException("无法从知识内容中提取有效片段");
     }
+    writeChunks(List.of(diffChunks(normalized.getDocumentId(), chunks)));
+  }
+
+  /**
+   * 批量写入知识文档：多个文档的新增片段打包成尽量少的 Embedding 请求，向量全部算完后一次写入向量库。
+   *
+   * <p>每个请求的片段数与 token 数分别不超过 {@link RequirementRagProperties#getEmbeddingBatchMaxChunks()} 与
+   * {@link RequirementRagProperties#getEmbeddingBatchMaxTokens()}，已有缓存向量的片段不占用请求。每个请求的限流由 {@link
+   * CachingEmbeddingModel} 负责。
+   *
+   * @param documents 知识文档，内容为空的文档跳过
+   * @return 写入成功的 documentId
+   */
+  public List<String> upsertDocuments(List<RequirementKnowledgeDocument> documents) {
+    List<ChunkDiff> diffs = new ArrayList<>();
+    for (RequirementKnowledgeDocument document : documents) {
+      RequirementKnowledgeDocument normalized = document.normalized();
+      List<Document> chunks =
+          StringUtils.hasText(normalized.getContent()) ? buildDocuments(normalized) : List.of();
+      if (chunks.isEmpty()) {
+        log.warn("知识文档 {} 没有有效片段，跳过", normalized.getDocumentId());
+        continue;
+      }
+      diffs.add(diffChunks(normalized.getDocumentId(), chunks));
+    }
+    writeChunks(diffs);
+    return diffs.stream().map(ChunkDiff::documentId).toList();
+  }
+
+  /** 与文档现有的 chunk id 比对，得出需要新增与删除的片段；内容相同的片段只保留一份 */
+  private ChunkDiff diffChunks(String documentId, List<Document> chunks) {
+    Set<String> existingChunkIds = existingChunkIds(documentId);
+    Map<String, Document> currentChunks = new LinkedHashMap<>();
+    chunks.forEach(chunk -> currentChunks.putIfAbsent(chunk.getId(), chunk));
+    List<Document> addedChunks =
+        currentChunks.values().stream()
+            .filter(chunk -> !existingChunkIds.contains(chunk.getId()))
+            .toList();
+    List<String> removedChunkIds =
+        existingChunkIds.stream().filter(id -> !currentChunks.containsKey(id)).toList();
+    return new ChunkDiff(
+        documentId,
+        List.copyOf(currentChunks.keySet()),
+        chunks.size(),
+        addedChunks,
+        removedChunkIds);
+  }
+
+  /** 先写入新增片段，再删除已不存在的片段 */
+  private void writeChunks(List<ChunkDiff> diffs) {
+    List<Document> addedChunks =
+        diffs.stream().flatMap(diff -> diff.addedChunks().stream()).toList();
+    if (!addedChunks.isEmpty()) {
+      Map<String, float[]> vectors = embedInBatches(addedChunks);
+      // 写入时直接使用刚算好的向量，其余片段的向量已在缓存中，这里只做一次流水线写入
+      embeddingModel.withVectors(vectors, () -> vectorStore.add(addedChunks));
+    }
+    for (ChunkDiff diff : diffs) {
+      cacheChunkIds(diff.documentId(), diff.chunkIds());
+      removeChunks(diff.documentId(), diff.removedChunkIds());
+      log.info(
+          "知识文档 {} 入库完成，片段数 {}，新增 {}，删除 {}，未变化 {}",
+          diff.documentId(),
+          diff.chunkCount(),
+          diff.addedChunks().size(),
+          diff.removedChunkIds().size(),
+          diff.chunkCount() - diff.addedChunks().size());
+    }
+  }
+
+  /**
+   * 按片段数与 token 数上限打包未命中缓存的片段，逐个请求计算向量并写入缓存。
+   *
+   * @return 本次计算出的片段正文到向量的映射
+   */
+  private Map<String, float[]> embedInBatches(List<Document> chunks) {
+    List<String> texts = embeddingModel.uncached(chunks.stream().map(Document::getText).toList());
+    Map<String, float[]> vectors = new HashMap<>();
+    int maxChunks = Math.max(1, properties.getEmbeddingBatchMaxChunks());
+    int maxTokens = properties.getEmbeddingBatchMaxTokens();
+    List<String> batch = new ArrayList<>();
+    int batchTokens = 0;
+    int requests = 0;
+    for (String text : texts) {
+      int tokens = AiTokenEstimator.estimate(text);
+      if (!batch.isEmpty() && (batch.size() >= maxChunks || batchTokens + tokens > maxTokens)) {
+        putVectors(vectors, batch, embeddingModel.embed(batch));
+        requests++;
+        batch = new ArrayList<>();
+        batchTokens = 0;
+      }
+      batch.add(text);
+      batchTokens += tokens;
+    }
+    if (!batch.isEmpty()) {
+      putVectors(vectors, batch, embeddingModel.embed(batch));
+      requests++;
+    }
+    log.info("知识片段向量化: 片段 {} 个，调用上游 {} 个，请求 {} 次", chunks.size(), texts.size(), requests);
+    return vectors;
+  }
 
-    removeExistingChunks(normalized.getDocumentId());
-    vectorStore.add(chunks);
-    cacheChunkIds(normalized.getDocumentId(), chunks);
-    log.info("知识文档 {} 入库完成，片段数 {}", normalized.getDocumentId(), chunks.size());
+  private static void putVectors(
+      Map<String, float[]> vectors, List<String> texts, List<float[]> embeddings) {
+    for (int i = 0; i < texts.size(); i++) {
+      vectors.put(texts.get(i), embeddings.get(i));
+    }
   }
 
   /**
@@ -76,7 +199,9 @@ public class RequirementKnowledgeService {
    * @return 每个 chunk 对应的向量文档
    */
   private List<Document> buildDocuments(RequirementKnowledgeDocument document) {
-    List<String> contentChunks = splitIntoChunks(document.getContent());
+    List<String> contentChunks =
+        RequirementChunkSplitter.split(
+            document.getContent(), properties.getChunkSize(), properties.getChunkOverlap());
     List<Document> documents = new ArrayList<>();
     int chunkIndex = 0;
     for (String chunk : contentChunks) {
@@ -87,61 +212,44 @@ public class RequirementKnowledgeService {
         metadata.put(METADATA_TAGS, String.join(",", document.getSafeTags()));
       }
       metadata.put(METADATA_CHUNK_INDEX, chunkIndex);
-      Document ragDocument =
-          new Document(document.getDocumentId() + "::" + chunkIndex, chunk, metadata);
+      Document ragDocument = new Document(chunkId(document, chunk), chunk, metadata);
       documents.add(ragDocument);
       chunkIndex++;
     }
     return documents;
   }
 
+  /**
+   * chunk id：{@code documentId::内容哈希}，标题或标签变化同样视为片段变化。
+   *
+   * <p>不含序号：前面插入段落只会新增变化的片段，后续内容未变的片段保持原 id；序号只记录在 metadata 中，为片段写入时的位置。
+   */
+  private String chunkId(RequirementKnowledgeDocument document, String chunk) {
+    String hash =
+        Hashing.sha256()
+            .newHasher()
+            .putString(Objects.toString(document.getTitle(), ""), StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(String.join(",", document.getSafeTags()), StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(chunk, StandardCharsets.UTF_8)
+            .hash()
+            .toString()
+            .substring(0, CHUNK_HASH_LENGTH);
+    return document.getDocumentId() + CHUNK_ID_SEPARATOR + hash;
+  }
+
   private void putIfText(Map<String, Object> metadata, String key, String value) {
     if (StringUtils.hasText(value)) {
       metadata.put(key, value);
     }
   }
 
-  /** 根据配置的 chunk 尺寸将文本分段，并尽量在换行处分割，减少语义断裂。 */
-  private List<String> splitIntoChunks(String content) {
-    if (content == null || content.isBlank()) return List.of();
-
-    int chunkSize = properties.getChunkSize();
-    int chunkOverlap = properties.getChunkOverlap();
-    int length = content.length();
-
-    if (length <= chunkSize) return List.of(content);
-
-    if (chunkSize <= 0) {
-      throw new IllegalArgumentException("chunkSize 必须大于 0");
-    }
-    if (chunkOverlap >= chunkSize) {
-      throw new IllegalArgumentException("chunkOverlap 不能大于或等于 chunkSize");
-    }
-
-    // 执行切分 (滑动窗口算法)
-    int step = chunkSize - chunkOverlap;
-    int estimatedChunks = (length / step) + 1;
-    var chunks = new ArrayList<String>(estimatedChunks);
-    int start = 0;
-    while (start < length) {
-      int end = Math.min(start + chunkSize, length);
-      var chunk = content.substring(start, end);
-      chunks.add(chunk);
-      if (end == length) {
-        break;
-      }
-      // 移动窗口指针
-      start += step;
-    }
-
-    return chunks;
-  }
-
   /** 清理旧的 chunk 记录，避免重复写入导致语义冲突或冗余向量。 */
   private void removeExistingChunks(String documentId) {
     String redisKey = buildRedisKey(documentId);
-    Set<String> existingChunkIds = stringRedisTemplate.opsForSet().members(redisKey);
-    if (CollectionUtils.isEmpty(existingChunkIds)) {
+    Set<String> existingChunkIds = existingChunkIds(documentId);
+    if (existingChunkIds.isEmpty()) {
       return;
     }
     try {
@@ -154,28 +262,76 @@ public class RequirementKnowledgeService {
     }
   }
 
-  /** 将 chunk id 写入 Redis，便于后续删除或同步操作直接获取需要清理的键。 */
-  private void cacheChunkIds(String documentId, List<Document> chunks) {
-    if (CollectionUtils.isEmpty(chunks)) {
-      return;
+  /**
+   * 读取文档现有的 chunk id：优先取 Redis 中的记录；没有记录时（历史数据的记录已过期或丢失）按 key 扫描向量库，
+   * 旧格式 {@code documentId::序号} 的片段同样能找到，避免残留为重复或过期的检索结果。
+   */
+  private Set<String> existingChunkIds(String documentId) {
+    Set<String> chunkIds = stringRedisTemplate.opsForSet().members(buildRedisKey(documentId));
+    if (!CollectionUtils.isEmpty(chunkIds)) {
+      return chunkIds;
     }
-    String redisKey = buildRedisKey(documentId);
-    List<String> chunkIds = new ArrayList<>();
-    for (Document doc : chunks) {
-      if (StringUtils.hasText(doc.getId())) {
-        chunkIds.add(doc.getId());
-      }
+    String keyPrefix = vectorKeyPrefix();
+    ScanOptions options =
+        ScanOptions.scanOptions()
+            .match(keyPrefix + escapeGlob(documentId) + CHUNK_ID_SEPARATOR + "*")
+            .count(1000)
+            .build();
+    Set<String> scanned = new HashSet<>();
+    try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+      cursor.forEachRemaining(key -> scanned.add(key.substring(keyPrefix.length())));
+    }
+    if (!scanned.isEmpty()) {
+      log.info("知识文档 {} 没有 chunk 记录，按 key 扫描到向量片段 {} 个", documentId, scanned.size());
     }
-    if (chunkIds.isEmpty()) {
+    return scanned;
+  }
+
+  /** 向量库中片段的 key 前缀，与 RedisVectorStore 的配置保持一致 */
+  private String vectorKeyPrefix() {
+    String prefix = vectorStoreProperties.getPrefix();
+    return StringUtils.hasText(prefix) ? prefix : RedisVectorStore.DEFAULT_PREFIX;
+  }
+
+  private static String escapeGlob(String value) {
+    return value.replaceAll("([*?\\[\\]\\\\])", "\\\\$1");
+  }
+
+  /** 删除已不存在的片段，删除成功后再从 Redis 记录中移除，失败时保留记录以便下次更新时重试 */
+  private void removeChunks(String documentId, List<String> chunkIds) {
+    if (CollectionUtils.isEmpty(chunkIds)) {
       return;
     }
-    stringRedisTemplate.opsForSet().add(redisKey, chunkIds.toArray(String[]::new));
-    Duration ttl = properties.getChunkKeyTtl();
-    if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
-      stringRedisTemplate.expire(redisKey, ttl);
+    try {
+      vectorStore.delete(chunkIds);
+    } catch (Exception ex) {
+      log.warn("删除旧片段失败: {}", documentId, ex);
+      return;
+    }
+    stringRedisTemplate.opsForSet().remove(buildRedisKey(documentId), chunkIds.toArray());
+  }
+
+  /**
+   * 将文档当前的全部 chunk id 写入 Redis，作为下次比对与删除的依据。
+   *
+   * <p>记录不设过期时间：记录丢失后只能退回扫描向量库，旧的过期时间在这里一并清除。
+   */
+  private void cacheChunkIds(String documentId, List<String> chunkIds) {
+    String redisKey = buildRedisKey(documentId);
+    if (!chunkIds.isEmpty()) {
+      stringRedisTemplate.opsForSet().add(redisKey, chunkIds.toArray(String[]::new));
+      stringRedisTemplate.persist(redisKey);
     }
   }
 
+  /** 单个文档的片段比对结果 */
+  private record ChunkDiff(
+      String documentId,
+      List<String> chunkIds,
+      int chunkCount,
+      List<Document> addedChunks,
+      List<String> removedChunkIds) {}
+
   /** 根据配置的前缀拼装 chunk 索引在 Redis 中的存储地址 */
   private String buildRedisKey(String documentId) {
     return properties.getRedisChunkKeyPrefix() + documentId;
@@ -288,14 +444,26 @@ public class RequirementKnowledgeService {
     return ordered;
   }
 
-  /** 为需求扩写构造可嵌入 Prompt 的上下文文本，防止标题重复。 */
-  public String buildContext(String query) {
+  /**
+   * 为需求扩写构造可嵌入 Prompt 的上下文文本，防止标题重复。
+   *
+   * <p>片段按检索排名依次拼接，超出 token 预算的低排名片段直接丢弃。
+   *
+   * @param query 检索文本
+   * @param maxTokens 上下文可用的 token 数
+   * @return 上下文文本，无匹配或预算不足时为空串
+   */
+  public String buildContext(String query, int maxTokens) {
+    if (maxTokens <= 0) {
+      return "";
+    }
     List<RequirementKnowledgeMatch> matches = search(query, null, null);
     if (CollectionUtils.isEmpty(matches)) {
       return "";
     }
     StringBuilder builder = new StringBuilder();
     Set<String> usedTitles = new HashSet<>();
+    int usedTokens = 0;
     for (int i = 0; i < matches.size(); i++) {
       RequirementKnowledgeMatch match = matches.get(i);
       String title =
@@ -307,6 +475,12 @@ public class RequirementKnowledgeService {
       }
       String block =
           "【" + title + "】" + System.lineSeparator() + match.getChunkContent().trim() + "\n\n";
+      int blockTokens = AiTokenEstimator.estimate(block);
+      if (usedTokens + blockTokens > maxTokens) {
+        log.info("RAG上下文超出预算 | 保留={} | 丢弃={} | 预算={}", i, matches.size() - i, maxTokens);
+        break;
+      }
+      usedTokens += blockTokens;
       builder.append(block);
     }
     return builder.toString().trim();
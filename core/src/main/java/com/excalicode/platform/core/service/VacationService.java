@@ -4,6 +4,7 @@ import com.excalicode.platform.core.ai.AiFunctionExecutor;
 import com.excalicode.platform.core.api.vacation.VacationDetailItem;
 import com.excalicode.platform.core.api.vacation.VacationDetailRequest;
 import com.excalicode.platform.core.api.vacation.VacationRecordRequest;
+import com.excalicode.platform.core.enums.AdmissionWorkload;
 import com.excalicode.platform.core.enums.AiFunctionType;
 import com.excalicode.platform.core.exception.BusinessException;
 import com.google.common.base.Splitter;
@@ -17,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -55,9 +57,10 @@ public class VacationService {
 
   private final AiFunctionExecutor aiFunctionExecutor;
   private final ExecutorService applicationExecutorService;
+  private final WorkloadAdmissionService admissionService;
 
   /**
-   * 一站式处理上传的Excel，直接生成休假数据表Excel文件
+   * 一站式处理上传的Excel，直接生成休假数据表Excel文件，排队请求过多时由准入控制直接拒绝
    *
    * @param file 上传的Excel
    * @return 休假数据表Excel二进制内容
@@ -68,7 +71,11 @@ public class VacationService {
       throw new BusinessException("Excel文件中没有需要处理的备注记录");
     }
 
-    List<VacationDetailRequest> detailRecords = buildVacationDetails(validRecords);
+    List<VacationDetailRequest> detailRecords;
+    try (WorkloadAdmissionService.Permit ignored =
+        admissionService.admit(AdmissionWorkload.VACATION)) {
+      detailRecords = buildVacationDetails(validRecords);
+    }
     if (detailRecords == null || detailRecords.isEmpty()) {
       throw new BusinessException("AI解析未生成有效的休假数据，请检查备注内容");
     }
@@ -290,7 +297,7 @@ public class VacationService {
 
     List<VacationDetailRequest> detailRecords = new ArrayList<>();
     for (CompletableFuture<List<VacationDetailRequest>> future : futures) {
-      List<VacationDetailRequest> partial = future.join();
+      List<VacationDetailRequest> partial = joinDetails(future);
       if (partial != null && !partial.isEmpty()) {
         detailRecords.addAll(partial);
       }
@@ -300,14 +307,27 @@ public class VacationService {
     return detailRecords;
   }
 
+  /** 等待单条记录的结果，AI 调用失败时原样抛出，整批处理失败而不是少生成记录 */
+  private List<VacationDetailRequest> joinDetails(
+      CompletableFuture<List<VacationDetailRequest>> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
   private List<VacationDetailRequest> buildDetailsForRecord(VacationRecordRequest record) {
     List<VacationDetailRequest> details = new ArrayList<>();
     if (record == null || record.getRemark() == null || record.getRemark().trim().isEmpty()) {
       return details;
     }
 
+    String correctedRemark = correctRemark(record.getRemark());
     try {
-      String correctedRemark = correctRemark(record.getRemark());
       details.addAll(convertToDetailRequests(record, correctedRemark));
     } catch (Exception ex) {
       log.error("处理休假记录失败：{} - {}", record.getName(), record.getIdCard(), ex);
@@ -326,11 +346,13 @@ public class VacationService {
       log.info("备注修正 - 原始: {}, 修正后: {}", remark, correctedRemark);
       return correctedRemark;
     } catch (NonTransientAiException ex) {
+      // 模型拒绝该输入，保留原始备注
       log.error("备注修正失败: {}", remark, ex);
       return remark;
-    } catch (Exception e) {
-      log.error("备注修正失败: {}", remark, e);
-      return remark;
+    } catch (RuntimeException ex) {
+      // 超时、调用繁忙等失败不能当作修正结果，否则会静默输出未修正的数据
+      log.error("备注修正失败，终止处理: {}", remark, ex);
+      throw ex;
     }
   }
 
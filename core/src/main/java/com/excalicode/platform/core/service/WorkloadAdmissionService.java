@@ -0,0 +1,203 @@
+package com.excalicode.platform.core.service;
+
+import com.excalicode.platform.core.config.AdmissionProperties;
+import com.excalicode.platform.core.enums.AdmissionWorkload;
+import com.excalicode.platform.core.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 工作负载准入控制。
+ *
+ * <p>按工作负载统计在途请求数与单次执行耗时（指数滑动平均），超出并发数的部分视为排队，预计等待时间 = 排在前面的轮数 ×
+ * 平均耗时。排队数或预计等待时间超出上限时直接拒绝并给出 Retry-After，不再把任务压进执行器或退回到请求线程执行。
+ *
+ * <p>指标：{@code admission.in_flight}、{@code admission.queued}、{@code
+ * admission.estimated_wait}（秒）与 {@code admission.decisions}（tag {@code outcome}），均带 {@code
+ * workload} tag。
+ */
+@Slf4j
+@Service
+public class WorkloadAdmissionService {
+
+  /** 耗时滑动平均的新样本权重 */
+  private static final double DURATION_SMOOTHING = 0.2;
+
+  private final AdmissionProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final Map<AdmissionWorkload, WorkloadState> states =
+      new EnumMap<>(AdmissionWorkload.class);
+
+  public WorkloadAdmissionService(AdmissionProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    for (AdmissionWorkload workload : AdmissionWorkload.values()) {
+      WorkloadState state =
+          new WorkloadState(properties.workload(workload).getInitialDuration().toNanos());
+      states.put(workload, state);
+      registerGauges(workload, state);
+    }
+  }
+
+  /**
+   * 申请准入许可，执行结束后必须关闭许可。
+   *
+   * @param workload 工作负载类型
+   * @return 准入许可
+   * @throws ServiceOverloadedException 排队数或预计等待时间超出上限
+   */
+  public Permit admit(AdmissionWorkload workload) {
+    WorkloadState state = states.get(workload);
+    AdmissionProperties.Workload config = properties.workload(workload);
+    int concurrency = Math.max(1, config.getMaxConcurrency());
+    int limit = concurrency + Math.max(0, config.getMaxQueued());
+    long maxWaitNanos = config.getMaxEstimatedWait().toNanos();
+    while (true) {
+      int current = state.inFlight.get();
+      if (properties.isEnabled()) {
+        long waitNanos = estimatedWaitNanos(state, current + 1, concurrency);
+        if (current >= limit || waitNanos > maxWaitNanos) {
+          throw reject(workload, state, current, concurrency, limit, waitNanos - maxWaitNanos);
+        }
+      }
+      if (state.inFlight.compareAndSet(current, current + 1)) {
+        record(workload, "admitted");
+        return new Permit(state);
+      }
+    }
+  }
+
+  /**
+   * 不做判断直接占用许可，用于启动时恢复已受理的任务：这些任务已经对用户承诺执行，只计入在途数。
+   *
+   * @param workload 工作负载类型
+   * @return 准入许可
+   */
+  public Permit admitUnconditionally(AdmissionWorkload workload) {
+    WorkloadState state = states.get(workload);
+    state.inFlight.incrementAndGet();
+    record(workload, "forced");
+    return new Permit(state);
+  }
+
+  /**
+   * 当前预计排队等待时间。
+   *
+   * @param workload 工作负载类型
+   * @return 新请求的预计等待时间
+   */
+  public Duration estimatedWait(AdmissionWorkload workload) {
+    WorkloadState state = states.get(workload);
+    int concurrency = Math.max(1, properties.workload(workload).getMaxConcurrency());
+    return Duration.ofNanos(estimatedWaitNanos(state, state.inFlight.get() + 1, concurrency));
+  }
+
+  /** 第 position 个请求前面排了几轮，每轮按平均耗时计 */
+  private long estimatedWaitNanos(WorkloadState state, int position, int concurrency) {
+    int queued = position - concurrency;
+    if (queued <= 0) {
+      return 0L;
+    }
+    long rounds = (queued + concurrency - 1) / concurrency;
+    return rounds * state.averageNanos.get();
+  }
+
+  /**
+   * 拒绝并计算 Retry-After：超出排队上限时按需要腾出的名额 × 平均每个名额释放的间隔估算，超出等待上限时按超出部分估算，取两者
+   * 较大值。
+   */
+  private ServiceOverloadedException reject(
+      AdmissionWorkload workload,
+      WorkloadState state,
+      int inFlight,
+      int concurrency,
+      int limit,
+      long excessWaitNanos) {
+    long perSlotNanos = state.averageNanos.get() / concurrency;
+    long byDepth = perSlotNanos * Math.max(1, inFlight + 1 - limit);
+    long retryNanos =
+        Math.clamp(
+            Math.max(byDepth, excessWaitNanos),
+            properties.getMinRetryAfter().toNanos(),
+            properties.getMaxRetryAfter().toNanos());
+    Duration retryAfter = Duration.ofSeconds(TimeUnit.NANOSECONDS.toSeconds(retryNanos - 1) + 1);
+    record(workload, "rejected");
+    log.warn(
+        "准入拒绝: workload={}, inFlight={}, retryAfter={}s",
+        workload.getCode(),
+        inFlight,
+        retryAfter.toSeconds());
+    return new ServiceOverloadedException(
+        String.format("当前排队请求较多，请在 %d 秒后重试", retryAfter.toSeconds()), retryAfter);
+  }
+
+  private void record(AdmissionWorkload workload, String outcome) {
+    Counter.builder("admission.decisions")
+        .description("准入判定次数")
+        .tags("workload", workload.getCode(), "outcome", outcome)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  private void registerGauges(AdmissionWorkload workload, WorkloadState state) {
+    int concurrency = Math.max(1, properties.workload(workload).getMaxConcurrency());
+    Gauge.builder("admission.in_flight", state, s -> s.inFlight.get())
+        .description("在途请求数（执行中与排队中）")
+        .tags("workload", workload.getCode())
+        .register(meterRegistry);
+    Gauge.builder("admission.queued", state, s -> Math.max(0, s.inFlight.get() - concurrency))
+        .description("超出并发数的排队请求数")
+        .tags("workload", workload.getCode())
+        .register(meterRegistry);
+    Gauge.builder("admission.estimated_wait", workload, w -> estimatedWait(w).toMillis() / 1000.0)
+        .description("新请求的预计排队等待时间")
+        .baseUnit("seconds")
+        .tags("workload", workload.getCode())
+        .register(meterRegistry);
+  }
+
+  /** 单个工作负载的在途数与平均耗时 */
+  private static final class WorkloadState {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong averageNanos;
+
+    private WorkloadState(long initialNanos) {
+      this.averageNanos = new AtomicLong(initialNanos);
+    }
+
+    private void complete(long elapsedNanos) {
+      inFlight.decrementAndGet();
+      averageNanos.updateAndGet(
+          previous -> previous + (long) ((elapsedNanos - previous) * DURATION_SMOOTHING));
+    }
+  }
+
+  /** 准入许可：关闭时释放在途名额并记录本次耗时，重复关闭无副作用。 */
+  public static final class Permit implements AutoCloseable {
+
+    private final WorkloadState state;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(WorkloadState state) {
+      this.state = state;
+    }
+
+    @Override
+    public void close() {
+      if (released.compareAndSet(false, true)) {
+        state.complete(System.nanoTime() - startNanos);
+      }
+    }
+  }
+}
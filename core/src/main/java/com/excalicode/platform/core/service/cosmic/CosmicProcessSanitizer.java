@@ -0,0 +1,118 @@
+package com.excalicode.platform.core.service.cosmic;
+
+import com.excalicode.platform.core.exception.BusinessException;
+import com.excalicode.platform.core.model.cosmic.CosmicProcess;
+import com.excalicode.platform.core.model.cosmic.CosmicProcessStep;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/** COSMIC 功能过程清洗：去除首尾空白、校验必填项并规范数据移动类型。 */
+public final class CosmicProcessSanitizer {
+
+  private static final Set<String> SUPPORTED_DATA_MOVEMENT_TYPES = Set.of("E", "R", "W", "X");
+
+  private CosmicProcessSanitizer() {}
+
+  /**
+   * 清洗 COSMIC 过程列表，返回新列表，不修改入参。
+   *
+   * @param processes 原始过程列表
+   * @return 清洗后的过程列表
+   */
+  public static List<CosmicProcess> sanitize(List<CosmicProcess> processes) {
+    if (CollectionUtils.isEmpty(processes)) {
+      throw new BusinessException("COSMIC过程列表不能为空");
+    }
+
+    List<CosmicProcess> sanitized = new ArrayList<>();
+    for (int processIndex = 0; processIndex < processes.size(); processIndex++) {
+      sanitized.add(sanitize(processes.get(processIndex), processIndex));
+    }
+
+    return sanitized;
+  }
+
+  /**
+   * 清洗单个 COSMIC 过程，流式输出时逐条调用。
+   *
+   * @param process 原始过程
+   * @param processIndex 过程序号（从 0 开始），用于错误提示
+   * @return 清洗后的过程
+   */
+  public static CosmicProcess sanitize(CosmicProcess process, int processIndex) {
+    if (process == null) {
+      throw new BusinessException(String.format("第 %d 个功能过程为空", processIndex + 1));
+    }
+
+    String triggerEvent = trimToEmpty(process.getTriggerEvent());
+    if (!StringUtils.hasText(triggerEvent)) {
+      throw new BusinessException(String.format("第 %d 个功能过程缺少触发事件", processIndex + 1));
+    }
+
+    String functionalProcess = trimToEmpty(process.getFunctionalProcess());
+    if (!StringUtils.hasText(functionalProcess)) {
+      throw new BusinessException(String.format("第 %d 个功能过程缺少功能过程名称", processIndex + 1));
+    }
+
+    List<CosmicProcessStep> steps = process.getProcessSteps();
+    if (CollectionUtils.isEmpty(steps)) {
+      throw new BusinessException(String.format("功能过程 \"%s\" 缺少子过程步骤", functionalProcess));
+    }
+
+    List<CosmicProcessStep> sanitizedSteps = new ArrayList<>();
+    for (int stepIndex = 0; stepIndex < steps.size(); stepIndex++) {
+      CosmicProcessStep step = steps.get(stepIndex);
+      sanitizedSteps.add(sanitizeStep(step, functionalProcess, stepIndex));
+    }
+
+    return CosmicProcess.builder()
+        .triggerEvent(triggerEvent)
+        .functionalProcess(functionalProcess)
+        .processSteps(sanitizedSteps)
+        .build();
+  }
+
+  private static CosmicProcessStep sanitizeStep(
+      CosmicProcessStep step, String functionalProcess, int stepIndex) {
+    // 必填:子过程描述
+    String subProcessDesc = trimToEmpty(step.getSubProcessDesc());
+    if (!StringUtils.hasText(subProcessDesc)) {
+      throw new BusinessException(
+          String.format("功能过程 \"%s\" 的第 %d 个子过程描述为空", functionalProcess, stepIndex + 1));
+    }
+
+    // 必填:数据移动类型
+    String dataMovementType =
+        normalizeMovementType(step.getDataMovementType(), functionalProcess, stepIndex);
+
+    // 选填:数据组(有就要合法)
+    String dataGroup = trimToEmpty(step.getDataGroup());
+
+    // 选填:数据属性
+    String dataAttributes = trimToEmpty(step.getDataAttributes());
+
+    return CosmicProcessStep.builder()
+        .subProcessDesc(subProcessDesc)
+        .dataMovementType(dataMovementType)
+        .dataGroup(dataGroup)
+        .dataAttributes(dataAttributes)
+        .build();
+  }
+
+  private static String normalizeMovementType(String value, String functionalProcess, int stepIndex) {
+    String normalized = trimToEmpty(value).toUpperCase();
+    if (!SUPPORTED_DATA_MOVEMENT_TYPES.contains(normalized)) {
+      throw new BusinessException(
+          String.format(
+              "功能过程 \"%s\" 的第 %d 个子过程数据移动类型无效: %s", functionalProcess, stepIndex + 1, value));
+    }
+    return normalized;
+  }
+
+  private static String trimToEmpty(String value) {
+    return value == null ? "" : value.trim();
+  }
+}
@@ -9,7 +9,7 @@ import java.util.List;
 public interface AiFunctionModelMappingService extends IService<AiFunctionModelMapping> {
 
   /**
-   * 根据功能类型查询模型ID
+   * 根据功能类型查询首选模型ID
    *
    * @param functionType 功能类型
    * @return 模型ID, 如果没有配置则返回 null
@@ -17,7 +17,15 @@ public interface AiFunctionModelMappingService extends IService<AiFunctionModelM
   Long getModelIdByFunctionType(AiFunctionType functionType);
 
   /**
-   * 设置功能类型的模型映射
+   * 根据功能类型按候选顺序查询全部模型ID
+   *
+   * @param functionType 功能类型
+   * @return 模型ID列表, 没有配置时返回空列表
+   */
+  List<Long> listModelIdsByFunctionType(AiFunctionType functionType);
+
+  /**
+   * 设置功能类型的模型映射 (只保留这一个模型)
    *
    * @param functionType 功能类型
    * @param modelId 模型ID
@@ -25,6 +33,15 @@ public interface AiFunctionModelMappingService extends IService<AiFunctionModelM
    */
   boolean setFunctionModelMapping(AiFunctionType functionType, Long modelId);
 
+  /**
+   * 设置功能类型的候选模型列表, 按列表顺序决定优先级, 不在列表中的旧映射会被删除
+   *
+   * @param functionType 功能类型
+   * @param modelIds 按优先级排列的模型ID
+   * @return 是否设置成功
+   */
+  boolean setFunctionModelMappings(AiFunctionType functionType, List<Long> modelIds);
+
   /**
    * 查询所有映射(带模型和厂商信息)
    *
@@ -24,6 +24,9 @@ public interface RequirementKnowledgeEntryService extends IService<RequirementKn
   /** 更新向量化状态 */
   boolean updateVectorState(String documentId, boolean vectorized);
 
+  /** 批量更新向量化状态（单条 SQL），返回更新的条目数 */
+  int updateVectorStateBatch(List<String> documentIds, boolean vectorized);
+
   /** 删除条目（逻辑删除） */
   boolean removeByDocumentId(String documentId);
 }
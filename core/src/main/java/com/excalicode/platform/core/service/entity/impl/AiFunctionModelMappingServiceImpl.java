@@ -13,9 +13,15 @@ import com.excalicode.platform.core.service.entity.AiModelService;
 import com.excalicode.platform.core.service.entity.AiProviderService;
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
 
 /** AI 功能-模型映射 Service 实现类 */
 @Service
@@ -29,44 +35,93 @@ public class AiFunctionModelMappingServiceImpl
 
   @Override
   public Long getModelIdByFunctionType(AiFunctionType functionType) {
+    List<Long> modelIds = listModelIdsByFunctionType(functionType);
+    return modelIds.isEmpty() ? null : modelIds.getFirst();
+  }
+
+  @Override
+  public List<Long> listModelIdsByFunctionType(AiFunctionType functionType) {
     if (functionType == null) {
-      return null;
+      return List.of();
     }
-
-    AiFunctionModelMapping mapping =
-        this.getOne(
-            new LambdaQueryWrapper<AiFunctionModelMapping>()
-                .eq(AiFunctionModelMapping::getFunctionType, functionType.getCode()));
-
-    return mapping != null ? mapping.getModelId() : null;
+    return listByFunctionType(functionType).stream()
+        .map(AiFunctionModelMapping::getModelId)
+        .toList();
   }
 
   @Override
-  @CacheEvict(value = CacheConfig.AI_FUNCTION_CONFIGS_CACHE, allEntries = true)
+  @Transactional(rollbackFor = Exception.class)
+  @CacheEvict(
+      value = {CacheConfig.AI_FUNCTION_CONFIGS_CACHE, CacheConfig.AI_RESPONSES_CACHE},
+      allEntries = true)
   public boolean setFunctionModelMapping(AiFunctionType functionType, Long modelId) {
-    if (functionType == null || modelId == null) {
+    if (modelId == null) {
       return false;
     }
+    return replaceMappings(functionType, List.of(modelId));
+  }
 
-    AiFunctionModelMapping existingMapping =
-        this.getOne(
-            new LambdaQueryWrapper<AiFunctionModelMapping>()
-                .eq(AiFunctionModelMapping::getFunctionType, functionType.getCode()));
-
-    if (existingMapping != null) {
-      existingMapping.setModelId(modelId);
-      return this.updateById(existingMapping);
-    } else {
-      AiFunctionModelMapping newMapping = new AiFunctionModelMapping();
-      newMapping.setFunctionType(functionType.getCode());
-      newMapping.setModelId(modelId);
-      return this.save(newMapping);
+  @Override
+  @Transactional(rollbackFor = Exception.class)
+  @CacheEvict(
+      value = {CacheConfig.AI_FUNCTION_CONFIGS_CACHE, CacheConfig.AI_RESPONSES_CACHE},
+      allEntries = true)
+  public boolean setFunctionModelMappings(AiFunctionType functionType, List<Long> modelIds) {
+    return replaceMappings(functionType, modelIds);
+  }
+
+  /** 按顺序写入候选模型：已有映射只更新顺序，新模型插入，不再使用的映射物理删除 */
+  private boolean replaceMappings(AiFunctionType functionType, List<Long> modelIds) {
+    if (functionType == null || CollectionUtils.isEmpty(modelIds)) {
+      return false;
     }
+    List<Long> orderedIds = modelIds.stream().filter(Objects::nonNull).distinct().toList();
+    if (orderedIds.isEmpty()) {
+      return false;
+    }
+
+    Map<Long, AiFunctionModelMapping> existing =
+        listByFunctionType(functionType).stream()
+            .collect(Collectors.toMap(AiFunctionModelMapping::getModelId, Function.identity()));
+
+    for (int i = 0; i < orderedIds.size(); i++) {
+      Long modelId = orderedIds.get(i);
+      AiFunctionModelMapping mapping = existing.remove(modelId);
+      if (mapping != null) {
+        mapping.setSortOrder(i);
+        this.updateById(mapping);
+      } else {
+        AiFunctionModelMapping newMapping = new AiFunctionModelMapping();
+        newMapping.setFunctionType(functionType.getCode());
+        newMapping.setModelId(modelId);
+        newMapping.setSortOrder(i);
+        this.save(newMapping);
+      }
+    }
+
+    if (!existing.isEmpty()) {
+      baseMapper.deletePhysicallyByIds(
+          existing.values().stream().map(AiFunctionModelMapping::getId).toList());
+    }
+    return true;
+  }
+
+  private List<AiFunctionModelMapping> listByFunctionType(AiFunctionType functionType) {
+    return this.list(
+        new LambdaQueryWrapper<AiFunctionModelMapping>()
+            .eq(AiFunctionModelMapping::getFunctionType, functionType.getCode())
+            .orderByAsc(AiFunctionModelMapping::getSortOrder)
+            .orderByAsc(AiFunctionModelMapping::getId));
   }
 
   @Override
   public List<AiFunctionModelMapping> listAllMappingsWithModel() {
-    List<AiFunctionModelMapping> mappings = this.list();
+    List<AiFunctionModelMapping> mappings =
+        this.list(
+            new LambdaQueryWrapper<AiFunctionModelMapping>()
+                .orderByAsc(AiFunctionModelMapping::getFunctionType)
+                .orderByAsc(AiFunctionModelMapping::getSortOrder)
+                .orderByAsc(AiFunctionModelMapping::getId));
 
     for (AiFunctionModelMapping mapping : mappings) {
       AiModel model = aiModelService.getById(mapping.getModelId());
@@ -81,8 +136,14 @@ public class AiFunctionModelMappingServiceImpl
   }
 
   @Override
-  @CacheEvict(value = CacheConfig.AI_FUNCTION_CONFIGS_CACHE, allEntries = true)
+  @CacheEvict(
+      value = {CacheConfig.AI_FUNCTION_CONFIGS_CACHE, CacheConfig.AI_RESPONSES_CACHE},
+      allEntries = true)
   public boolean removeById(Serializable id) {
-    return super.removeById(id);
+    return id != null && baseMapper.deletePhysicallyByIds(List.of(toLong(id))) > 0;
+  }
+
+  private static Long toLong(Serializable id) {
+    return id instanceof Number number ? number.longValue() : Long.valueOf(id.toString());
   }
 }
@@ -37,7 +37,9 @@ public class AiFunctionPromptMappingServiceImpl
   }
 
   @Override
-  @CacheEvict(value = CacheConfig.AI_FUNCTION_CONFIGS_CACHE, allEntries = true)
+  @CacheEvict(
+      value = {CacheConfig.AI_FUNCTION_CONFIGS_CACHE, CacheConfig.AI_RESPONSES_CACHE},
+      allEntries = true)
   public boolean setFunctionPromptMapping(String functionCode, String promptCode) {
     if (functionCode == null
         || functionCode.trim().isEmpty()
@@ -79,7 +81,9 @@ public class AiFunctionPromptMappingServiceImpl
   }
 
   @Override
-  @CacheEvict(value = CacheConfig.AI_FUNCTION_CONFIGS_CACHE, allEntries = true)
+  @CacheEvict(
+      value = {CacheConfig.AI_FUNCTION_CONFIGS_CACHE, CacheConfig.AI_RESPONSES_CACHE},
+      allEntries = true)
   public boolean deleteFunctionPromptMapping(String functionCode, String promptCode) {
     if (functionCode == null
         || functionCode.trim().isEmpty()
@@ -44,7 +44,11 @@ public class AiPromptTemplateServiceImpl
 
   @Override
   @CacheEvict(
-      value = {CacheConfig.PROMPTS_CACHE, CacheConfig.AI_FUNCTION_CONFIGS_CACHE},
+      value = {
+        CacheConfig.PROMPTS_CACHE,
+        CacheConfig.AI_FUNCTION_CONFIGS_CACHE,
+        CacheConfig.AI_RESPONSES_CACHE
+      },
       allEntries = true)
   public boolean saveOrUpdatePrompt(AiPromptTemplate promptTemplate) {
     if (promptTemplate == null) {
@@ -66,7 +70,11 @@ public class AiPromptTemplateServiceImpl
 
   @Override
   @CacheEvict(
-      value = {CacheConfig.PROMPTS_CACHE, CacheConfig.AI_FUNCTION_CONFIGS_CACHE},
+      value = {
+        CacheConfig.PROMPTS_CACHE,
+        CacheConfig.AI_FUNCTION_CONFIGS_CACHE,
+        CacheConfig.AI_RESPONSES_CACHE
+      },
       allEntries = true)
   public boolean removeById(java.io.Serializable id) {
     return super.removeById(id);
@@ -2,6 +2,8 @@ package com.excalicode.platform.core.service.entity.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.excalicode.platform.core.ai.AiProviderClientRegistry;
+import com.excalicode.platform.core.config.CacheConfig;
 import com.excalicode.platform.core.entity.AiModel;
 import com.excalicode.platform.core.entity.AiProvider;
 import com.excalicode.platform.core.mapper.AiProviderMapper;
@@ -9,6 +11,7 @@ import com.excalicode.platform.core.service.entity.AiModelService;
 import com.excalicode.platform.core.service.entity.AiProviderService;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +22,7 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
     implements AiProviderService {
 
   private final AiModelService aiModelService;
+  private final AiProviderClientRegistry providerClientRegistry;
 
   @Override
   public List<AiProvider> listProvidersWithModels() {
@@ -31,11 +35,21 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
     return providers;
   }
 
+  @Override
+  @CacheEvict(value = CacheConfig.AI_FUNCTION_CONFIGS_CACHE, allEntries = true)
+  public boolean updateById(AiProvider entity) {
+    boolean updated = super.updateById(entity);
+    providerClientRegistry.evict(entity.getId());
+    return updated;
+  }
+
   @Override
   @Transactional(rollbackFor = Exception.class)
+  @CacheEvict(value = CacheConfig.AI_FUNCTION_CONFIGS_CACHE, allEntries = true)
   public void removeProviderWithModels(Long providerId) {
     aiModelService.remove(new LambdaQueryWrapper<AiModel>().eq(AiModel::getProviderId, providerId));
     this.removeById(providerId);
+    providerClientRegistry.evict(providerId);
   }
 
   /** 掩码 API Key, 防止泄露 只保留前4位和后4位, 中间用 *** 代替 */
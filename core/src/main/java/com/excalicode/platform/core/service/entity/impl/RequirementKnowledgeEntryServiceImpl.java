@@ -1,6 +1,7 @@
 package com.excalicode.platform.core.service.entity.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.excalicode.platform.core.entity.RequirementKnowledgeEntry;
 import com.excalicode.platform.core.exception.BusinessException;
@@ -112,6 +113,21 @@ public class RequirementKnowledgeEntryServiceImpl
     return this.updateById(existing);
   }
 
+  @Override
+  public int updateVectorStateBatch(List<String> documentIds, boolean vectorized) {
+    if (CollectionUtils.isEmpty(documentIds)) {
+      return 0;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    return this.baseMapper.update(
+        null,
+        new LambdaUpdateWrapper<RequirementKnowledgeEntry>()
+            .in(RequirementKnowledgeEntry::getDocumentId, documentIds)
+            .set(RequirementKnowledgeEntry::getVectorized, vectorized ? 1 : 0)
+            .set(RequirementKnowledgeEntry::getVectorUpdatedTime, vectorized ? now : null)
+            .set(RequirementKnowledgeEntry::getUpdatedTime, now));
+  }
+
   @Override
   public boolean removeByDocumentId(String documentId) {
     if (!StringUtils.hasText(documentId)) {
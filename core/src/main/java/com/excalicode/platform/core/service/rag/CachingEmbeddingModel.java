@@ -0,0 +1,375 @@
+package com.excalicode.platform.core.service.rag;
+
+import com.excalicode.platform.core.config.CacheConfig;
+import com.excalicode.platform.core.config.RequirementRagProperties;
+import com.excalicode.platform.core.service.DistributedRateLimiter;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 带内容哈希缓存的 EmbeddingModel。
+ *
+ * <p>以「模型名 + 文本」的 SHA-256 为键，将向量写入 Redis：重新向量化只修改了个别段落的文档，或调整切片参数后全量重建时，
+ * 内容未变的片段直接命中缓存，只有变化的片段才调用上游接口。缓存按 {@link
+ * RequirementRagProperties#getEmbeddingCacheTtl()} 过期，命中时顺延，长期不用的向量自然淘汰。Redis 不可用时退回直接调用。
+ *
+ * <p>检索时向量库以单条查询文本调用 {@link #embed(String)}，查询向量先查本地缓存 {@link
+ * CacheConfig#QUERY_EMBEDDINGS_CACHE}，同一需求反复增强或重复检索时不再经过网络。
+ *
+ * <p>每次真正调用上游前都从集群共享的令牌桶取许可（{@link DistributedRateLimiter#EMBEDDING}），写入、批量向量化与检索都受限流约束，
+ * 命中缓存不占用许可。
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final EmbeddingModel delegate;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheManager cacheManager;
+  private final DistributedRateLimiter rateLimiter;
+  private final RequirementRagProperties properties;
+  private final String defaultModel;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+  private final Counter queryHitCounter;
+  private final Counter queryMissCounter;
+
+  /** 当前线程已算好的片段向量，向量库写入时优先使用，见 {@link #withVectors(Map, Runnable)} */
+  private final ThreadLocal<Map<String, float[]>> precomputedVectors = new ThreadLocal<>();
+
+  /**
+   * @param delegate 实际调用上游的 EmbeddingModel
+   * @param stringRedisTemplate Redis 客户端
+   * @param cacheManager 本地缓存管理器，提供查询向量缓存
+   * @param rateLimiter 上游 Embedding 接口限流
+   * @param properties RAG 配置
+   * @param defaultModel 请求未指定模型时使用的模型名
+   * @param meterRegistry 指标注册表
+   */
+  public CachingEmbeddingModel(
+      EmbeddingModel delegate,
+      StringRedisTemplate stringRedisTemplate,
+      CacheManager cacheManager,
+      DistributedRateLimiter rateLimiter,
+      RequirementRagProperties properties,
+      String defaultModel,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.cacheManager = cacheManager;
+    this.rateLimiter = rateLimiter;
+    this.properties = properties;
+    this.defaultModel = defaultModel;
+    this.hitCounter = cacheCounter(meterRegistry, "rag.embedding.cache", "hit");
+    this.missCounter = cacheCounter(meterRegistry, "rag.embedding.cache", "miss");
+    this.queryHitCounter = cacheCounter(meterRegistry, "rag.query_embedding.cache", "hit");
+    this.queryMissCounter = cacheCounter(meterRegistry, "rag.query_embedding.cache", "miss");
+  }
+
+  @Override
+  public EmbeddingResponse call(EmbeddingRequest request) {
+    if (!properties.isEmbeddingCacheEnabled()
+        || CollectionUtils.isEmpty(request.getInstructions())) {
+      return callUpstream(request);
+    }
+    List<String> texts = request.getInstructions();
+    String model = resolveModel(request.getOptions());
+    List<String> keys = texts.stream().map(text -> cacheKey(model, text)).toList();
+    List<float[]> vectors = readCache(keys);
+
+    List<Integer> missing = new ArrayList<>();
+    for (int i = 0; i < vectors.size(); i++) {
+      if (vectors.get(i) == null) {
+        missing.add(i);
+      }
+    }
+    hitCounter.increment(texts.size() - missing.size());
+    missCounter.increment(missing.size());
+
+    EmbeddingResponse upstream = null;
+    if (!missing.isEmpty()) {
+      List<String> missingTexts = missing.stream().map(texts::get).toList();
+      upstream = callUpstream(new EmbeddingRequest(missingTexts, request.getOptions()));
+      List<Embedding> results = upstream.getResults();
+      if (results.size() != missing.size()) {
+        throw new IllegalStateException(
+            String.format(
+                "Embedding 返回数量不符: 请求 %d 条，返回 %d 条", missing.size(), results.size()));
+      }
+      List<String> missingKeys = new ArrayList<>(missing.size());
+      List<float[]> missingVectors = new ArrayList<>(missing.size());
+      for (int i = 0; i < results.size(); i++) {
+        Embedding embedding = results.get(i);
+        int position = embedding.getIndex() != null ? embedding.getIndex() : i;
+        int target = missing.get(position);
+        vectors.set(target, embedding.getOutput());
+        missingKeys.add(keys.get(target));
+        missingVectors.add(embedding.getOutput());
+      }
+      writeCache(missingKeys, missingVectors);
+    }
+
+    List<Embedding> embeddings = new ArrayList<>(vectors.size());
+    for (int i = 0; i < vectors.size(); i++) {
+      embeddings.add(new Embedding(vectors.get(i), i));
+    }
+    return upstream != null
+        ? new EmbeddingResponse(embeddings, upstream.getMetadata())
+        : new EmbeddingResponse(embeddings);
+  }
+
+  /**
+   * 过滤出缓存中还没有向量的文本，批量向量化据此只为真正需要调用上游的文本打包请求。
+   *
+   * @param texts 待向量化文本
+   * @return 未命中缓存的文本（保持原顺序，已去重）；未开启缓存时返回去重后的全部文本
+   */
+  public List<String> uncached(List<String> texts) {
+    if (CollectionUtils.isEmpty(texts)) {
+      return List.of();
+    }
+    List<String> distinct = texts.stream().distinct().toList();
+    if (!properties.isEmbeddingCacheEnabled()) {
+      return distinct;
+    }
+    List<String> keys = distinct.stream().map(text -> cacheKey(defaultModel, text)).toList();
+    List<String> values;
+    try {
+      values = stringRedisTemplate.opsForValue().multiGet(keys);
+    } catch (Exception ex) {
+      log.warn("读取 Embedding 缓存失败: {}", ex.getMessage());
+      return distinct;
+    }
+    List<String> missing = new ArrayList<>();
+    for (int i = 0; i < distinct.size(); i++) {
+      if (values == null || values.get(i) == null) {
+        missing.add(distinct.get(i));
+      }
+    }
+    return missing;
+  }
+
+  /**
+   * 查询向量：空白归一化后按「模型名 + 文本」查本地缓存，未命中直接调用上游。
+   *
+   * <p>只归一化空白、不改大小写，保证缓存的向量与直接计算的一致。查询不经过 Redis 片段缓存，避免一次性的查询文本挤占片段向量的空间。
+   */
+  @Override
+  public float[] embed(String text) {
+    Cache cache = properties.isQueryEmbeddingCacheEnabled() ? queryCache() : null;
+    if (cache == null || !StringUtils.hasText(text)) {
+      return embedQuery(text);
+    }
+    String query = WHITESPACE.matcher(text.strip()).replaceAll(" ");
+    String key = cacheKey(defaultModel, query);
+    float[] cached = cache.get(key, float[].class);
+    if (cached != null) {
+      queryHitCounter.increment();
+      return cached;
+    }
+    queryMissCounter.increment();
+    float[] vector = embedQuery(query);
+    cache.put(key, vector);
+    return vector;
+  }
+
+  private float[] embedQuery(String query) {
+    EmbeddingResponse response = callUpstream(new EmbeddingRequest(List.of(query), null));
+    return response.getResults().getFirst().getOutput();
+  }
+
+  /** 片段向量不进查询缓存，避免写入时挤掉热点查询 */
+  @Override
+  public float[] embed(Document document) {
+    return EmbeddingModel.super.embed(document.getText());
+  }
+
+  /**
+   * 在当前线程内执行向量库写入，写入时片段正文命中 {@code vectors} 的直接使用其向量，不再读缓存或调用上游。
+   *
+   * <p>批量向量化先算好向量再写入向量库，而向量库写入时会重新计算向量；借此保证已算好的向量不因缓存未开启、Redis 写入失败或过期
+   * 而重复调用上游。
+   *
+   * @param vectors 片段正文到向量的映射
+   * @param write 向量库写入操作
+   */
+  public void withVectors(Map<String, float[]> vectors, Runnable write) {
+    precomputedVectors.set(vectors);
+    try {
+      write.run();
+    } finally {
+      precomputedVectors.remove();
+    }
+  }
+
+  /** 向量库写入时按片段正文计算向量，与 {@link #uncached(List)} 使用相同的缓存键 */
+  @Override
+  public List<float[]> embed(
+      List<Document> documents, EmbeddingOptions options, BatchingStrategy batchingStrategy) {
+    Map<String, float[]> precomputed = precomputedVectors.get();
+    List<float[]> embeddings = new ArrayList<>(documents.size());
+    for (List<Document> batch : batchingStrategy.batch(documents)) {
+      List<String> texts = batch.stream().map(Document::getText).toList();
+      List<String> missing =
+          precomputed != null
+              ? texts.stream().filter(text -> !precomputed.containsKey(text)).toList()
+              : texts;
+      List<Embedding> results =
+          missing.isEmpty()
+              ? List.of()
+              : call(new EmbeddingRequest(missing, options)).getResults();
+      int next = 0;
+      for (String text : texts) {
+        float[] vector = precomputed != null ? precomputed.get(text) : null;
+        embeddings.add(vector != null ? vector : results.get(next++).getOutput());
+      }
+    }
+    return embeddings;
+  }
+
+  @Override
+  public int dimensions() {
+    return delegate.dimensions();
+  }
+
+  /** 取得限流许可后调用上游 */
+  private EmbeddingResponse callUpstream(EmbeddingRequest request) {
+    rateLimiter.acquire(DistributedRateLimiter.EMBEDDING);
+    return delegate.call(request);
+  }
+
+  private String resolveModel(EmbeddingOptions options) {
+    String model = options != null ? options.getModel() : null;
+    return StringUtils.hasText(model) ? model : defaultModel;
+  }
+
+  private String cacheKey(String model, String text) {
+    String hash =
+        Hashing.sha256()
+            .newHasher()
+            .putString(model, StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(text, StandardCharsets.UTF_8)
+            .hash()
+            .toString();
+    return properties.getEmbeddingCacheKeyPrefix() + hash;
+  }
+
+  /** 批量读取缓存，未命中的位置为 null；命中的键顺延过期时间 */
+  private List<float[]> readCache(List<String> keys) {
+    List<float[]> vectors = new ArrayList<>(keys.size());
+    List<String> hitKeys = new ArrayList<>();
+    try {
+      List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+      for (int i = 0; i < keys.size(); i++) {
+        String value = values != null ? values.get(i) : null;
+        vectors.add(value != null ? decode(value) : null);
+        if (value != null) {
+          hitKeys.add(keys.get(i));
+        }
+      }
+    } catch (Exception ex) {
+      log.warn("读取 Embedding 缓存失败: {}", ex.getMessage());
+      vectors.clear();
+      keys.forEach(key -> vectors.add(null));
+      return vectors;
+    }
+    Duration ttl = properties.getEmbeddingCacheTtl();
+    if (!hitKeys.isEmpty() && isPositive(ttl)) {
+      try {
+        stringRedisTemplate.executePipelined(
+            (RedisCallback<Object>)
+                connection -> {
+                  StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                  hitKeys.forEach(key -> stringConnection.expire(key, ttl.toSeconds()));
+                  return null;
+                });
+      } catch (Exception ex) {
+        log.warn("顺延 Embedding 缓存过期时间失败: {}", ex.getMessage());
+      }
+    }
+    return vectors;
+  }
+
+  /** 以流水线批量写入缓存 */
+  private void writeCache(List<String> keys, List<float[]> vectors) {
+    Duration ttl = properties.getEmbeddingCacheTtl();
+    Expiration expiration = isPositive(ttl) ? Expiration.from(ttl) : Expiration.persistent();
+    try {
+      stringRedisTemplate.executePipelined(
+          (RedisCallback<Object>)
+              connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (int i = 0; i < keys.size(); i++) {
+                  stringConnection.set(
+                      keys.get(i),
+                      encode(vectors.get(i)),
+                      expiration,
+                      RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+              });
+    } catch (Exception ex) {
+      log.warn("写入 Embedding 缓存失败: {}", ex.getMessage());
+    }
+  }
+
+  private static boolean isPositive(Duration ttl) {
+    return ttl != null && !ttl.isZero() && !ttl.isNegative();
+  }
+
+  /** float 数组按小端字节序编码为 Base64 */
+  private static String encode(float[] vector) {
+    ByteBuffer buffer =
+        ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.asFloatBuffer().put(vector);
+    return Base64.getEncoder().encodeToString(buffer.array());
+  }
+
+  private static float[] decode(String value) {
+    ByteBuffer buffer =
+        ByteBuffer.wrap(Base64.getDecoder().decode(value)).order(ByteOrder.LITTLE_ENDIAN);
+    float[] vector = new float[buffer.remaining() / Float.BYTES];
+    buffer.asFloatBuffer().get(vector);
+    return vector;
+  }
+
+  private Cache queryCache() {
+    return cacheManager.getCache(CacheConfig.QUERY_EMBEDDINGS_CACHE);
+  }
+
+  private static Counter cacheCounter(MeterRegistry meterRegistry, String name, String result) {
+    return Counter.builder(name)
+        .description("Embedding 缓存命中情况")
+        .tags("result", result)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,51 @@
+package com.excalicode.platform.core.service.rag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** 需求知识文档分段：按固定尺寸滑动窗口切分，相邻片段保留重叠部分，减少语义断裂。 */
+public final class RequirementChunkSplitter {
+
+  private RequirementChunkSplitter() {}
+
+  /**
+   * 按 chunk 尺寸将文本分段。
+   *
+   * @param content 文本内容
+   * @param chunkSize 片段最大长度
+   * @param chunkOverlap 相邻片段重叠长度
+   * @return 片段列表，内容为空时返回空列表
+   */
+  public static List<String> split(String content, int chunkSize, int chunkOverlap) {
+    if (content == null || content.isBlank()) return List.of();
+
+    int length = content.length();
+
+    if (length <= chunkSize) return List.of(content);
+
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize 必须大于 0");
+    }
+    if (chunkOverlap >= chunkSize) {
+      throw new IllegalArgumentException("chunkOverlap 不能大于或等于 chunkSize");
+    }
+
+    // 执行切分 (滑动窗口算法)
+    int step = chunkSize - chunkOverlap;
+    int estimatedChunks = (length / step) + 1;
+    var chunks = new ArrayList<String>(estimatedChunks);
+    int start = 0;
+    while (start < length) {
+      int end = Math.min(start + chunkSize, length);
+      var chunk = content.substring(start, end);
+      chunks.add(chunk);
+      if (end == length) {
+        break;
+      }
+      // 移动窗口指针
+      start += step;
+    }
+
+    return chunks;
+  }
+}
@@ -105,6 +105,13 @@ export const ENDPOINTS = Object.freeze({
     ENTRIES: '/api/requirement/knowledge/entries',
     IMPORT: '/api/requirement/knowledge/entries/import',
     VECTORIZE_ALL: '/api/requirement/knowledge/entries/vectorize',
+    VECTORIZE_JOB_LATEST: '/api/requirement/knowledge/vectorize-jobs/latest',
+    VECTORIZE_JOB: (jobId) =>
+      `/api/requirement/knowledge/vectorize-jobs/${jobId}`,
+    VECTORIZE_JOB_CANCEL: (jobId) =>
+      `/api/requirement/knowledge/vectorize-jobs/${jobId}/cancel`,
+    VECTORIZE_JOB_RESUME: (jobId) =>
+      `/api/requirement/knowledge/vectorize-jobs/${jobId}/resume`,
     ENTRY_DETAIL: (documentId) =>
       `/api/requirement/knowledge/entries/${documentId}`,
     VECTORIZE: (documentId) =>
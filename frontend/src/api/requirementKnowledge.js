@@ -32,6 +32,18 @@ export const vectorizeKnowledgeEntry = (documentId) =>
 export const vectorizeAllKnowledgeEntries = () =>
   request.post(ENDPOINTS.REQUIREMENT_KNOWLEDGE.VECTORIZE_ALL);
 
+export const getLatestVectorizeJob = () =>
+  request.get(ENDPOINTS.REQUIREMENT_KNOWLEDGE.VECTORIZE_JOB_LATEST);
+
+export const getVectorizeJob = (jobId) =>
+  request.get(ENDPOINTS.REQUIREMENT_KNOWLEDGE.VECTORIZE_JOB(jobId));
+
+export const cancelVectorizeJob = (jobId) =>
+  request.post(ENDPOINTS.REQUIREMENT_KNOWLEDGE.VECTORIZE_JOB_CANCEL(jobId));
+
+export const resumeVectorizeJob = (jobId) =>
+  request.post(ENDPOINTS.REQUIREMENT_KNOWLEDGE.VECTORIZE_JOB_RESUME(jobId));
+
 export const deleteKnowledgeVector = (documentId) =>
   request.delete(ENDPOINTS.REQUIREMENT_KNOWLEDGE.DELETE_VECTOR(documentId));
 
@@ -47,6 +59,10 @@ export default {
   updateKnowledgeEntry,
   vectorizeKnowledgeEntry,
   vectorizeAllKnowledgeEntries,
+  getLatestVectorizeJob,
+  getVectorizeJob,
+  cancelVectorizeJob,
+  resumeVectorizeJob,
   deleteKnowledgeVector,
   deleteKnowledgeEntry,
   searchKnowledgeDocuments,
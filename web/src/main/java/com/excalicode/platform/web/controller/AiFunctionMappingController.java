@@ -9,6 +9,7 @@ import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -37,7 +38,10 @@ public class AiFunctionMappingController {
   @PostMapping("/set")
   public ResponseEntity<Void> setMapping(@RequestBody SetFunctionMappingRequest request) {
     log.info(
-        "设置功能映射: functionType={}, modelId={}", request.getFunctionType(), request.getModelId());
+        "设置功能映射: functionType={}, modelId={}, modelIds={}",
+        request.getFunctionType(),
+        request.getModelId(),
+        request.getModelIds());
 
     Optional<AiFunctionType> aiFunctionType = AiFunctionType.fromCode(request.getFunctionType());
     if (aiFunctionType.isEmpty()) {
@@ -45,7 +49,10 @@ public class AiFunctionMappingController {
     }
     AiFunctionType functionType = aiFunctionType.get();
 
-    boolean success = mappingService.setFunctionModelMapping(functionType, request.getModelId());
+    boolean success =
+        CollectionUtils.isEmpty(request.getModelIds())
+            ? mappingService.setFunctionModelMapping(functionType, request.getModelId())
+            : mappingService.setFunctionModelMappings(functionType, request.getModelIds());
     if (success) {
       return ResponseEntity.ok().build();
     } else {
@@ -22,6 +22,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 /** ChatBI */
 @RestController
@@ -32,12 +33,13 @@ public class ChatBiController {
   private final ChatBiService chatBiService;
   private final SysUserService sysUserService;
 
-  /** 提问。 */
+  /** 提问：等待模型生成期间不占用请求线程。 */
   @PostMapping("/ask")
   @PreAuthorize("hasAnyRole('USER','ADMIN')")
-  public ResponseEntity<ChatBiAskResponse> ask(@RequestBody @Valid ChatBiAskRequest request) {
+  public Mono<ResponseEntity<ChatBiAskResponse>> ask(
+      @RequestBody @Valid ChatBiAskRequest request) {
     SysUser currentUser = requireCurrentUser();
-    return ResponseEntity.ok(chatBiService.ask(request, currentUser));
+    return chatBiService.ask(request, currentUser).map(ResponseEntity::ok);
   }
 
   /** 当前用户会话列表。 */
@@ -12,6 +12,7 @@ import com.excalicode.platform.core.api.cosmic.RequirementEnhanceRequest;
 import com.excalicode.platform.core.api.cosmic.SequenceDiagramRequest;
 import com.excalicode.platform.core.entity.SysUser;
 import com.excalicode.platform.core.exception.BusinessException;
+import com.excalicode.platform.core.model.cosmic.CosmicProcess;
 import com.excalicode.platform.core.service.CosmicAnalysisTaskService;
 import com.excalicode.platform.core.service.CosmicService;
 import com.excalicode.platform.core.service.entity.SysUserService;
@@ -41,6 +42,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /** COSMIC 需求管理控制器 */
 @Slf4j
@@ -61,10 +63,9 @@ public class CosmicController {
 
   /** 生成功能过程 */
   @PostMapping("/process/breakdown")
-  public ResponseEntity<ProcessBreakdownResponse> breakdownProcess(
+  public Mono<ResponseEntity<ProcessBreakdownResponse>> breakdownProcess(
       @RequestBody @Valid ProcessBreakdownRequest request) {
-    ProcessBreakdownResponse result = cosmicService.breakdownProcess(request);
-    return ResponseEntity.ok(result);
+    return cosmicService.breakdownProcess(request).map(ResponseEntity::ok);
   }
 
   /** 导入功能过程 */
@@ -83,7 +84,7 @@ public class CosmicController {
     return ResponseEntity.ok(result);
   }
 
-  /** 生成子过程：使用一次性生成所有字段的方式。 */
+  /** 生成子过程：功能过程较多时分组并行生成。 */
   @PostMapping("/cosmic/analyze")
   public ResponseEntity<AnalysisResponse> analyzeRequirement(
       @RequestBody @Valid CosmicAnalysisRequest request) {
@@ -91,6 +92,13 @@ public class CosmicController {
     return ResponseEntity.ok(result);
   }
 
+  /** 流式生成子过程：每解析出一个功能过程即推送一条 SSE 事件。 */
+  @PostMapping(value = "/cosmic/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<CosmicProcess> streamAnalyzeRequirement(
+      @RequestBody @Valid CosmicAnalysisRequest request) {
+    return cosmicService.streamAnalyzeRequirement(request);
+  }
+
   /** 异步生成子过程：提交任务 */
   @PostMapping("/cosmic/analyze/task")
   @PreAuthorize("hasAnyRole('USER','ADMIN')")
@@ -139,18 +147,16 @@ public class CosmicController {
 
   /** 生成文档预览内容 */
   @PostMapping("/cosmic/documents/preview")
-  public ResponseEntity<String> generateDocumentPreview(
+  public Mono<ResponseEntity<String>> generateDocumentPreview(
       @RequestBody @Valid DocumentPreviewRequest request) {
-    String content = cosmicService.generateDocumentPreview(request);
-    return ResponseEntity.ok(content);
+    return cosmicService.generateDocumentPreview(request).map(ResponseEntity::ok);
   }
 
   /** 生成时序图（Mermaid） */
   @PostMapping("/cosmic/sequence-diagram")
-  public ResponseEntity<String> generateSequenceDiagram(
+  public Mono<ResponseEntity<String>> generateSequenceDiagram(
       @RequestBody @Valid SequenceDiagramRequest request) {
-    String diagram = cosmicService.generateSequenceDiagram(request);
-    return ResponseEntity.ok(diagram);
+    return cosmicService.generateSequenceDiagram(request).map(ResponseEntity::ok);
   }
 
   /** 锐评大师：上传 COSMIC 子过程表格，流式输出锐评结果 */
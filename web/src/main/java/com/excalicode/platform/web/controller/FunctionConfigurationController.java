@@ -56,7 +56,8 @@ public class FunctionConfigurationController {
         aiFunctionModelMappingService.listAllMappingsWithModel();
     Map<String, AiFunctionModelMapping> result = new LinkedHashMap<>();
     for (AiFunctionModelMapping mapping : modelMappings) {
-      result.put(mapping.getFunctionType(), mapping);
+      // 多候选时按顺序排列，展示首选模型
+      result.putIfAbsent(mapping.getFunctionType(), mapping);
     }
     return result;
   }
@@ -1,5 +1,6 @@
 package com.excalicode.platform.web.controller;
 
+import com.excalicode.platform.core.api.rag.KnowledgeVectorizeJobResponse;
 import com.excalicode.platform.core.api.rag.RequirementKnowledgeEntryResponse;
 import com.excalicode.platform.core.api.rag.RequirementKnowledgeEntryUpdateRequest;
 import com.excalicode.platform.core.api.rag.RequirementKnowledgeImportResponse;
@@ -111,11 +112,41 @@ public class RequirementKnowledgeController {
     return ResponseEntity.ok().build();
   }
 
-  /** 一键向量化：异步将数据库中所有未向量化条目写入向量库 */
+  /** 一键向量化：提交作业异步将数据库中所有未向量化条目写入向量库，返回作业进度 */
   @PostMapping("/entries/vectorize")
-  public ResponseEntity<Void> vectorizeAll() {
-    requirementKnowledgeBatchVectorizeService.submitVectorizeAllUnvectorized();
-    return ResponseEntity.accepted().build();
+  public ResponseEntity<KnowledgeVectorizeJobResponse> vectorizeAll() {
+    return ResponseEntity.accepted()
+        .body(requirementKnowledgeBatchVectorizeService.submitVectorizeAllUnvectorized());
+  }
+
+  /** 最近一次一键向量化作业的进度，没有作业时返回 204 */
+  @GetMapping("/vectorize-jobs/latest")
+  public ResponseEntity<KnowledgeVectorizeJobResponse> latestVectorizeJob() {
+    KnowledgeVectorizeJobResponse job = requirementKnowledgeBatchVectorizeService.getLatestJob();
+    return job == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(job);
+  }
+
+  /** 查询一键向量化作业进度（已处理数、吞吐、预计剩余时间） */
+  @GetMapping("/vectorize-jobs/{jobId}")
+  public ResponseEntity<KnowledgeVectorizeJobResponse> getVectorizeJob(@PathVariable Long jobId) {
+    return ResponseEntity.ok(requirementKnowledgeBatchVectorizeService.getJob(jobId));
+  }
+
+  /** 取消一键向量化作业，当前页处理完后停止 */
+  @PostMapping("/vectorize-jobs/{jobId}/cancel")
+  public ResponseEntity<KnowledgeVectorizeJobResponse> cancelVectorizeJob(
+      @PathVariable Long jobId) {
+    log.info("取消批量向量化作业: jobId={}", jobId);
+    return ResponseEntity.ok(requirementKnowledgeBatchVectorizeService.cancelJob(jobId));
+  }
+
+  /** 从检查点继续一键向量化作业 */
+  @PostMapping("/vectorize-jobs/{jobId}/resume")
+  public ResponseEntity<KnowledgeVectorizeJobResponse> resumeVectorizeJob(
+      @PathVariable Long jobId) {
+    log.info("继续批量向量化作业: jobId={}", jobId);
+    return ResponseEntity.accepted()
+        .body(requirementKnowledgeBatchVectorizeService.resumeJob(jobId));
   }
 
   /** 删除向量（保留数据库条目） */
@@ -1,11 +1,16 @@
 package com.excalicode.platform.web.exception;
 
 import com.excalicode.platform.core.exception.BusinessException;
+import com.excalicode.platform.core.exception.ServiceOverloadedException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -17,6 +22,23 @@ public class GlobalExceptionHandler {
 
   private static final String TRACE_ID_KEY = "traceId";
 
+  /** 执行器直接拒绝任务时建议的重试等待时间 */
+  private static final Duration EXECUTOR_REJECTED_RETRY_AFTER = Duration.ofSeconds(5);
+
+  /** 处理服务繁忙：返回 429 与 Retry-After */
+  @ExceptionHandler(ServiceOverloadedException.class)
+  public ResponseEntity<ProblemDetail> handleServiceOverloaded(ServiceOverloadedException e) {
+    log.warn("服务繁忙: {}", e.getMessage());
+    return tooManyRequests(e.getMessage(), e.getRetryAfter());
+  }
+
+  /** 处理执行器拒绝任务：同样视为服务繁忙 */
+  @ExceptionHandler(RejectedExecutionException.class)
+  public ResponseEntity<ProblemDetail> handleRejectedExecution(RejectedExecutionException e) {
+    log.warn("执行器拒绝任务: {}", e.getMessage());
+    return tooManyRequests("服务繁忙，请稍后重试", EXECUTOR_REJECTED_RETRY_AFTER);
+  }
+
   /** 处理业务异常 */
   @ExceptionHandler(BusinessException.class)
   public ProblemDetail handleBusinessException(BusinessException e) {
@@ -32,6 +54,12 @@ public class GlobalExceptionHandler {
     return createProblemDetail(HttpStatus.INTERNAL_SERVER_ERROR, message);
   }
 
+  private ResponseEntity<ProblemDetail> tooManyRequests(String message, Duration retryAfter) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+        .body(createProblemDetail(HttpStatus.TOO_MANY_REQUESTS, message));
+  }
+
   private ProblemDetail createProblemDetail(HttpStatus status, String message) {
     ProblemDetail detail =
         ProblemDetail.forStatusAndDetail(
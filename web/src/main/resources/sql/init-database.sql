@@ -38,11 +38,12 @@ CREATE TABLE IF NOT EXISTS ai_function_model_mapping (
     id BIGINT AUTO_INCREMENT COMMENT '主键ID',
     function_type VARCHAR(50) NOT NULL COMMENT '功能类型代码(对应 AiFunctionType 枚举)',
     model_id BIGINT NOT NULL COMMENT '模型ID',
+    sort_order INT NOT NULL DEFAULT 0 COMMENT '候选顺序(越小越优先)',
     created_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除: 0-未删除, 1-已删除',
     PRIMARY KEY (id),
-    UNIQUE KEY uk_function_type (function_type, deleted) COMMENT '功能类型唯一索引',
+    UNIQUE KEY uk_function_model (function_type, model_id, deleted) COMMENT '功能-模型唯一索引',
     INDEX idx_model_id (model_id),
     INDEX idx_deleted (deleted),
     CONSTRAINT fk_mapping_model FOREIGN KEY (model_id) REFERENCES ai_model(id) ON DELETE CASCADE
@@ -229,3 +230,25 @@ CREATE TABLE IF NOT EXISTS requirement_knowledge_entry (
     INDEX idx_deleted (deleted),
     INDEX idx_updated_time (updated_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='需求知识库条目';
+
+-- 知识库批量向量化作业表
+CREATE TABLE IF NOT EXISTS knowledge_vectorize_job (
+    id BIGINT AUTO_INCREMENT COMMENT '主键ID',
+    status VARCHAR(20) NOT NULL COMMENT '作业状态: PENDING, RUNNING, SUCCEEDED, FAILED, CANCELLED',
+    total_count INT NOT NULL DEFAULT 0 COMMENT '提交时未向量化的条目数',
+    processed_count INT NOT NULL DEFAULT 0 COMMENT '已处理条目数',
+    succeeded_count INT NOT NULL DEFAULT 0 COMMENT '成功条目数',
+    failed_count INT NOT NULL DEFAULT 0 COMMENT '失败条目数',
+    last_document_id VARCHAR(64) NULL COMMENT '检查点: 已处理的最后一个文档ID',
+    cancel_requested TINYINT NOT NULL DEFAULT 0 COMMENT '是否已请求取消: 0-否, 1-是',
+    error_message TEXT NULL COMMENT '失败原因',
+    started_time DATETIME NULL COMMENT '本轮开始执行时间',
+    started_processed_count INT NOT NULL DEFAULT 0 COMMENT '本轮开始时已处理条目数',
+    finished_time DATETIME NULL COMMENT '完成时间',
+    created_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除: 0-未删除, 1-已删除',
+    PRIMARY KEY (id),
+    INDEX idx_status (status),
+    INDEX idx_created_time (created_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='知识库批量向量化作业';
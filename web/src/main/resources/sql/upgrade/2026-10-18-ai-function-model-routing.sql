@@ -0,0 +1,13 @@
+-- 升级脚本：功能-模型映射支持多个候选模型
+-- 适用于在此之前已执行过 init-database.sql 的数据库，只需执行一次
+
+USE excalicode_ai;
+
+-- 候选顺序，已有映射为唯一候选，顺序为 0
+ALTER TABLE ai_function_model_mapping
+    ADD COLUMN sort_order INT NOT NULL DEFAULT 0 COMMENT '候选顺序(越小越优先)' AFTER model_id;
+
+-- 同一功能可映射多个模型：唯一索引由 (功能类型) 改为 (功能类型, 模型)
+ALTER TABLE ai_function_model_mapping
+    DROP INDEX uk_function_type,
+    ADD UNIQUE KEY uk_function_model (function_type, model_id, deleted) COMMENT '功能-模型唯一索引';